@@ -1,74 +1,204 @@
 package pl.polsl.snake;
 
+import android.Manifest;
+import android.app.Activity;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
 import android.graphics.Point;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
-import java.util.Random;
+import android.view.ViewConfiguration;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.os.Vibrator;
-import android.os.VibrationEffect;
+import android.graphics.Rect;
 import android.os.Build;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
-import android.media.AudioManager;
-import android.media.ToneGenerator;
-import android.speech.RecognitionListener;
-import android.speech.RecognizerIntent;
-import android.speech.SpeechRecognizer;
-import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import java.util.ArrayList;
-import android.content.Intent;
+import android.os.PowerManager;
+import android.os.Process;
+import android.os.SystemClock;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+import pl.polsl.snake.core.Autopilot;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.InputQueue;
+import pl.polsl.snake.core.Simulation;
+import pl.polsl.snake.core.Steering;
+import pl.polsl.snake.feedback.DeviceFeedback;
+import pl.polsl.snake.feedback.Feedback;
+import pl.polsl.snake.feedback.FeedbackDispatcher;
+import pl.polsl.snake.loop.Clock;
+import pl.polsl.snake.loop.FixedStepLoop;
+import pl.polsl.snake.loop.LoopMode;
+import pl.polsl.snake.loop.Pacer;
+import pl.polsl.snake.loop.RenderGovernor;
+import pl.polsl.snake.loop.SleepPacer;
+import pl.polsl.snake.loop.VsyncPacer;
+import pl.polsl.snake.profile.FrameProfiler;
+import pl.polsl.snake.render.BoardRenderer;
+import pl.polsl.snake.render.ChunkRenderer;
+import pl.polsl.snake.render.MenuLayout;
+import pl.polsl.snake.render.SegmentBatch;
+import pl.polsl.snake.render.TextBuffer;
+import pl.polsl.snake.render.WorldRenderer;
+import pl.polsl.snake.replay.ReplayRecorder;
+import pl.polsl.snake.session.GameSnapshot;
+import pl.polsl.snake.session.SessionFile;
+import pl.polsl.snake.spectate.SpectatorServer;
+import pl.polsl.snake.startup.Lazy;
+import pl.polsl.snake.startup.StartupTrace;
+import pl.polsl.snake.store.PlayerRecord;
+import pl.polsl.snake.store.PlayerStore;
+import pl.polsl.snake.store.SessionStats;
+import pl.polsl.snake.tilt.TiltDetector;
+import pl.polsl.snake.voice.AndroidRecognizer;
+import pl.polsl.snake.voice.KeywordMatcher;
+import pl.polsl.snake.voice.VoiceController;
 
 public class SnakeEngine extends SurfaceView implements Runnable, SensorEventListener {
 
     public enum GameState {MENU, PLAYING, DEATH_PAUSE}
-    private GameState currentState = GameState.MENU;
+    // Zmieniany z wątku UI (menu, dotyk), czytany przez wątek gry
+    private volatile GameState currentState = GameState.MENU;
     private Thread thread = null;
     private Context context;
 
-    public enum Heading {UP, RIGHT, DOWN, LEFT}
-    private Heading heading = Heading.RIGHT;
-
-    private int screenX, screenY, snakeLength, bobX, bobY, blockSize, numBlocksHigh;
+    private int screenX, screenY, blockSize, numBlocksHigh;
     private int NUM_BLOCKS_WIDE = 40;
-
-    private long nextFrameTime;
-    private final long MILLIS_PER_SECOND = 1000;
-    private int score;
-    private int[] snakeXs, snakeYs;
+    // Plansza na ekranie: zwykle blockSize od lewego górnego rogu; gra odtworzona z innego
+    // ekranu (obrót) dostaje własną wielkość pola i pasy po bokach
+    private int boardBlock, boardX, boardY;
+    private static final int MAX_RESTORED_BOARD = 1000;
+
+    // Cała logika gry siedzi w symulacji, silnik tylko przekazuje wejście i rysuje.
+    // Podmieniana tylko na wątku gry (nowa gra w innym rozmiarze świata) albo przed jego startem.
+    private Simulation sim;
+    // Wielki świat: plansza dużo większa niż ekran, kamera idzie za głową
+    private static final int LARGE_WORLD_SIZE = 2000;
+    // Polecenia z wątku UI, czujników i mowy trafiają do kolejki; wątek gry odbiera je raz na tick
+    private final InputQueue inputQueue = new InputQueue(16);
+    private final Steering steering = new Steering(inputQueue);
+    // W trybie AUTOPILOT polecenia wydaje BFS, a kolejka wejścia jest ignorowana
+    private final Autopilot autopilot = new Autopilot();
+    private volatile boolean newGameRequested;
+
+    private final LoopMode loopMode = LoopMode.VSYNC;
+    private final FixedStepLoop loop;
     private volatile boolean isPlaying;
     private Canvas canvas;
     private SurfaceHolder surfaceHolder;
     private Paint paint;
+    // Ciało w pełnym odrysowaniu: jedno drawLines zamiast drawRect na segment
+    private Paint segmentPaint;
+    private final SegmentBatch segmentBatch = new SegmentBatch();
+
+    // Rysowanie przyrostowe: bitmapa planszy + odświeżanie tylko zmienionych prostokątów
+    private static final int HUD_BOTTOM = 160;
+    private final boolean incrementalRender = true;
+    private BoardRenderer boardRenderer;
+    // Tworzony przy pierwszej grze w wielkim świecie; renderer to ten, który pasuje do sim
+    private ChunkRenderer chunkRenderer;
+    private volatile WorldRenderer renderer;
+    private final Rect dirty = new Rect();
+    private GameState lastDrawnState;
+    private int hudScore = -1, hudCellsPainted = -1, hudPrimitives = -1;
+    private String hudVoiceStatus;
+    // Stan głosu na kafelku menu; zmienia go rozpoznawanie mowy, nie dotknięcie
+    private String menuVoiceStatus;
+
+    // Napisy składane w buforze znaków, układ menu liczony raz na rozmiar ekranu
+    private final TextBuffer text = new TextBuffer(128);
+
+    // Czasy faz klatki; nakładkę włącza i wyłącza przytrzymanie wyniku, tylko w buildzie debug -
+    // zwykłe dotknięcie lewej połowy ekranu to skręt w trybie dotykowym
+    private static final int SCORE_BOTTOM = 70;
+    private static final int PROFILER_LINE = 34, PROFILER_BOTTOM = HUD_BOTTOM + PROFILER_LINE * 10;
+    private static final FrameProfiler.Phase[] PROFILER_PHASES = FrameProfiler.Phase.values();
+    private final FrameProfiler profiler = new FrameProfiler();
+    private volatile boolean profilerOverlay;
+    private boolean profilerOverlayDrawn;
+    private long lastGcPoll, lastPowerPoll, lastStatsPush;
+    // Ile klatek rysować: pomija klatki bez zmian, bez obrazu odświeża sam HUD, ogranicza klatki przy grzaniu i oszczędzaniu baterii
+    private final RenderGovernor governor = new RenderGovernor(Clock.SYSTEM);
+    private final PowerManager powerManager;
+    // Menu rysujemy tylko po dotknięciu albo nowej powierzchni
+    private volatile boolean menuDirty = true;
+    private final MenuLayout menuLayout = new MenuLayout();
 
     private boolean isPausedForDeath = false;
     private long deathPauseStart;
     private final long DEATH_PAUSE_DURATION = 1000;
 
-    private SensorManager sensorManager;
-    private Sensor accelerometer;
-
-    public enum ControlMode {TOUCH, ACCELEROMETER, VOICE}
+    // Czujnik szukamy dopiero, gdy tryb go potrzebuje (albo w tle, gdy gracz go wybrał w menu)
+    private final Lazy<SensorManager> sensorManager =
+            new Lazy<>(() -> (SensorManager) context.getSystemService(Context.SENSOR_SERVICE));
+    private final Lazy<Sensor> accelerometer =
+            new Lazy<>(() -> sensorManager.get().getDefaultSensor(Sensor.TYPE_ACCELEROMETER));
+    // Akcelerometr działa tylko w trakcie gry w trybie AKCELEROMETR; wątek czujnika filtruje,
+    // decyzję o skręcie podejmuje wątek gry raz na tick
+    private final TiltDetector tilt = new TiltDetector();
+    private boolean sensorRegistered;
+    // Znaczniki zdarzeń czujnika liczone są od elapsedRealtimeNanos, kolejka wejścia używa nanoTime
+    private long sensorClockOffset;
+
+    public enum ControlMode {TOUCH, ACCELEROMETER, VOICE, AUTOPILOT}
     private ControlMode currentMode = ControlMode.TOUCH;
 
-    private boolean vibrationEnabled = true, soundEnabled = true, gameVisible = true;
+    private boolean vibrationEnabled = true, soundEnabled = true, gameVisible = true, largeWorld;
     private int gameSpeed = 10, appleMargin = 3;
     private float bobScale = 1.0f;
 
-    // ZMIENNE GŁOSOWE
-    private SpeechRecognizer speechRecognizer;
-    private Intent speechIntent;
-    private String voiceStatus = "Czekam.."; // Poprawiono: usunięto podwójną deklarację
-    private long lastCommandTime = 0;
-    private ToneGenerator toneGenerator;
+    // Sterowanie głosem: jedna ciepła sesja rozpoznawania, komendy prosto do kolejki wejścia
+    private final VoiceController voice;
+    // Wibracje i dźwięki odtwarza osobny wątek; wątek gry tylko zgłasza zdarzenia
+    private final FeedbackDispatcher feedback;
+    // Każda gra jest nagrywana (wejście + migawki) do jednego z kilku plików w kółko
+    private static final int REPLAY_FILES = 5;
+    private final ReplayRecorder replay = new ReplayRecorder(ReplayRecorder.DEFAULT_SNAPSHOT_INTERVAL);
+    private final Path replayDir;
+    private int replayCounter;
+    // Stan gry i ustawienia zapisywane w pause(); nowy silnik (obrót ekranu, śmierć procesu) gra dalej
+    private final SessionFile session;
+    private final GameSnapshot snapshot = new GameSnapshot();
+    // Sesję czyta wątek gry przed pierwszą klatką; do tego czasu nie nadpisujemy pliku
+    private volatile boolean sessionRestored, sessionSettingsRestored;
+    // Ustawienia, rekordy i statystyki przeżywają też koniec gry i śmierć procesu. Dysk obsługuje
+    // wątek magazynu; wątek gry zbiera statystyki u siebie i oddaje je raz na sekundę.
+    private final PlayerStore store;
+    private final SessionStats pendingStats = new SessionStats();
+    // Wątek UI: bufor ustawień przekazywanych do magazynu
+    private final PlayerRecord settings = new PlayerRecord();
+    // Podgląd na żywo dla widza na komputerze, tylko w buildzie debug i tylko na loopback
+    // (adb forward tcp:7531 tcp:7531); wątek gry dopisuje deltę ticku do kolejki w pamięci
+    private final SpectatorServer spectators = new SpectatorServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), SpectatorServer.DEFAULT_PORT),
+            SpectatorServer.DEFAULT_CLIENT_BUFFER);
+    private final boolean debugBuild;
+
+    // Zimny start: konstruktor tylko składa obiekty, menu idzie na ekran w pierwszej klatce,
+    // a głos i czujnik przygotowujemy w tle, dopiero gdy wybrany tryb ich potrzebuje
+    private final StartupTrace startup = new StartupTrace(System.nanoTime());
+    // Krótkotrwały wątek na jedno przygotowanie; nic nie zostaje po kolejnych silnikach (obrót ekranu)
+    private static final Executor INIT_EXECUTOR = r -> {
+        Thread t = new Thread(r, "snake-init");
+        t.setDaemon(true);
+        t.start();
+    };
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     public SnakeEngine(Context context, Point size) {
         super(context);
@@ -80,145 +210,377 @@ public class SnakeEngine extends SurfaceView implements Runnable, SensorEventLis
 
         surfaceHolder = getHolder();
         paint = new Paint();
-        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
-        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        boardBlock = blockSize;
+        segmentPaint = BoardRenderer.newSegmentPaint(blockSize);
+        boardRenderer = new BoardRenderer(screenX, screenY, blockSize);
+        renderer = boardRenderer;
+        surfaceHolder.addCallback(new SurfaceHolder.Callback() {
+            // Nowa lub zmieniona powierzchnia ma niezdefiniowaną zawartość
+            @Override public void surfaceCreated(SurfaceHolder holder) { invalidateAll(); }
+            @Override public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) { invalidateAll(); }
+            @Override public void surfaceDestroyed(SurfaceHolder holder) {}
+        });
+        powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        debugBuild = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+
+        sim = new Simulation(NUM_BLOCKS_WIDE, numBlocksHigh, System.nanoTime());
+
+        voice = new VoiceController(new AndroidRecognizer(context), mainHandler::postDelayed,
+                KeywordMatcher.createDefault(), inputQueue);
+
+        replayDir = context.getFilesDir().toPath().resolve("replays");
+        session = SessionFile.shared(context.getFilesDir().toPath().resolve("session.bin"));
+        // Wspólny dla procesu: sesja i zaległe zapisy przeżywają obrót ekranu
+        store = PlayerStore.shared(context.getFilesDir().toPath().resolve("player.bin"), PlayerStore.DEFAULT_FLUSH_DELAY_MS);
+        store.setOnLoaded(() -> mainHandler.post(this::applyStoredSettings));
+        feedback = new FeedbackDispatcher(new DeviceFeedback(context));
+        feedback.setEnabled(vibrationEnabled, soundEnabled);
+        loop = new FixedStepLoop(loopMode, Clock.SYSTEM, createPacer(loopMode), new FixedStepLoop.Callback() {
+            @Override public void tick() {
+                long t = profiler.start();
+                update();
+                profiler.end(FrameProfiler.Phase.TICK, t);
+                governor.onTick();
+            }
+            @Override public void render() {
+                // Zmiana stanu (np. wyjście z menu do gry bez obrazu) idzie na ekran od razu
+                if (!governor.shouldRender(gameVisible || currentState == GameState.MENU || currentState != lastDrawnState)) return;
+                long t = profiler.start();
+                boolean presented = draw();
+                profiler.end(FrameProfiler.Phase.DRAW, t);
+                governor.rendered(presented);
+                if (presented && startup.firstFrame(System.nanoTime())) onFirstFrame();
+            }
+        });
+        // Bez newGame(): świeża symulacja jest już zresetowana, a START i tak zaczyna od nowa
+        startup.mark("konstruktor", System.nanoTime());
+    }
 
-        snakeXs = new int[200];
-        snakeYs = new int[200];
+    private boolean restoreSession() {
+        long start = System.nanoTime();
+        try {
+            if (!session.load(snapshot, this::worldFor)) return false;
+        } catch (IOException e) {
+            android.util.Log.w("SNAKE_SESSION", "Nie udało się odczytać stanu", e);
+            return false;
+        }
+        ControlMode[] modes = ControlMode.values();
+        GameState[] states = GameState.values();
+        if (sim.isDead() || snapshot.controlMode < 0 || snapshot.controlMode >= modes.length
+                || snapshot.gameState < 0 || snapshot.gameState >= states.length) return false;
+        currentMode = modes[snapshot.controlMode];
+        currentState = states[snapshot.gameState];
+        vibrationEnabled = snapshot.vibrationEnabled;
+        soundEnabled = snapshot.soundEnabled;
+        gameVisible = snapshot.gameVisible;
+        largeWorld = snapshot.largeWorld;
+        gameSpeed = snapshot.gameSpeed;
+        appleMargin = snapshot.appleMargin;
+        bobScale = snapshot.bobScale;
+        leaveAutopilotInLargeWorld();
+        feedback.setEnabled(vibrationEnabled, soundEnabled);
+        sessionSettingsRestored = true;
+        spectators.invalidate();
+        // Głos i czujnik obsługuje wątek główny
+        mainHandler.post(this::applyRestoredMode);
+        android.util.Log.d("SNAKE_SESSION", "Stan odtworzony w " + (System.nanoTime() - start) / 1000 + " us");
+        return true;
+    }
 
-        speechIntent = new Intent(RecognizerIntent.ACTION_RECOGNIZE_SPEECH);
-        speechIntent.putExtra(RecognizerIntent.EXTRA_LANGUAGE_MODEL, RecognizerIntent.LANGUAGE_MODEL_FREE_FORM);
-        speechIntent.putExtra(RecognizerIntent.EXTRA_LANGUAGE, "pl-PL");
-        speechIntent.putExtra(RecognizerIntent.EXTRA_PARTIAL_RESULTS, true);
-        speechIntent.putExtra(RecognizerIntent.EXTRA_PREFER_OFFLINE, true);
-        speechIntent.putExtra(RecognizerIntent.EXTRA_CALLING_PACKAGE, context.getPackageName());
+    private void applyRestoredMode() {
+        if (!isPlaying) return;
+        if (currentMode == ControlMode.VOICE) {
+            requestVoicePermission();
+            if (currentState == GameState.PLAYING) voice.start();
+        }
+        updateSensor();
+    }
 
-        toneGenerator = new ToneGenerator(AudioManager.STREAM_MUSIC, 100);
-        newGame();
+    // Wątek UI, gdy magazyn wczytał plik. Gra w toku (plik sesji) ma własne ustawienia.
+    private void applyStoredSettings() {
+        menuDirty = true;
+        if (sessionSettingsRestored || currentState != GameState.MENU || !store.readSettings(settings)) return;
+        ControlMode[] modes = ControlMode.values();
+        if (settings.controlMode >= 0 && settings.controlMode < modes.length) currentMode = modes[settings.controlMode];
+        gameSpeed = settings.gameSpeed;
+        appleMargin = settings.appleMargin;
+        bobScale = settings.bobScale;
+        vibrationEnabled = settings.vibrationEnabled;
+        soundEnabled = settings.soundEnabled;
+        gameVisible = settings.gameVisible;
+        largeWorld = settings.largeWorld;
+        leaveAutopilotInLargeWorld();
+        feedback.setEnabled(vibrationEnabled, soundEnabled);
+        if (currentMode == ControlMode.VOICE) requestVoicePermission();
+        if (startup.hasFirstFrame()) prewarm();
     }
 
-    private void startListeningSafe() {
-        new Handler(Looper.getMainLooper()).post(() -> {
-            try {
-                if (speechRecognizer != null) {
-                    speechRecognizer.destroy();
-                    speechRecognizer = null;
-                }
-                speechRecognizer = SpeechRecognizer.createSpeechRecognizer(context);
-                setupSpeechListener();
-                speechRecognizer.startListening(speechIntent);
-                voiceStatus = "STARTUJĘ..";
-            } catch (Exception e) {
-                voiceStatus = "BŁĄD STARTU";
-            }
-        });
+    // BFS autopilota trzyma tablice na całą planszę - w świecie 2000x2000 to ~80 MB i miliony
+    // pól na tick, więc oba tryby się wykluczają; stare ustawienia wracają do dotyku
+    private void leaveAutopilotInLargeWorld() {
+        if (largeWorld && currentMode == ControlMode.AUTOPILOT) currentMode = ControlMode.TOUCH;
     }
 
-    private void setupSpeechListener() {
-        speechRecognizer.setRecognitionListener(new RecognitionListener() {
-            @Override
-            public void onReadyForSpeech(Bundle params) { voiceStatus = "SŁUCHAM!"; }
-            @Override
-            public void onBeginningOfSpeech() { voiceStatus = "SŁYSZĘ..."; }
-            @Override
-            public void onResults(Bundle results) { processVoiceCommand(results); restart(); }
-            @Override
-            public void onPartialResults(Bundle partialResults) { processVoiceCommand(partialResults); }
-            @Override
-            public void onError(int error) {
-                voiceStatus = "Błąd: " + error;
-                if (error == 8) speechRecognizer.cancel();
-                new Handler(Looper.getMainLooper()).postDelayed(() -> restart(), 400);
-            }
-            @Override
-            public void onEndOfSpeech() { restart(); }
-            private void restart() {
-                if (currentMode == ControlMode.VOICE && currentState == GameState.PLAYING) {
-                    startListeningSafe();
-                }
-            }
-            @Override public void onRmsChanged(float rmsdB) {}
-            @Override public void onBufferReceived(byte[] buffer) {}
-            @Override public void onEvent(int eventType, Bundle params) {}
-        });
+    // Wątek UI, po każdym dotknięciu menu; magazyn pomija brak zmian i scala szybkie zmiany w jeden zapis
+    private void storeSettings() {
+        settings.controlMode = currentMode.ordinal();
+        settings.gameSpeed = gameSpeed;
+        settings.appleMargin = appleMargin;
+        settings.bobScale = bobScale;
+        settings.vibrationEnabled = vibrationEnabled;
+        settings.soundEnabled = soundEnabled;
+        settings.gameVisible = gameVisible;
+        settings.largeWorld = largeWorld;
+        store.updateSettings(settings);
     }
 
-    private void processVoiceCommand(Bundle bundle) {
-        ArrayList<String> matches = bundle.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
-        if (matches != null && currentState == GameState.PLAYING) {
-            for (String match : matches) {
-                String cmd = match.toLowerCase();
-                boolean changed = false;
-                if (cmd.contains("góra") && heading != Heading.DOWN) { heading = Heading.UP; changed = true; }
-                else if (cmd.contains("dół") && heading != Heading.UP) { heading = Heading.DOWN; changed = true; }
-                else if (cmd.contains("lewo") && heading != Heading.RIGHT) { heading = Heading.LEFT; changed = true; }
-                else if (cmd.contains("prawo") && heading != Heading.LEFT) { heading = Heading.RIGHT; changed = true; }
-
-                if (changed && System.currentTimeMillis() - lastCommandTime > 250) {
-                    playDirectionSound(heading);
-                    vibrateOnTurn();
-                    lastCommandTime = System.currentTimeMillis();
-                    break;
-                }
-            }
+    private void saveSession() {
+        if (!sessionRestored) return;
+        snapshot.controlMode = currentMode.ordinal();
+        snapshot.gameState = currentState.ordinal();
+        snapshot.vibrationEnabled = vibrationEnabled;
+        snapshot.soundEnabled = soundEnabled;
+        snapshot.gameVisible = gameVisible;
+        snapshot.largeWorld = sim.getWidth() == LARGE_WORLD_SIZE && sim.getHeight() == LARGE_WORLD_SIZE;
+        snapshot.gameSpeed = gameSpeed;
+        snapshot.appleMargin = appleMargin;
+        snapshot.bobScale = bobScale;
+        // Tu tylko serializacja do pamięci; plik, force() i podmiana w wątku zapisu sesji
+        session.saveInBackground(snapshot, sim);
+    }
+
+    private static Pacer createPacer(LoopMode mode) {
+        switch (mode) {
+            case VSYNC: return new VsyncPacer();
+            case SLEEP: return new SleepPacer(Clock.SYSTEM);
+            default: return Pacer.NONE;
         }
     }
 
     public void run() {
-        while (isPlaying) {
-            if(updateRequired()) { update(); draw(); }
+        if (!sessionRestored) {
+            restoreSession();
+            // pause() w trakcie odczytu: plik zostaje nietknięty do następnego startu
+            if (Thread.currentThread().isInterrupted()) return;
+            sessionRestored = true;
+            startup.mark("sesja", System.nanoTime());
+        }
+        loop.reset();
+        try {
+            while (isPlaying) {
+                loop.setTicksPerSecond(gameSpeed);
+                loop.frame();
+                if (loop.getLastTicksRun() > 0) profiler.record(FrameProfiler.Phase.LATENESS, loop.getLastLatenessNanos());
+                profiler.setLoopStats(loop.getLateTicks(), loop.getSkippedTicks());
+                pollGcStats();
+                pollPowerState();
+                pushStats();
+                profiler.setRenderStats(governor.getFrames(), governor.getTicks());
+            }
+        } catch (InterruptedException e) {
+            // pause() przerywa czekanie na kolejny tick
         }
     }
 
     public void pause() {
         isPlaying = false;
-        sensorManager.unregisterListener(this);
-        if (speechRecognizer != null) speechRecognizer.destroy();
+        updateSensor();
+        voice.release();
+        if (thread != null) thread.interrupt();
         try { if (thread != null) thread.join(); } catch (InterruptedException e) {}
+        replay.end(sim);
+        replay.stop();
+        // Wątek gry już stoi, więc symulację i profil czytamy bez wyścigu
+        saveSession();
+        store.addStats(pendingStats);
+        pendingStats.clear();
+        spectators.stop();
+        // Bez czekania: zaległe zmiany zapisze wątek magazynu
+        store.stop();
+        dumpProfile();
+        feedback.stop();
+        android.util.Log.d("SNAKE_FEEDBACK", "zgłoszone=" + feedback.getPosted() + " scalone=" + feedback.getMerged()
+                + " odrzucone=" + feedback.getDropped() + " odtworzone=" + feedback.getPlayed());
+        android.util.Log.d("SNAKE_RENDER", "rysowania=" + renderer.getTotalDrawCalls() + " prostokąty=" + renderer.getTotalPrimitives()
+                + " pola=" + renderer.getTotalCellsPainted() + " klatki=" + governor.getFrames() + " ticki=" + governor.getTicks()
+                + " bez_zmian=" + governor.getUnchanged() + " limit=" + governor.getCapped() + " limit_fps=" + governor.getFrameCap());
+        android.util.Log.d("SNAKE_TILT", "próbki=" + tilt.getSamples() + " skręty=" + tilt.getTurns()
+                + " czujnik_init=" + accelerometer.getCreateNanos() / 1000 + " us");
+        android.util.Log.d("SNAKE_VOICE", "komendy=" + voice.getCommands() + " duplikaty=" + voice.getDuplicates()
+                + " wznowienia=" + voice.getRestarts() + " błędy=" + voice.getErrors() + " połączenia=" + voice.getResets());
+        android.util.Log.d("SNAKE_SPECTATE", "delty=" + spectators.getFrames() + " migawki=" + spectators.getSnapshots()
+                + " bajty=" + spectators.getBytesSent() + " rozłączeni=" + spectators.getDropped()
+                + " przepełnienia=" + spectators.getResyncs());
+        android.util.Log.d("SNAKE_SESSION", "zapisy=" + session.getWrites() + " błędy=" + session.getFailures());
+        android.util.Log.d("SNAKE_STORE", "zmiany=" + store.getUpdates() + " zapisy=" + store.getWrites()
+                + " błędy=" + store.getFailures());
     }
 
     public void resume() {
         isPlaying = true;
+        store.start();
+        if (debugBuild) spectators.start();
+        feedback.start();
+        replay.start();
         thread = new Thread(this);
         thread.start();
-        sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_GAME);
+        updateSensor();
+        // Po powrocie do aplikacji pierwsza klatka już była - przygotowujemy od razu
+        if (startup.hasFirstFrame()) prewarm();
+    }
+
+    // Wątek gry, zaraz po pierwszej klatce na ekranie
+    private void onFirstFrame() {
+        android.util.Log.d("SNAKE_STARTUP", startup.summary() + " od_startu_procesu="
+                + (SystemClock.uptimeMillis() - Process.getStartUptimeMillis()) + " ms");
+        // Sygnał "w pełni narysowane" dla pomiarów startu (am start -W, Macrobenchmark)
+        if (context instanceof Activity) mainHandler.post(((Activity) context)::reportFullyDrawn);
+        prewarm();
+    }
+
+    // Menu jest już na ekranie: przygotowujemy to, czego wymaga wybrany tryb, zanim gracz
+    // naciśnie START. SpeechRecognizer trzeba tworzyć na wątku głównym.
+    private void prewarm() {
+        if (currentMode == ControlMode.ACCELEROMETER) accelerometer.prewarm(INIT_EXECUTOR);
+        if (currentMode == ControlMode.VOICE) mainHandler.post(() -> { if (isPlaying) voice.prewarm(); });
+    }
+
+    // Mikrofon potrzebny tylko w trybie GŁOS - pytamy przy jego wyborze, nie przy starcie
+    private void requestVoicePermission() {
+        if (!(context instanceof Activity) || Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return;
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.RECORD_AUDIO)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions((Activity) context,
+                    new String[]{Manifest.permission.RECORD_AUDIO}, Main.REQUEST_RECORD_AUDIO);
+        }
+    }
+
+    // Wątek UI. Przy sprzętowym batchingu czujnik oddaje próbki paczką najwyżej raz na tick,
+    // zamiast budzić procesor co 20 ms - i tak decydujemy tylko raz na tick.
+    private void updateSensor() {
+        boolean wanted = isPlaying && currentState == GameState.PLAYING && currentMode == ControlMode.ACCELEROMETER;
+        Sensor sensor = wanted ? accelerometer.get() : null;
+        wanted = sensor != null;
+        if (wanted == sensorRegistered) return;
+        sensorRegistered = wanted;
+        SensorManager manager = sensorManager.get();
+        if (!wanted) {
+            manager.unregisterListener(this);
+            return;
+        }
+        sensorClockOffset = SystemClock.elapsedRealtimeNanos() - System.nanoTime();
+        if (sensor.getFifoMaxEventCount() > 0) {
+            manager.registerListener(this, sensor, TiltDetector.SAMPLING_PERIOD_US,
+                    TiltDetector.reportLatencyMicros(gameSpeed));
+        } else {
+            manager.registerListener(this, sensor, TiltDetector.SAMPLING_PERIOD_US);
+        }
     }
 
     public void newGame() {
-        snakeLength = 1;
-        snakeXs[0] = NUM_BLOCKS_WIDE / 2;
-        snakeYs[0] = numBlocksHigh / 2;
-        spawnBob();
-        score = 0;
-        nextFrameTime = System.currentTimeMillis();
+        replay.end(sim);
+        worldFor(largeWorld);
+        sim.setAppleMargin(appleMargin);
+        sim.setBobScale(bobScale);
+        sim.reset(System.nanoTime());
+        steering.clear();
+        autopilot.invalidate();
+        tilt.recalibrate();
+        pendingStats.onGameStart();
+        spectators.invalidate();
     }
 
-    public void spawnBob() {
-        Random random = new Random();
-        bobX = random.nextInt(NUM_BLOCKS_WIDE - (appleMargin * 2)) + appleMargin;
-        bobY = random.nextInt(numBlocksHigh - (appleMargin * 2)) + appleMargin;
+    // Symulacja i renderer dla wybranego rozmiaru świata; nowa tylko przy zmianie rozmiaru
+    private Simulation worldFor(boolean large) {
+        return worldFor(large, NUM_BLOCKS_WIDE, numBlocksHigh);
+    }
+
+    // Odczyt sesji: plansza o wymiarach zapisanej gry, nie bieżącego ekranu. Wymiary spoza
+    // rozsądnego zakresu (uszkodzony plik) zostawiają obecną symulację - readState ją odrzuci.
+    private Simulation worldFor(boolean large, int boardWidth, int boardHeight) {
+        if (!large && (boardWidth < 1 || boardHeight < 1 || boardWidth > MAX_RESTORED_BOARD
+                || boardHeight > MAX_RESTORED_BOARD)) {
+            return sim;
+        }
+        int w = large ? LARGE_WORLD_SIZE : boardWidth, h = large ? LARGE_WORLD_SIZE : boardHeight;
+        if (sim.getWidth() != w || sim.getHeight() != h) {
+            sim = new Simulation(w, h, System.nanoTime());
+            autopilot.invalidate();
+        }
+        if (!large) fitBoard(w, h);
+        if (large && chunkRenderer == null) chunkRenderer = new ChunkRenderer(screenX, screenY, blockSize);
+        WorldRenderer next = large ? chunkRenderer : boardRenderer;
+        if (next != renderer) {
+            next.invalidate();
+            renderer = next;
+        }
+        return sim;
+    }
+
+    // Plansza z ekranu tej samej wielkości rysuje się jak dotąd; inna jest wpasowana i wyśrodkowana
+    private void fitBoard(int w, int h) {
+        int block = blockSize, x = 0, y = 0;
+        if (w != NUM_BLOCKS_WIDE || h != numBlocksHigh) {
+            block = Math.max(1, Math.min(screenX / w, screenY / h));
+            x = (screenX - w * block) / 2;
+            y = (screenY - h * block) / 2;
+        }
+        if (block == boardBlock && x == boardX && y == boardY) return;
+        boardBlock = block;
+        boardX = x;
+        boardY = y;
+        segmentPaint.setStrokeWidth(block);
+        // Przełączenie renderera i pełne odrysowanie robi worldFor
+        boardRenderer = new BoardRenderer(screenX, screenY, block, x, y);
     }
 
     private void update() {
-        if (currentState != GameState.PLAYING || isPausedForDeath) {
+        // Stan czytamy przed flagą: UI ustawia flagę, potem PLAYING, więc kto widzi PLAYING
+        // z menu, widzi też prośbę o nową grę i nie ruszy starej symulacji ani o tick
+        GameState state = currentState;
+        // Nową grę z menu zaczyna wątek gry - symulacji nie ruszamy z wątku UI
+        if (newGameRequested) {
+            newGameRequested = false;
+            newGame();
+        }
+        if (state != GameState.PLAYING || isPausedForDeath) {
+            // Nagranie kończy się śmiercią albo wyjściem do menu
+            replay.end(sim);
             if (isPausedForDeath && System.currentTimeMillis() - deathPauseStart >= DEATH_PAUSE_DURATION) {
                 isPausedForDeath = false;
                 newGame();
             }
             return;
         }
-        float distanceX = Math.abs(snakeXs[0] - bobX);
-        float distanceY = Math.abs(snakeYs[0] - bobY);
-        float hitRange = bobScale / 2.0f;
-
-        if (distanceX <= hitRange && distanceY <= hitRange){
-            eatBob();
+        if (currentMode == ControlMode.ACCELEROMETER) {
+            Input gesture = tilt.sample();
+            if (gesture != Input.NONE) inputQueue.offer(gesture, tilt.getSampleNanos());
         }
-        moveSnake();
-        checkAppleWarning();
-        checkEngineWarning();
-
-        if(detectDeath()){
+        Input input = currentMode == ControlMode.AUTOPILOT
+                ? autopilot.next(sim)
+                : steering.next(sim.getHeading(), System.nanoTime());
+        if (currentMode == ControlMode.VOICE && input != Input.NONE) {
+            profiler.record(FrameProfiler.Phase.VOICE, steering.getLastLatencyNanos());
+        } else if (currentMode == ControlMode.ACCELEROMETER && input != Input.NONE) {
+            profiler.record(FrameProfiler.Phase.TILT, steering.getLastLatencyNanos());
+        }
+        if (!replay.isRecording()) {
+            replay.begin(replayDir.resolve("replay-" + (replayCounter++ % REPLAY_FILES) + ".snkr"), sim);
+        }
+        replay.record(sim, input);
+        int events = sim.step(input);
+        spectators.publish(sim);
+        pendingStats.onTick(1_000_000_000L / gameSpeed);
+        if ((events & Simulation.EVENT_ATE) != 0) pendingStats.onApple();
+
+        long feedbackStart = profiler.start();
+        if ((events & Simulation.EVENT_TURNED) != 0) feedback.post(Feedback.turn(sim.getHeading()));
+        if ((events & Simulation.EVENT_ATE) != 0) feedback.post(Feedback.EAT);
+        if ((events & Simulation.EVENT_NEAR_APPLE) != 0) feedback.post(Feedback.APPLE_NEAR);
+        if ((events & Simulation.EVENT_NEAR_WALL) != 0) feedback.post(Feedback.WALL_NEAR);
+        profiler.end(FrameProfiler.Phase.FEEDBACK, feedbackStart);
+
+        if ((events & Simulation.EVENT_DIED) != 0) {
             handleDeath();
         }
     }
@@ -226,100 +588,237 @@ public class SnakeEngine extends SurfaceView implements Runnable, SensorEventLis
     private void handleDeath() {
         isPausedForDeath = true;
         deathPauseStart = System.currentTimeMillis();
-        if(vibrationEnabled) {
-            Vibrator v = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
-            v.vibrate(VibrationEffect.createOneShot(600, 255));
-        }
+        pendingStats.onDeath(sim.getDeathCause());
+        store.recordScore(sim.getScore(), deathPauseStart);
+        feedback.post(Feedback.DEATH);
     }
 
-    public void draw() {
-        if (surfaceHolder.getSurface().isValid()) {
-            canvas = surfaceHolder.lockCanvas();
-            canvas.drawColor(Color.argb(255, 26, 128, 182));
+    private void invalidateAll() {
+        renderer.invalidate();
+        menuDirty = true;
+    }
 
-            if (currentState == GameState.MENU) {
-                drawMenu();
-            } else {
-                paint.setColor(Color.WHITE);
-                paint.setTextSize(40); // Większa czcionka HUD
-                canvas.drawText("Wynik: " + score, 20, 50, paint);
-                canvas.drawText("Głos: " + voiceStatus, 20, 100, paint);
-
-                if (gameVisible) {
-                    paint.setColor(Color.RED);
-                    for (int i = 0; i < snakeLength; i++) {
-                        canvas.drawRect(snakeXs[i] * blockSize, snakeYs[i] * blockSize,
-                                (snakeXs[i] * blockSize) + blockSize, (snakeYs[i] * blockSize) + blockSize, paint);
-                    }
-                    paint.setColor(Color.GREEN);
-                    float centerX = bobX * blockSize + (blockSize / 2.0f);
-                    float centerY = bobY * blockSize + (blockSize / 2.0f);
-                    float scaledSize = (blockSize / 2.0f) * bobScale;
-                    canvas.drawRect(centerX - scaledSize, centerY - scaledSize, centerX + scaledSize, centerY + scaledSize, paint);
-                }
+    // true, gdy klatka trafiła na ekran; false, gdy nie było nic do pokazania
+    public boolean draw() {
+        if (!surfaceHolder.getSurface().isValid()) return false;
+        WorldRenderer renderer = this.renderer;
+        if (currentState != lastDrawnState) {
+            renderer.invalidate();
+            menuDirty = true;
+            lastDrawnState = currentState;
+        }
+        // Po zgaszeniu nakładki plansza pod nią musi zostać odrysowana
+        if (profilerOverlay != profilerOverlayDrawn) {
+            renderer.invalidate();
+            profilerOverlayDrawn = profilerOverlay;
+        }
+        // Wielki świat nie mieści się na ekranie - zawsze przez renderer z kamerą
+        if (currentState == GameState.MENU || (!incrementalRender && renderer == boardRenderer)) {
+            if (currentState == GameState.MENU && !menuDirty && voice.getStatus() == menuVoiceStatus) return false;
+            menuDirty = false;
+            drawFull();
+            return true;
+        }
 
-                paint.setColor(Color.argb(150, 255, 255, 255));
-                canvas.drawRect(screenX - 200, 10, screenX - 10, 100, paint);
-                paint.setColor(Color.BLACK);
-                paint.setTextSize(40);
-                canvas.drawText("MENU", screenX - 180, 70, paint);
+        renderer.update(sim, bobScale, gameVisible, dirty);
+        if (sim.getScore() != hudScore || voice.getStatus() != hudVoiceStatus || renderer.getCellsPainted() != hudCellsPainted
+                || renderer.getPrimitives() != hudPrimitives) {
+            dirty.union(0, 0, screenX, HUD_BOTTOM);
+        }
+        if (profilerOverlayDrawn) dirty.union(0, HUD_BOTTOM, screenX, PROFILER_BOTTOM);
+        if (dirty.isEmpty()) return false;
+
+        // lockCanvas może powiększyć obszar - dirty zawiera potem faktyczny prostokąt do narysowania
+        long t = profiler.start();
+        canvas = surfaceHolder.lockCanvas(dirty);
+        profiler.end(FrameProfiler.Phase.LOCK, t);
+        if (canvas == null) return false;
+        renderer.composite(canvas, dirty);
+        drawHud();
+        t = profiler.start();
+        surfaceHolder.unlockCanvasAndPost(canvas);
+        profiler.end(FrameProfiler.Phase.POST, t);
+        return true;
+    }
+
+    private void drawFull() {
+        long t = profiler.start();
+        canvas = surfaceHolder.lockCanvas();
+        profiler.end(FrameProfiler.Phase.LOCK, t);
+        canvas.drawColor(BoardRenderer.BACKGROUND);
+
+        if (currentState == GameState.MENU) {
+            drawMenu();
+        } else {
+            if (gameVisible) {
+                segmentBatch.clear().addBody(sim.getBody(), sim.getWidth(), boardX, boardY, boardBlock);
+                segmentPaint.setColor(Color.RED);
+                canvas.drawLines(segmentBatch.getLines(), 0, segmentBatch.size(), segmentPaint);
+                paint.setColor(Color.GREEN);
+                float centerX = boardX + sim.getBobX() * boardBlock + (boardBlock / 2.0f);
+                float centerY = boardY + sim.getBobY() * boardBlock + (boardBlock / 2.0f);
+                float scaledSize = (boardBlock / 2.0f) * bobScale;
+                canvas.drawRect(centerX - scaledSize, centerY - scaledSize, centerX + scaledSize, centerY + scaledSize, paint);
             }
-            surfaceHolder.unlockCanvasAndPost(canvas);
+            drawHud();
         }
+        t = profiler.start();
+        surfaceHolder.unlockCanvasAndPost(canvas);
+        profiler.end(FrameProfiler.Phase.POST, t);
+    }
+
+    private void drawHud() {
+        hudScore = sim.getScore();
+        hudVoiceStatus = voice.getStatus();
+        hudCellsPainted = renderer.getCellsPainted();
+        hudPrimitives = renderer.getPrimitives();
+
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(40); // Większa czcionka HUD
+        drawText(text.clear().append("Wynik: ").append(hudScore), 20, 50);
+        drawText(text.clear().append("Głos: ").append(hudVoiceStatus), 20, 100);
+        if (incrementalRender) {
+            paint.setTextSize(30);
+            drawText(text.clear().append("Pola/klatkę: ").append(hudCellsPainted)
+                    .append(" | prostokąty: ").append(hudPrimitives), 20, 145);
+        }
+
+        paint.setColor(Color.argb(150, 255, 255, 255));
+        canvas.drawRect(screenX - 200, 10, screenX - 10, 100, paint);
+        paint.setColor(Color.BLACK);
+        paint.setTextSize(40);
+        canvas.drawText("MENU", screenX - 180, 70, paint);
+        if (profilerOverlayDrawn) drawProfilerOverlay();
+    }
+
+    private void drawProfilerOverlay() {
+        paint.setColor(Color.argb(170, 0, 0, 0));
+        canvas.drawRect(0, HUD_BOTTOM, screenX, PROFILER_BOTTOM, paint);
+        paint.setColor(Color.YELLOW);
+        paint.setTextSize(28);
+        int y = HUD_BOTTOM + PROFILER_LINE - 8;
+        for (FrameProfiler.Phase phase : PROFILER_PHASES) {
+            drawText(profiler.appendLine(text.clear(), phase), 20, y);
+            y += PROFILER_LINE;
+        }
+        drawText(profiler.appendCounters(text.clear()), 20, y);
+    }
+
+    // Oszczędzanie baterii i stan termiczny raz na sekundę - to wywołania do systemu
+    private void pollPowerState() {
+        long now = System.nanoTime();
+        if (now - lastPowerPoll < 1_000_000_000L) return;
+        lastPowerPoll = now;
+        governor.setPowerSave(powerManager.isPowerSaveMode());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) governor.setThermalStatus(powerManager.getCurrentThermalStatus());
+    }
+
+    private void pushStats() {
+        long now = System.nanoTime();
+        if (now - lastStatsPush < 1_000_000_000L) return;
+        lastStatsPush = now;
+        store.addStats(pendingStats);
+        pendingStats.clear();
+    }
+
+    // Statystyki GC z ART raz na sekundę - odczyt tworzy napisy, więc nie w każdej klatce
+    private void pollGcStats() {
+        long now = System.nanoTime();
+        if (now - lastGcPoll < 1_000_000_000L) return;
+        lastGcPoll = now;
+        try {
+            profiler.setGcStats(Long.parseLong(android.os.Debug.getRuntimeStat("art.gc.gc-count")),
+                    Long.parseLong(android.os.Debug.getRuntimeStat("art.gc.gc-time")));
+        } catch (NumberFormatException e) {
+            // statystyka niedostępna na tym urządzeniu
+        }
+    }
+
+    // Podsumowanie percentyli do logcat i filesDir/profile.txt, żeby porównywać buildy
+    private void dumpProfile() {
+        if (profiler.get(FrameProfiler.Phase.TICK).getCount() == 0) return;
+        String summary = "# " + Build.MODEL + " SDK " + Build.VERSION.SDK_INT + " " + loopMode + "\n" + profiler.summary();
+        android.util.Log.d("SNAKE_PROFILE", summary);
+        // pause() idzie w onPause - plik zapisuje osobny krótki wątek
+        Thread writer = new Thread(() -> {
+            try {
+                Files.write(context.getFilesDir().toPath().resolve("profile.txt"), summary.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                android.util.Log.w("SNAKE_PROFILE", "Nie udało się zapisać profilu", e);
+            }
+        }, "snake-profile");
+        writer.setDaemon(true);
+        writer.start();
+        profiler.reset();
     }
 
     private void drawMenu() {
-        int p = 20, h = screenY / 15, w = (screenX / 2) - (p * 2);
+        MenuLayout m = menuLayout;
+        m.update(screenX, screenY);
+        int p = MenuLayout.PADDING, h = m.tileHeight, w = m.halfTileWidth;
 
         // Nagłówki - Rozmiar 55, bez skrótów
         paint.setTextSize(55);
         paint.setFakeBoldText(true);
         paint.setColor(Color.WHITE);
-        canvas.drawText("STEROWANIE", p, 70, paint);
+        canvas.drawText("STEROWANIE", p, m.controlHeaderY, paint);
 
         // Kafelki - Rozmiar 35 dla lepszej czytelności
         paint.setTextSize(35);
-        drawTile(p, 90, w, h, "DOTYK", currentMode == ControlMode.TOUCH);
-        drawTile(screenX/2 + p, 90, w, h, "AKCELEROMETR", currentMode == ControlMode.ACCELEROMETER);
-        drawTile(p, 90 + h + p, screenX - (p*2), h, "STEROWANIE GŁOSEM: " + voiceStatus, currentMode == ControlMode.VOICE);
+        drawTile(p, m.controlRowY, w, h, "DOTYK", currentMode == ControlMode.TOUCH);
+        drawTile(m.rightColumnX, m.controlRowY, w, h, "AKCELEROMETR", currentMode == ControlMode.ACCELEROMETER);
+        menuVoiceStatus = voice.getStatus();
+        drawTile(p, m.voiceRowY, w, h, text.clear().append("GŁOS: ").append(menuVoiceStatus), currentMode == ControlMode.VOICE);
+        drawTile(m.rightColumnX, m.voiceRowY, w, h, "AUTOPILOT", currentMode == ControlMode.AUTOPILOT);
 
-        int startY2 = 90 + (h+p)*2 + 60;
         paint.setTextSize(55);
-        canvas.drawText("INFORMACJA ZWROTNA", p, startY2 - 20, paint);
+        canvas.drawText("INFORMACJA ZWROTNA", p, m.feedbackHeaderY, paint);
 
         paint.setTextSize(35);
-        drawTile(p, startY2, w, h, "OBRAZ", gameVisible);
-        drawTile(screenX/2 + p, startY2, w, h, "DŹWIĘK", soundEnabled);
-        drawTile(p, startY2 + h + p, screenX - (p*2), h, "WIBRACJE", vibrationEnabled);
+        drawTile(p, m.feedbackRowY, w, h, "OBRAZ", gameVisible);
+        drawTile(m.rightColumnX, m.feedbackRowY, w, h, "DŹWIĘK", soundEnabled);
+        drawTile(p, m.vibrationRowY, w, h, "WIBRACJE", vibrationEnabled);
+        drawTile(m.rightColumnX, m.vibrationRowY, w, h, "DUŻY ŚWIAT", largeWorld);
 
-        int startY3 = startY2 + (h+p)*2 + 60;
         paint.setTextSize(55);
-        canvas.drawText("PARAMETRY", p, startY3 - 20, paint);
+        canvas.drawText("PARAMETRY", p, m.parametersHeaderY, paint);
 
         paint.setTextSize(35);
-        drawTile(p, startY3, w, h, "SZYBKOŚĆ [-]", false);
-        drawTile(screenX/2 + p, startY3, w, h, "SZYBKOŚĆ [+]", false);
-
-        int startY4 = startY3 + h + p;
-        drawTile(p, startY4, w, h, "ROZMIAR JABŁKA [-]", false);
-        drawTile(screenX/2 + p, startY4, w, h, "ROZMIAR JABŁKA [+]", false);
+        drawTile(p, m.speedRowY, w, h, "SZYBKOŚĆ [-]", false);
+        drawTile(m.rightColumnX, m.speedRowY, w, h, "SZYBKOŚĆ [+]", false);
+        drawTile(p, m.scaleRowY, w, h, "ROZMIAR JABŁKA [-]", false);
+        drawTile(m.rightColumnX, m.scaleRowY, w, h, "ROZMIAR JABŁKA [+]", false);
 
         paint.setColor(Color.WHITE);
         paint.setTextSize(40);
-        canvas.drawText("Szybkość: " + gameSpeed + " | Skala: " + String.format("%.1f", bobScale), p, startY4 + h + 60, paint);
+        drawText(text.clear().append("Szybkość: ").append(gameSpeed).append(" | Skala: ").appendFixed1(bobScale)
+                .append(" | Rekord: ").append(store.getBestScore()), p, m.statsY);
 
         paint.setColor(Color.GREEN);
-        canvas.drawRect(p, screenY - 180, screenX - p, screenY - 30, paint);
+        canvas.drawRect(p, m.startTop, screenX - p, m.startBottom, paint);
         paint.setColor(Color.BLACK);
         paint.setTextSize(60);
-        canvas.drawText("ZACZNIJ GRĘ", screenX/2 - 170, screenY - 90, paint);
+        canvas.drawText("ZACZNIJ GRĘ", m.startTextX, m.startTextY, paint);
+    }
+
+    private void drawTile(int x, int y, int w, int h, String label, boolean active) {
+        drawTileBackground(x, y, w, h, active);
+        canvas.drawText(label, x + 20, y + h/2 + 10, paint);
+    }
+
+    private void drawTile(int x, int y, int w, int h, TextBuffer label, boolean active) {
+        drawTileBackground(x, y, w, h, active);
+        drawText(label, x + 20, y + h/2 + 10);
     }
 
-    private void drawTile(int x, int y, int w, int h, String text, boolean active) {
+    private void drawTileBackground(int x, int y, int w, int h, boolean active) {
         paint.setColor(active ? Color.YELLOW : Color.DKGRAY);
         canvas.drawRect(x, y, x + w, y + h, paint);
         paint.setColor(active ? Color.BLACK : Color.WHITE);
-        canvas.drawText(text, x + 20, y + h/2 + 10, paint);
+    }
+
+    private void drawText(TextBuffer buffer, float x, float y) {
+        canvas.drawText(buffer.chars(), 0, buffer.length(), x, y, paint);
     }
 
     @Override
@@ -328,47 +827,64 @@ public class SnakeEngine extends SurfaceView implements Runnable, SensorEventLis
             float x = motionEvent.getX(), y = motionEvent.getY();
 
             if (currentState == GameState.MENU) {
-                int p = 20, h = screenY / 15;
-                int startY2 = 90 + (h+p)*2 + 60;
-                int startY3 = startY2 + (h+p)*2 + 60;
-                int startY4 = startY3 + h + p;
-
-                // Sekcja 1: Sterowanie
-                if (y > 90 && y < 90 + h) {
-                    if (x < screenX / 2) currentMode = ControlMode.TOUCH;
-                    else currentMode = ControlMode.ACCELEROMETER;
-                } else if (y > 90 + h + p && y < 90 + (h + p) * 2) {
-                    currentMode = ControlMode.VOICE;
-                }
-                // Sekcja 2: Feedback (Zabezpieczenie min. 1 feedback)
-                else if (y > startY2 && y < startY2 + h) {
-                    if (x < screenX / 2) {
+                menuDirty = true;
+                menuLayout.update(screenX, screenY);
+                switch (menuLayout.hit(x, y)) {
+                    // Sekcja 1: Sterowanie
+                    case MenuLayout.MODE_TOUCH: currentMode = ControlMode.TOUCH; break;
+                    case MenuLayout.MODE_ACCELEROMETER:
+                        currentMode = ControlMode.ACCELEROMETER;
+                        prewarm();
+                        break;
+                    case MenuLayout.MODE_VOICE:
+                        currentMode = ControlMode.VOICE;
+                        requestVoicePermission();
+                        prewarm();
+                        break;
+                    case MenuLayout.MODE_AUTOPILOT:
+                        currentMode = ControlMode.AUTOPILOT;
+                        largeWorld = false;
+                        break;
+                    // Sekcja 2: Feedback (Zabezpieczenie min. 1 feedback)
+                    case MenuLayout.TOGGLE_VISUAL:
                         if (!gameVisible || soundEnabled || vibrationEnabled) gameVisible = !gameVisible;
-                    } else {
+                        break;
+                    case MenuLayout.TOGGLE_SOUND:
                         if (!soundEnabled || gameVisible || vibrationEnabled) soundEnabled = !soundEnabled;
-                    }
-                } else if (y > startY2 + h + p && y < startY2 + (h + p) * 2) {
-                    if (!vibrationEnabled || gameVisible || soundEnabled) vibrationEnabled = !vibrationEnabled;
-                }
-                // Sekcja 3: Parametry
-                else if (y > startY3 && y < startY3 + h) {
-                    if (x < screenX / 2 && gameSpeed > 1) gameSpeed--;
-                    else if (x >= screenX / 2 && gameSpeed < 30) gameSpeed++;
-                } else if (y > startY4 && y < startY4 + h) {
-                    if (x < screenX / 2 && bobScale > 0.5f) bobScale -= 0.1f;
-                    else if (x >= screenX / 2 && bobScale < 2.0f) bobScale += 0.1f;
-                }
-                // Start
-                else if (y > screenY - 180) {
-                    newGame();
-                    currentState = GameState.PLAYING;
-                    if (currentMode == ControlMode.VOICE) startListeningSafe();
+                        feedback.setEnabled(vibrationEnabled, soundEnabled);
+                        break;
+                    case MenuLayout.TOGGLE_VIBRATION:
+                        if (!vibrationEnabled || gameVisible || soundEnabled) vibrationEnabled = !vibrationEnabled;
+                        feedback.setEnabled(vibrationEnabled, soundEnabled);
+                        break;
+                    // Rozmiar świata zmienia się przy starcie następnej gry
+                    case MenuLayout.TOGGLE_LARGE_WORLD:
+                        largeWorld = !largeWorld;
+                        leaveAutopilotInLargeWorld();
+                        break;
+                    // Sekcja 3: Parametry
+                    case MenuLayout.SPEED_DOWN: if (gameSpeed > 1) gameSpeed--; break;
+                    case MenuLayout.SPEED_UP: if (gameSpeed < 30) gameSpeed++; break;
+                    case MenuLayout.SCALE_DOWN: if (bobScale > 0.5f) bobScale -= 0.1f; break;
+                    case MenuLayout.SCALE_UP: if (bobScale < 2.0f) bobScale += 0.1f; break;
+                    // Start
+                    case MenuLayout.START:
+                        newGameRequested = true;
+                        currentState = GameState.PLAYING;
+                        if (currentMode == ControlMode.VOICE) voice.start();
+                        updateSensor();
+                        break;
                 }
+                storeSettings();
             } else {
                 // Powrót do MENU
                 if (x > screenX - 200 && y < 100) {
                     currentState = GameState.MENU;
-                    if (speechRecognizer != null) speechRecognizer.destroy();
+                    voice.stop();
+                    updateSensor();
+                } else if (debugBuild && x < screenX / 2 && y < SCORE_BOTTOM
+                        && motionEvent.getEventTime() - motionEvent.getDownTime() >= ViewConfiguration.getLongPressTimeout()) {
+                    profilerOverlay = !profilerOverlay;
                 } else if (currentMode == ControlMode.TOUCH) {
                     handleTouchTurn(x);
                 }
@@ -378,39 +894,13 @@ public class SnakeEngine extends SurfaceView implements Runnable, SensorEventLis
     }
 
     private void handleTouchTurn(float x) {
-        if (x >= screenX / 2) {
-            if (heading == Heading.UP) heading = Heading.RIGHT;
-            else if (heading == Heading.RIGHT) heading = Heading.DOWN;
-            else if (heading == Heading.DOWN) heading = Heading.LEFT;
-            else if (heading == Heading.LEFT) heading = Heading.UP;
-        } else {
-            if (heading == Heading.UP) heading = Heading.LEFT;
-            else if (heading == Heading.LEFT) heading = Heading.DOWN;
-            else if (heading == Heading.DOWN) heading = Heading.RIGHT;
-            else if (heading == Heading.RIGHT) heading = Heading.UP;
-        }
-        playDirectionSound(heading); vibrateOnTurn();
-    }
-
-    private void checkAppleWarning() {
-        if (Math.abs(snakeXs[0]-bobX) <= 5 && Math.abs(snakeYs[0]-bobY) <= 5) {
-            if (soundEnabled) toneGenerator.startTone(ToneGenerator.TONE_DTMF_B, 30);
-            if (vibrationEnabled) ((Vibrator)context.getSystemService(Context.VIBRATOR_SERVICE)).vibrate(VibrationEffect.createOneShot(15, 40));
-        }
+        inputQueue.offer(x >= screenX / 2 ? Input.TURN_RIGHT : Input.TURN_LEFT, System.nanoTime());
     }
 
-    private void checkEngineWarning() {
-        if ((snakeXs[0] <= 2 || snakeXs[0] >= NUM_BLOCKS_WIDE-3 || snakeYs[0] <= 2 || snakeYs[0] >= numBlocksHigh-3) && vibrationEnabled) {
-            ((Vibrator)context.getSystemService(Context.VIBRATOR_SERVICE)).vibrate(VibrationEffect.createOneShot(20, 50));
-        }
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        tilt.onSample(event.values[0], event.values[1], event.timestamp - sensorClockOffset);
     }
 
-    private void eatBob() { snakeLength++; spawnBob(); score++; if (vibrationEnabled) ((Vibrator)context.getSystemService(Context.VIBRATOR_SERVICE)).vibrate(VibrationEffect.createOneShot(50, 150)); if (soundEnabled) toneGenerator.startTone(ToneGenerator.TONE_PROP_ACK, 200); }
-    private void moveSnake() { for (int i = snakeLength; i > 0; i--) { snakeXs[i] = snakeXs[i - 1]; snakeYs[i] = snakeYs[i - 1]; } switch (heading) { case UP: snakeYs[0]--; break; case RIGHT: snakeXs[0]++; break; case DOWN: snakeYs[0]++; break; case LEFT: snakeXs[0]--; break; } }
-    private boolean detectDeath() { if (snakeXs[0] == -1 || snakeXs[0] >= NUM_BLOCKS_WIDE || snakeYs[0] == -1 || snakeYs[0] >= numBlocksHigh) return true; for (int i = snakeLength - 1; i > 0; i--) { if (i > 4 && snakeXs[0] == snakeXs[i] && snakeYs[0] == snakeYs[i]) return true; } return false; }
-    private boolean updateRequired() { if(nextFrameTime <= System.currentTimeMillis()){ nextFrameTime = System.currentTimeMillis() + MILLIS_PER_SECOND / gameSpeed; return true; } return false; }
-    private void playDirectionSound(Heading h) { if(!soundEnabled) return; int t = -1; if(h == Heading.UP) t = ToneGenerator.TONE_DTMF_1; else if(h == Heading.DOWN) t = ToneGenerator.TONE_DTMF_7; else if(h == Heading.LEFT) t = ToneGenerator.TONE_DTMF_4; else if(h == Heading.RIGHT) t = ToneGenerator.TONE_DTMF_6; if(t != -1) toneGenerator.startTone(t, 100); }
-    private void vibrateOnTurn() { if(vibrationEnabled) ((Vibrator)context.getSystemService(Context.VIBRATOR_SERVICE)).vibrate(VibrationEffect.createOneShot(10, 30)); }
-    @Override public void onSensorChanged(SensorEvent event) { if (currentState != GameState.PLAYING || currentMode != ControlMode.ACCELEROMETER || isPausedForDeath) return; float x = event.values[0], y = event.values[1], th = 3.0f; if(Math.abs(x) > Math.abs(y)){ if(x > th && heading != Heading.RIGHT) { heading = Heading.LEFT; playDirectionSound(heading); vibrateOnTurn(); } else if (x < -th && heading != Heading.LEFT) { heading = Heading.RIGHT; playDirectionSound(heading); vibrateOnTurn(); } } else { if (y > th && heading != Heading.UP) { heading = Heading.DOWN; playDirectionSound(heading); vibrateOnTurn(); } else if (y < -th && heading != Heading.DOWN) { heading = Heading.UP; playDirectionSound(heading); vibrateOnTurn(); } } }
     @Override public void onAccuracyChanged(Sensor sensor, int accuracy) {}
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package pl.polsl.snake.arena;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import pl.polsl.snake.core.FreeCells;
+import pl.polsl.snake.core.Heading;
+import pl.polsl.snake.core.Rng;
+
+// Arena wielu węży sterowanych przez boty, bez ekranu. Kolizje sprawdza jedna siatka
+// właścicieli (owner[pole] = numer węża + 1, 0 to wolne), więc koszt ruchu nie zależy od
+// liczby węży. Tick ma dwie fazy:
+// 1. propozycje - każdy wąż wybiera ruch, tylko czytając planszę; równolegle, fork-join
+//    dzieli zakres węży na połówki jak BatchRunner,
+// 2. rozstrzygnięcie - jeden wątek, węże po kolei według numeru: zdjęcie ogonów, rezerwacje
+//    pól (dwie głowy na jednym polu giną obie), zderzenia z ciałami, ruch, jabłka z ciał.
+// Losowość faz 1 to Rng każdego węża, fazy 2 - Rng areny, więc wynik jest ten sam
+// na 1 i na N wątkach.
+public final class Arena {
+
+    // Tyle węży liczy jedno zadanie fazy propozycji
+    static final int SNAKES_PER_TASK = 32;
+    // Próby znalezienia miejsca dla jednego węża w jednym ticku
+    static final int SPAWN_TRIES = 16;
+
+    final int width, height;
+    final int[] owner;
+    final FreeCells apples;
+    final ArenaSnake[] snakes;
+    private final ArenaConfig config;
+    private final Rng rng;
+    private final ForkJoinPool pool;
+
+    // Rezerwacje pól w fazie 2: claimMark[pole] == claimTick znaczy, że pole zajęła już czyjaś głowa
+    private final int[] claimMark, claimer;
+    private int claimTick;
+    // Pola nowego węża przy odrodzeniu - jedna tablica zamiast nowej przy każdym
+    private final int[] spawnCells;
+
+    private long tick;
+    private int alive;
+    private long wallDeaths, headOnDeaths, bodyDeaths, applesEaten;
+    private long proposeNanos, resolveNanos;
+
+    public Arena(ArenaConfig config, long seed, int threads) {
+        this.config = config;
+        width = config.width;
+        height = config.height;
+        int cells = width * height;
+        owner = new int[cells];
+        claimMark = new int[cells];
+        claimer = new int[cells];
+        spawnCells = new int[config.startLength];
+        apples = new FreeCells(cells);
+        rng = new Rng(seed);
+        snakes = new ArenaSnake[config.snakes];
+        for (int i = 0; i < snakes.length; i++) snakes[i] = new ArenaSnake(i, cells, seed * 31 + i + 1);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        for (ArenaSnake s : snakes) trySpawn(s);
+        topUpApples();
+    }
+
+    public int getThreads() { return pool == null ? 1 : pool.getParallelism(); }
+
+    public void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    public void step() {
+        long start = System.nanoTime();
+        propose();
+        long mid = System.nanoTime();
+        resolve();
+        proposeNanos += mid - start;
+        resolveNanos += System.nanoTime() - mid;
+    }
+
+    // Faza 1
+    void propose() {
+        if (pool == null) {
+            proposeRange(0, snakes.length);
+        } else {
+            pool.invoke(new Proposals(this, 0, snakes.length));
+        }
+    }
+
+    void proposeRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (snakes[i].alive) snakes[i].propose(this);
+        }
+    }
+
+    // Faza 2: zmienia planszę w stałej kolejności, niezależnej od faz 1
+    void resolve() {
+        tick++;
+        if (++claimTick == 0) {
+            Arrays.fill(claimMark, 0);
+            claimTick = 1;
+        }
+        // Ogony schodzą przed ruchem głów - wjazd w pole, które właśnie zwalnia ogon, jest dozwolony
+        for (ArenaSnake s : snakes) {
+            if (!s.alive) continue;
+            s.dying = false;
+            s.eats = s.nextCell >= 0 && apples.contains(s.nextCell);
+            if (!s.eats) owner[s.body.popTail()] = 0;
+        }
+        for (ArenaSnake s : snakes) {
+            if (!s.alive) continue;
+            int cell = s.nextCell;
+            if (cell < 0) {
+                s.dying = true;
+                wallDeaths++;
+            } else if (claimMark[cell] == claimTick) {
+                // Druga głowa na tym samym polu: giną obie (pierwsza mogła już zginąć przy trzeciej)
+                ArenaSnake first = snakes[claimer[cell]];
+                if (!first.dying) {
+                    first.dying = true;
+                    headOnDeaths++;
+                }
+                s.dying = true;
+                headOnDeaths++;
+            } else {
+                claimMark[cell] = claimTick;
+                claimer[cell] = s.id;
+            }
+        }
+        for (ArenaSnake s : snakes) {
+            if (!s.alive || s.dying || owner[s.nextCell] == 0) continue;
+            s.dying = true;
+            bodyDeaths++;
+        }
+        for (ArenaSnake s : snakes) {
+            if (!s.alive) continue;
+            if (s.dying) {
+                kill(s);
+                continue;
+            }
+            s.body.pushHead(s.nextCell);
+            owner[s.nextCell] = s.id + 1;
+            s.heading = s.nextHeading;
+            if (s.eats) {
+                apples.remove(s.nextCell);
+                s.score++;
+                applesEaten++;
+            }
+        }
+        for (ArenaSnake s : snakes) {
+            if (!s.alive && s.respawnTick <= tick) trySpawn(s);
+        }
+        topUpApples();
+    }
+
+    // Co drugie pole ciała zostaje jabłkiem
+    private void kill(ArenaSnake s) {
+        for (int i = 0, n = s.body.size(); i < n; i++) {
+            int cell = s.body.get(i);
+            owner[cell] = 0;
+            if ((i & 1) == 0) apples.add(cell);
+        }
+        s.body.clear();
+        s.alive = false;
+        s.deaths++;
+        s.respawnTick = tick + config.respawnTicks;
+        alive--;
+    }
+
+    // Wąż prosto, głowa w losowym polu; ciało i pole przed głową muszą być wolne, bez jabłek
+    private boolean trySpawn(ArenaSnake s) {
+        int length = config.startLength;
+        for (int attempt = 0; attempt < SPAWN_TRIES; attempt++) {
+            int hx = rng.nextInt(width), hy = rng.nextInt(height);
+            Heading h = Heading.of(rng.nextInt(4));
+            if (!fits(hx, hy, h, length)) continue;
+            int[] cells = spawnCells;
+            for (int k = 0; k < length; k++) cells[k] = (hy - (length - 1 - k) * h.dy) * width + hx - (length - 1 - k) * h.dx;
+            place(s, h, cells);
+            return true;
+        }
+        return false;
+    }
+
+    // Wąż na podanych polach, od ogona do głowy; dotychczasowe ciało znika z planszy
+    void place(ArenaSnake s, Heading h, int... cells) {
+        if (s.alive) {
+            for (int i = 0; i < s.body.size(); i++) owner[s.body.get(i)] = 0;
+            alive--;
+        }
+        s.body.clear();
+        for (int cell : cells) {
+            s.body.pushHead(cell);
+            owner[cell] = s.id + 1;
+        }
+        s.heading = h;
+        s.nextHeading = h;
+        s.alive = true;
+        alive++;
+    }
+
+    private boolean fits(int hx, int hy, Heading h, int length) {
+        for (int k = -1; k < length; k++) {
+            int x = hx - k * h.dx, y = hy - k * h.dy;
+            if (x < 0 || y < 0 || x >= width || y >= height) return false;
+            int cell = y * width + x;
+            if (owner[cell] != 0 || apples.contains(cell)) return false;
+        }
+        return true;
+    }
+
+    private void topUpApples() {
+        int missing = config.apples - apples.size();
+        for (int attempt = 0; missing > 0 && attempt < missing * 4; attempt++) {
+            int cell = rng.nextInt(width * height);
+            if (owner[cell] != 0 || apples.contains(cell)) continue;
+            apples.add(cell);
+            missing--;
+        }
+    }
+
+    // Skrót całego stanu: ticki, węże z ciałami i jabłka w kolejności zbioru - do porównań przebiegów
+    public long checksum() {
+        long h = mix(tick);
+        for (ArenaSnake s : snakes) {
+            h = mix(h ^ (s.alive ? 1 : 0) ^ (long) s.heading.ordinal() << 1 ^ (long) s.score << 3);
+            for (int i = 0, n = s.body.size(); i < n; i++) h = mix(h ^ s.body.get(i));
+        }
+        for (int i = 0; i < apples.size(); i++) h = mix(h ^ apples.get(i));
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public ArenaConfig getConfig() { return config; }
+    public long getTick() { return tick; }
+    public int getAlive() { return alive; }
+    public int getSnakeCount() { return snakes.length; }
+    public ArenaSnake getSnake(int id) { return snakes[id]; }
+    public int getAppleCount() { return apples.size(); }
+    public boolean isApple(int x, int y) { return apples.contains(y * width + x); }
+    // Numer węża na polu albo -1
+    public int ownerAt(int x, int y) { return owner[y * width + x] - 1; }
+    public long getWallDeaths() { return wallDeaths; }
+    public long getHeadOnDeaths() { return headOnDeaths; }
+    public long getBodyDeaths() { return bodyDeaths; }
+    public long getApplesEaten() { return applesEaten; }
+    public long getProposeNanos() { return proposeNanos; }
+    public long getResolveNanos() { return resolveNanos; }
+
+    private static final class Proposals extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Arena arena;
+        private final int from, to;
+
+        Proposals(Arena arena, int from, int to) {
+            this.arena = arena;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SNAKES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Proposals(arena, from, mid), new Proposals(arena, mid, to));
+                return;
+            }
+            arena.proposeRange(from, to);
+        }
+    }
+}
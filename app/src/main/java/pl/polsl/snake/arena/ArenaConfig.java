@@ -0,0 +1,36 @@
+package pl.polsl.snake.arena;
+
+import java.util.Locale;
+
+// Ustawienia areny: plansza, liczba botów i jabłek, długość węża po (od)rodzeniu
+public final class ArenaConfig {
+
+    public final int width, height;
+    public final int snakes;
+    // Tyle jabłek arena dokłada, gdy jest ich mniej; ciała zabitych węży mogą dać więcej
+    public final int apples;
+    public final int startLength;
+    // Martwy wąż wraca po tylu tickach, jeśli znajdzie się dla niego miejsce
+    public final int respawnTicks;
+
+    public ArenaConfig(int width, int height, int snakes, int apples, int startLength, int respawnTicks) {
+        if (width < 8 || height < 8) throw new IllegalArgumentException("Arena za mała: " + width + "x" + height);
+        if ((long) width * height > Integer.MAX_VALUE) throw new IllegalArgumentException("Arena za duża: " + width + "x" + height);
+        if (snakes < 1) throw new IllegalArgumentException("Arena bez węży");
+        if (startLength < 2 || startLength > Math.min(width, height) / 2) {
+            throw new IllegalArgumentException("Zła długość startowa: " + startLength);
+        }
+        this.width = width;
+        this.height = height;
+        this.snakes = snakes;
+        this.apples = Math.max(0, apples);
+        this.startLength = startLength;
+        this.respawnTicks = Math.max(0, respawnTicks);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%dx%d węże=%d jabłka=%d start=%d odrodzenie=%d",
+                width, height, snakes, apples, startLength, respawnTicks);
+    }
+}
@@ -0,0 +1,152 @@
+package pl.polsl.snake.arena;
+
+import java.util.Arrays;
+import pl.polsl.snake.core.FreeCells;
+import pl.polsl.snake.core.Heading;
+import pl.polsl.snake.core.Rng;
+import pl.polsl.snake.core.SnakeBody;
+
+// Bot na arenie. propose() działa w fazie równoległej: czyta wspólną siatkę właścicieli
+// i jabłka, a pisze wyłącznie do pól tego węża (propozycja, cel, własne Rng, pamięć
+// przeszukiwania). Dzięki temu kolejność i liczba wątków nie mają wpływu na wynik.
+public final class ArenaSnake {
+
+    // Tyle pól najwyżej odwiedza przeszukiwanie wolnej przestrzeni za kandydatem na ruch
+    static final int SPACE_LIMIT = 32;
+    // Tyle losowych jabłek porównujemy, wybierając nowy cel
+    static final int TARGET_SAMPLES = 4;
+    private static final int SEEN_MASK = 127;
+
+    final int id;
+    final SnakeBody body;
+    final Rng rng;
+    Heading heading = Heading.RIGHT;
+    boolean alive;
+    long respawnTick;
+    int score;
+    long deaths;
+    private int target = -1;
+
+    // Propozycja z fazy równoległej; -1 to ruch za krawędź
+    int nextCell;
+    Heading nextHeading = Heading.RIGHT;
+    // Rozstrzygnięcie w fazie sekwencyjnej
+    boolean eats, dying;
+
+    // Przeszukiwanie wszerz ograniczone do SPACE_LIMIT pól: kolejka i mały zbiór odwiedzonych
+    private final int[] queue = new int[SPACE_LIMIT];
+    private final int[] seenCells = new int[SEEN_MASK + 1];
+    private final int[] seenMarks = new int[SEEN_MASK + 1];
+    private int mark;
+
+    ArenaSnake(int id, int maxCells, long seed) {
+        this.id = id;
+        body = new SnakeBody(maxCells, 16);
+        rng = new Rng(seed);
+    }
+
+    public int getId() { return id; }
+    public boolean isAlive() { return alive; }
+    public Heading getHeading() { return heading; }
+    public int getScore() { return score; }
+    public long getDeaths() { return deaths; }
+    public int getLength() { return body.size(); }
+    public SnakeBody getBody() { return body; }
+
+    // Faza 1: najlepszy z trzech ruchów (prosto, w lewo, w prawo). Najważniejsze jest miejsce
+    // za polem, żeby nie wjechać w ślepy zaułek, potem unikanie pól obok cudzej głowy,
+    // na końcu odległość do celu. Remisy rozstrzyga własne Rng węża.
+    void propose(Arena arena) {
+        int width = arena.width, height = arena.height;
+        int head = body.headCell();
+        int hx = head % width, hy = head / width;
+        FreeCells apples = arena.apples;
+        if (target < 0 || !apples.contains(target)) target = chooseTarget(apples, hx, hy, width);
+
+        long best = Long.MIN_VALUE;
+        nextHeading = heading;
+        nextCell = step(hx, hy, heading, width, height);
+        for (int turn = 0; turn < 3; turn++) {
+            Heading h = turn == 0 ? heading : turn == 1 ? heading.turnLeft() : heading.turnRight();
+            int cell = step(hx, hy, h, width, height);
+            if (cell < 0) continue;
+            boolean apple = apples.contains(cell);
+            int owner = arena.owner[cell];
+            // Własny ogon zwolni się w tym ticku, chyba że wąż akurat je
+            if (owner != 0 && !(owner == id + 1 && cell == body.tailCell() && !apple)) continue;
+            int space = space(arena, cell);
+            boolean danger = nearForeignHead(arena, cell);
+            int distance = target < 0 ? 0 : Math.abs(target % width - cell % width) + Math.abs(target / width - cell / width);
+            long score = (long) space << 40 | (danger ? 0L : 1L << 39) | (long) (Integer.MAX_VALUE - distance) << 4 | rng.nextInt(16);
+            if (score > best) {
+                best = score;
+                nextHeading = h;
+                nextCell = cell;
+            }
+        }
+    }
+
+    private int chooseTarget(FreeCells apples, int hx, int hy, int width) {
+        int best = -1, bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < TARGET_SAMPLES && apples.size() > 0; i++) {
+            int cell = apples.pick(rng);
+            int distance = Math.abs(cell % width - hx) + Math.abs(cell / width - hy);
+            if (distance < bestDistance) {
+                best = cell;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    // Wolne pola osiągalne z cell, najwyżej SPACE_LIMIT
+    private int space(Arena arena, int cell) {
+        int width = arena.width, height = arena.height;
+        if (++mark == 0) {
+            Arrays.fill(seenMarks, 0);
+            mark = 1;
+        }
+        int read = 0, write = 0;
+        queue[write++] = cell;
+        see(cell);
+        while (read < write && write < SPACE_LIMIT) {
+            int c = queue[read++];
+            int x = c % width, y = c / width;
+            for (int d = 0; d < 4 && write < SPACE_LIMIT; d++) {
+                int n = step(x, y, Heading.of(d), width, height);
+                if (n < 0 || arena.owner[n] != 0 || !see(n)) continue;
+                queue[write++] = n;
+            }
+        }
+        return write;
+    }
+
+    // Dodaje pole do odwiedzonych; false, gdy już tam było
+    private boolean see(int cell) {
+        int slot = (cell * 0x9E3779B9) >>> 25 & SEEN_MASK;
+        while (seenMarks[slot] == mark) {
+            if (seenCells[slot] == cell) return false;
+            slot = (slot + 1) & SEEN_MASK;
+        }
+        seenMarks[slot] = mark;
+        seenCells[slot] = cell;
+        return true;
+    }
+
+    // Czy obok pola stoi głowa innego węża - wtedy obaj możemy wjechać na nie naraz
+    private boolean nearForeignHead(Arena arena, int cell) {
+        int x = cell % arena.width, y = cell / arena.width;
+        for (int d = 0; d < 4; d++) {
+            int n = step(x, y, Heading.of(d), arena.width, arena.height);
+            if (n < 0) continue;
+            int owner = arena.owner[n];
+            if (owner != 0 && owner != id + 1 && arena.snakes[owner - 1].body.headCell() == n) return true;
+        }
+        return false;
+    }
+
+    static int step(int x, int y, Heading h, int width, int height) {
+        int nx = x + h.dx, ny = y + h.dy;
+        return nx < 0 || ny < 0 || nx >= width || ny >= height ? -1 : ny * width + nx;
+    }
+}
@@ -0,0 +1,30 @@
+package pl.polsl.snake.batch;
+
+import java.util.Locale;
+
+// Ustawienia jednej serii gier - te same, które w aplikacji wybiera się w menu
+public final class BatchConfig {
+
+    public final int width, height;
+    public final float bobScale;
+    public final int appleMargin;
+    // Tempo gry nie zmienia przebiegu symulacji, tylko przelicza ticki na sekundy gry
+    public final int ticksPerSecond;
+    // Gra bez śmierci po tylu tickach kończy się jako przekroczenie limitu
+    public final long maxTicks;
+
+    public BatchConfig(int width, int height, float bobScale, int appleMargin, int ticksPerSecond, long maxTicks) {
+        if (width < 2 || height < 2) throw new IllegalArgumentException("Plansza za mała: " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        this.bobScale = bobScale;
+        this.appleMargin = appleMargin;
+        this.ticksPerSecond = Math.max(1, ticksPerSecond);
+        this.maxTicks = maxTicks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%dx%d bob=%.2f margin=%d speed=%d", width, height, bobScale, appleMargin, ticksPerSecond);
+    }
+}
@@ -0,0 +1,85 @@
+package pl.polsl.snake.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import pl.polsl.snake.core.Autopilot;
+import pl.polsl.snake.core.DeathCause;
+
+// Uruchomienie z linii poleceń, np.:
+//   java pl.polsl.snake.batch.BatchMain --games=10000 --grid=40x80,20x40 --bob-scale=1,2 --policy=greedy
+// Parametry z kilkoma wartościami po przecinku dają przegląd wszystkich kombinacji,
+// po jednym wierszu wyników na kombinację.
+public final class BatchMain {
+
+    private static final String USAGE = "Opcje: --games=N --threads=N --seed=N --max-ticks=N"
+            + " --grid=WxH[,WxH...] --bob-scale=F[,F...] --margin=N[,N...] --speed=N[,N...]"
+            + " --policy=autopilot|greedy|random|script:<U R D L < > .>";
+
+    private BatchMain() {}
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        long maxTicks = Long.parseLong(options.getOrDefault("max-ticks", "100000"));
+        Supplier<Policy> policy = policy(options.getOrDefault("policy", "greedy"));
+
+        List<BatchConfig> configs = new ArrayList<>();
+        for (String grid : options.getOrDefault("grid", "40x80").split(",")) {
+            int x = grid.indexOf('x');
+            int width = Integer.parseInt(grid.substring(0, x));
+            int height = Integer.parseInt(grid.substring(x + 1));
+            for (String scale : options.getOrDefault("bob-scale", "1").split(",")) {
+                for (String margin : options.getOrDefault("margin", "3").split(",")) {
+                    for (String speed : options.getOrDefault("speed", "10").split(",")) {
+                        configs.add(new BatchConfig(width, height, Float.parseFloat(scale),
+                                Integer.parseInt(margin), Integer.parseInt(speed), maxTicks));
+                    }
+                }
+            }
+        }
+
+        BatchRunner runner = new BatchRunner(threads);
+        System.out.println("# wątki=" + runner.getThreads() + " gry=" + games + " ziarno=" + seed);
+        System.out.println("config\tmeanScore\tbestScore\tmeanLength\tmeanSeconds\twall\tself\ttimeout\tgames/s\tticks/s");
+        try {
+            for (BatchConfig config : configs) {
+                BatchStats s = runner.run(config, policy, seed, games);
+                double seconds = s.getElapsedNanos() / 1e9;
+                System.out.println(String.format(Locale.ROOT, "%s\t%.2f\t%d\t%.2f\t%.1f\t%d\t%d\t%d\t%.0f\t%.0f",
+                        config, s.getMeanScore(), s.getBestScore(), s.getMeanLength(),
+                        s.getMeanTicks() / config.ticksPerSecond,
+                        s.getDeaths(DeathCause.WALL), s.getDeaths(DeathCause.SELF), s.getTimeouts(),
+                        s.getGames() / seconds, s.getTicks() / seconds));
+            }
+        } finally {
+            runner.shutdown();
+        }
+    }
+
+    static Supplier<Policy> policy(String name) {
+        if (name.equals("autopilot")) return () -> new Autopilot()::next;
+        if (name.equals("greedy")) return GreedyPolicy::new;
+        if (name.equals("random")) return () -> new RandomPolicy(8);
+        if (name.startsWith("script:")) {
+            String script = name.substring("script:".length());
+            ScriptedPolicy.parse(script); // błąd w skrypcie zgłaszamy od razu, nie w wątku roboczym
+            return () -> ScriptedPolicy.parse(script);
+        }
+        throw new IllegalArgumentException("Nieznana polityka: " + name + "\n" + USAGE);
+    }
+}
@@ -0,0 +1,87 @@
+package pl.polsl.snake.batch;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import pl.polsl.snake.core.Simulation;
+
+// Rozgrywa serię gier bez ekranu na wszystkich rdzeniach. Gra numer i dostaje ziarno
+// firstSeed + i, więc wynik serii nie zależy od liczby wątków ani kolejności zadań.
+// Zakres gier dzielimy na połówki (fork-join z podkradaniem pracy), a każde zadanie-liść
+// ma własną symulację, politykę i sumy - wspólne są tylko liczniki w BatchStats.
+public final class BatchRunner {
+
+    // Tyle gier rozgrywa jedno zadanie na jednej symulacji, zanim odda sumy
+    static final int GAMES_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    public BatchRunner(int threads) {
+        pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    public int getThreads() { return pool.getParallelism(); }
+
+    public BatchStats run(BatchConfig config, Supplier<? extends Policy> policies, long firstSeed, int games) {
+        BatchStats stats = new BatchStats();
+        long start = System.nanoTime();
+        pool.invoke(new Games(config, policies, firstSeed, 0, games, stats));
+        stats.setElapsedNanos(System.nanoTime() - start);
+        return stats;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Jedna gra do śmierci albo do limitu ticków
+    static void play(Simulation sim, Policy policy, BatchConfig config, long seed) {
+        sim.setAppleMargin(config.appleMargin);
+        sim.setBobScale(config.bobScale);
+        sim.reset(seed);
+        policy.reset(seed);
+        while (!sim.isDead() && sim.getTick() < config.maxTicks) {
+            sim.step(policy.next(sim));
+            // Bez ekranu nikt nie odbiera listy zmienionych pól
+            sim.getChanges().clear();
+        }
+    }
+
+    private static final class Games extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BatchConfig config;
+        private final Supplier<? extends Policy> policies;
+        private final long firstSeed;
+        private final int from, to;
+        private final BatchStats stats;
+
+        Games(BatchConfig config, Supplier<? extends Policy> policies, long firstSeed, int from, int to, BatchStats stats) {
+            this.config = config;
+            this.policies = policies;
+            this.firstSeed = firstSeed;
+            this.from = from;
+            this.to = to;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Games(config, policies, firstSeed, from, mid, stats),
+                        new Games(config, policies, firstSeed, mid, to, stats));
+                return;
+            }
+            Simulation sim = new Simulation(config.width, config.height, firstSeed + from);
+            Policy policy = policies.get();
+            BatchStats.Tally tally = new BatchStats.Tally();
+            for (int i = from; i < to; i++) {
+                play(sim, policy, config, firstSeed + i);
+                tally.add(sim);
+            }
+            stats.add(tally);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pl.polsl.snake.batch;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import pl.polsl.snake.core.DeathCause;
+import pl.polsl.snake.core.Simulation;
+
+// Wyniki serii zbierane z wielu wątków bez blokad. Wątki dopisują sumy całych paczek gier,
+// więc liczniki są aktualizowane rzadko, a kolejność paczek nie zmienia wyniku.
+public final class BatchStats {
+
+    private static final DeathCause[] CAUSES = DeathCause.values();
+
+    private final LongAdder games = new LongAdder(), ticks = new LongAdder();
+    private final LongAdder score = new LongAdder(), length = new LongAdder();
+    private final LongAccumulator bestScore = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator longestGame = new LongAccumulator(Math::max, 0);
+    // Indeks to DeathCause.ordinal(); NONE oznacza grę przerwaną limitem ticków
+    private final LongAdder[] deaths = new LongAdder[CAUSES.length];
+    private volatile long elapsedNanos;
+
+    public BatchStats() {
+        for (int i = 0; i < deaths.length; i++) deaths[i] = new LongAdder();
+    }
+
+    // Suma paczek gier jednego zadania
+    static final class Tally {
+        long games, ticks, score, length, bestScore, longestGame;
+        final long[] deaths = new long[CAUSES.length];
+
+        void add(Simulation sim) {
+            games++;
+            ticks += sim.getTick();
+            score += sim.getScore();
+            length += sim.getLength();
+            bestScore = Math.max(bestScore, sim.getScore());
+            longestGame = Math.max(longestGame, sim.getTick());
+            deaths[sim.getDeathCause().ordinal()]++;
+        }
+    }
+
+    void add(Tally t) {
+        games.add(t.games);
+        ticks.add(t.ticks);
+        score.add(t.score);
+        length.add(t.length);
+        bestScore.accumulate(t.bestScore);
+        longestGame.accumulate(t.longestGame);
+        for (int i = 0; i < deaths.length; i++) deaths[i].add(t.deaths[i]);
+    }
+
+    void setElapsedNanos(long elapsedNanos) { this.elapsedNanos = elapsedNanos; }
+
+    public long getGames() { return games.sum(); }
+    public long getTicks() { return ticks.sum(); }
+    public long getTotalScore() { return score.sum(); }
+    public long getBestScore() { return bestScore.get(); }
+    public long getLongestGame() { return longestGame.get(); }
+    public long getDeaths(DeathCause cause) { return deaths[cause.ordinal()].sum(); }
+    public long getTimeouts() { return getDeaths(DeathCause.NONE); }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getMeanScore() { return mean(score.sum()); }
+    public double getMeanLength() { return mean(length.sum()); }
+    public double getMeanTicks() { return mean(ticks.sum()); }
+
+    private double mean(long sum) {
+        long n = games.sum();
+        return n == 0 ? 0 : (double) sum / n;
+    }
+}
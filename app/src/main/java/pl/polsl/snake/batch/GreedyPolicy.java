@@ -0,0 +1,45 @@
+package pl.polsl.snake.batch;
+
+import pl.polsl.snake.core.Heading;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Prosty bot: jedzie w stronę jabłka, omija ściany i ciało widoczne o jedno pole naprzód.
+// Przy remisie wybiera pole z większą liczbą wolnych sąsiadów, a potem obecny kierunek.
+public final class GreedyPolicy implements Policy {
+
+    private static final int BLOCKED = Integer.MAX_VALUE;
+
+    @Override
+    public Input next(Simulation sim) {
+        Heading current = sim.getHeading();
+        Heading best = current;
+        int bestCost = cost(sim, current);
+        Heading left = current.turnLeft(), right = current.turnRight();
+        int c = cost(sim, left);
+        if (c < bestCost) {
+            best = left;
+            bestCost = c;
+        }
+        if (cost(sim, right) < bestCost) best = right;
+        return best == current ? Input.NONE : Input.of(best);
+    }
+
+    private static int cost(Simulation sim, Heading h) {
+        int x = sim.getHeadX() + h.dx, y = sim.getHeadY() + h.dy;
+        if (!isFree(sim, x, y)) return BLOCKED;
+        int distance = sim.getBobX() < 0 ? 0 : Math.abs(x - sim.getBobX()) + Math.abs(y - sim.getBobY());
+        int exits = 0;
+        if (isFree(sim, x + 1, y)) exits++;
+        if (isFree(sim, x - 1, y)) exits++;
+        if (isFree(sim, x, y + 1)) exits++;
+        if (isFree(sim, x, y - 1)) exits++;
+        // Ślepy zaułek jest gorszy od każdego objazdu
+        if (exits == 0) return BLOCKED - 1;
+        return distance * 4 + (4 - exits);
+    }
+
+    private static boolean isFree(Simulation sim, int x, int y) {
+        return x >= 0 && y >= 0 && x < sim.getWidth() && y < sim.getHeight() && !sim.isOccupied(x, y);
+    }
+}
@@ -0,0 +1,14 @@
+package pl.polsl.snake.batch;
+
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Gracz bez ekranu: co tick patrzy na symulację i zwraca polecenie.
+// Każdy wątek dostaje własną instancję, więc polityka może trzymać stan.
+public interface Policy {
+
+    // Przed każdą grą; ziarno pozwala polityce losowej powtórzyć tę samą grę
+    default void reset(long seed) {}
+
+    Input next(Simulation sim);
+}
@@ -0,0 +1,30 @@
+package pl.polsl.snake.batch;
+
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Rng;
+import pl.polsl.snake.core.Simulation;
+
+// Losowe skręty - punkt odniesienia dla innych polityk
+public final class RandomPolicy implements Policy {
+
+    private final Rng rng = new Rng(0);
+    private final int turnOneIn;
+
+    // Średnio jeden skręt na turnOneIn ticków
+    public RandomPolicy(int turnOneIn) {
+        this.turnOneIn = Math.max(2, turnOneIn);
+    }
+
+    @Override
+    public void reset(long seed) {
+        rng.setState(~seed);
+    }
+
+    @Override
+    public Input next(Simulation sim) {
+        int r = rng.nextInt(turnOneIn * 2);
+        if (r == 0) return Input.TURN_LEFT;
+        if (r == 1) return Input.TURN_RIGHT;
+        return Input.NONE;
+    }
+}
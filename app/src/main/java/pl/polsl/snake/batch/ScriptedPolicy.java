@@ -0,0 +1,46 @@
+package pl.polsl.snake.batch;
+
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Stała sekwencja poleceń odtwarzana w kółko od początku każdej gry.
+// Zapis tekstowy: U R D L - kierunki, < > - skręt w lewo/prawo, . - brak polecenia.
+public final class ScriptedPolicy implements Policy {
+
+    private final Input[] script;
+    private int position;
+
+    public ScriptedPolicy(Input... script) {
+        if (script.length == 0) throw new IllegalArgumentException("Pusty skrypt");
+        this.script = script.clone();
+    }
+
+    public static ScriptedPolicy parse(String text) {
+        Input[] script = new Input[text.length()];
+        for (int i = 0; i < script.length; i++) {
+            switch (text.charAt(i)) {
+                case 'U': script[i] = Input.UP; break;
+                case 'R': script[i] = Input.RIGHT; break;
+                case 'D': script[i] = Input.DOWN; break;
+                case 'L': script[i] = Input.LEFT; break;
+                case '<': script[i] = Input.TURN_LEFT; break;
+                case '>': script[i] = Input.TURN_RIGHT; break;
+                case '.': script[i] = Input.NONE; break;
+                default: throw new IllegalArgumentException("Nieznane polecenie w skrypcie: " + text.charAt(i));
+            }
+        }
+        return new ScriptedPolicy(script);
+    }
+
+    @Override
+    public void reset(long seed) {
+        position = 0;
+    }
+
+    @Override
+    public Input next(Simulation sim) {
+        Input input = script[position];
+        position = position + 1 == script.length ? 0 : position + 1;
+        return input;
+    }
+}
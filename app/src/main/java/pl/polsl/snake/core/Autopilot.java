@@ -0,0 +1,225 @@
+package pl.polsl.snake.core;
+
+import java.util.Arrays;
+
+// Sterowanie bez gracza (pokazy, ekran startowy, długie testy). Co tick:
+// 1. jedzie dalej zapamiętaną drogą, dopóki jabłko leży w tym samym miejscu,
+// 2. szuka najkrótszej drogi do jabłka (BFS; przy bobScale > 1 do pierwszego pola, z którego
+//    głowa je zjada), ale bierze ją tylko wtedy, gdy po zjedzeniu
+//    wąż nadal ma drogę do własnego ogona - inaczej sam by się zamknął,
+// 3. w przeciwnym razie goni ogon, a gdy i to nie wychodzi, skręca w największy wolny obszar.
+// Tablice są przydzielane raz na rozmiar planszy. Odwiedzone pola oznacza numer przeszukania,
+// więc przed kolejnym BFS nic nie czyścimy.
+public final class Autopilot {
+
+    private int width, height;
+    private int[] queue, parent, seen, blocked, path;
+    private int generation, blockedGeneration;
+
+    // Zapamiętana droga do jabłka w polu pathTarget; path[pathPos] to następny krok
+    private int pathLength, pathPos, pathTarget = -1, expectedHead;
+
+    private long decisions, searches, reusedSteps, fallbacks, expanded;
+
+    public Input next(Simulation sim) {
+        ensureSize(sim.getWidth(), sim.getHeight());
+        decisions++;
+        SnakeBody body = sim.getBody();
+        int head = body.headCell();
+        int tail = body.tailCell();
+        int apple = sim.getBobX() < 0 ? -1 : sim.getBobY() * width + sim.getBobX();
+        // Wąż rośnie w tym ticku (także przy bobScale > 1, gdy głowa jest tylko obok jabłka),
+        // więc ogon zostaje na miejscu
+        boolean growing = sim.willGrow();
+        int behind = neighbour(head, sim.getHeading().opposite());
+
+        if (apple >= 0 && apple == pathTarget && head == expectedHead && pathPos < pathLength) {
+            int step = path[pathPos];
+            if (!isOccupied(sim, step) || (step == tail && !growing)) {
+                reusedSteps++;
+                return follow(head);
+            }
+        }
+        pathTarget = -1;
+
+        if (apple >= 0 && !growing && search(sim, head, apple, sim.getAppleReach(), behind, true, false, true)
+                && isSafeAfterPath(body)) {
+            pathTarget = apple;
+            return follow(head);
+        }
+
+        fallbacks++;
+        if (body.size() > 1 && search(sim, head, tail, 0, behind, !growing, false, true)) {
+            return Input.of(direction(head, path[0]));
+        }
+        return towardLargestArea(sim, head, behind, tail, growing);
+    }
+
+    // Po zmianie planszy albo ręcznym ruchu węża zapamiętana droga jest nieaktualna
+    public void invalidate() {
+        pathTarget = -1;
+    }
+
+    private Input follow(int head) {
+        int step = path[pathPos++];
+        expectedHead = step;
+        return Input.of(direction(head, step));
+    }
+
+    // BFS od start do target albo wolnego pola najwyżej reach od niego. Pola ciała (prawdziwego
+    // albo wirtualnego) są ścianą, cel nie. W pierwszym kroku nie wolno wejść w skip (szyja,
+    // zawrócenie) ani - gdy !targetOnFirstStep - w cel, który w tym ticku jeszcze nie zejdzie z planszy.
+    private boolean search(Simulation sim, int start, int target, int reach, int skip, boolean targetOnFirstStep,
+                           boolean virtual, boolean record) {
+        searches++;
+        int stamp = nextGeneration();
+        seen[start] = stamp;
+        int read = 0, write = 0;
+        queue[write++] = start;
+        while (read < write) {
+            int c = queue[read++];
+            expanded++;
+            boolean first = c == start;
+            for (int d = 0; d < 4; d++) {
+                int n = neighbour(c, Heading.of(d));
+                if (n < 0 || seen[n] == stamp || (first && n == skip)) continue;
+                if (n == target) {
+                    if (first && !targetOnFirstStep) continue;
+                    parent[n] = c;
+                    if (record) recordPath(start, target);
+                    return true;
+                }
+                if (virtual ? blocked[n] == blockedGeneration : isOccupied(sim, n)) continue;
+                if (reach > 0 && near(n, target, reach)) {
+                    parent[n] = c;
+                    if (record) recordPath(start, n);
+                    return true;
+                }
+                seen[n] = stamp;
+                parent[n] = c;
+                queue[write++] = n;
+            }
+        }
+        return false;
+    }
+
+    private void recordPath(int start, int target) {
+        int length = 0;
+        for (int c = target; c != start; c = parent[c]) length++;
+        for (int c = target, i = length - 1; c != start; c = parent[c], i--) path[i] = c;
+        pathLength = length;
+        pathPos = 0;
+    }
+
+    // Wirtualny wąż po przejechaniu drogi: ostatnie body.size() pól z [ciało od ogona, droga].
+    // Bezpiecznie, jeśli z jabłka da się dojechać do jego ogona.
+    private boolean isSafeAfterPath(SnakeBody body) {
+        int length = body.size();
+        if (length <= 2) return true;
+        int gen = nextBlockedGeneration();
+        int fromPath = Math.min(pathLength, length);
+        for (int i = pathLength - fromPath; i < pathLength; i++) blocked[path[i]] = gen;
+        int fromBody = length - fromPath;
+        for (int i = 0; i < fromBody; i++) blocked[body.get(i)] = gen;
+        int virtualTail = fromBody > 0 ? body.get(fromBody - 1) : path[pathLength - fromPath];
+        int apple = path[pathLength - 1];
+        int neck = pathLength >= 2 ? path[pathLength - 2] : body.headCell();
+        // Po dojechaniu do jabłka wąż rośnie, więc ogon nie zwolni się w pierwszym kroku
+        return search(null, apple, virtualTail, 0, neck, false, true, false);
+    }
+
+    // Ostatnia deska ratunku: sąsiad, z którego widać najwięcej wolnych pól
+    private Input towardLargestArea(Simulation sim, int head, int behind, int tail, boolean growing) {
+        Heading best = sim.getHeading();
+        int bestArea = -1;
+        for (int d = 0; d < 4; d++) {
+            Heading h = Heading.of(d);
+            int n = neighbour(head, h);
+            if (n < 0 || n == behind) continue;
+            if (isOccupied(sim, n) && (n != tail || growing)) continue;
+            int area = floodCount(sim, n);
+            if (area > bestArea) {
+                bestArea = area;
+                best = h;
+            }
+        }
+        return Input.of(best);
+    }
+
+    private int floodCount(Simulation sim, int start) {
+        searches++;
+        int stamp = nextGeneration();
+        seen[start] = stamp;
+        int read = 0, write = 0;
+        queue[write++] = start;
+        while (read < write) {
+            int c = queue[read++];
+            expanded++;
+            for (int d = 0; d < 4; d++) {
+                int n = neighbour(c, Heading.of(d));
+                if (n < 0 || seen[n] == stamp || isOccupied(sim, n)) continue;
+                seen[n] = stamp;
+                queue[write++] = n;
+            }
+        }
+        return write;
+    }
+
+    private boolean near(int cell, int target, int reach) {
+        return Math.abs(cell % width - target % width) <= reach && Math.abs(cell / width - target / width) <= reach;
+    }
+
+    private boolean isOccupied(Simulation sim, int cell) {
+        return sim.isOccupied(cell % width, cell / width);
+    }
+
+    // Sąsiednie pole albo -1 za krawędzią planszy
+    private int neighbour(int cell, Heading h) {
+        int x = cell % width + h.dx, y = cell / width + h.dy;
+        return x < 0 || y < 0 || x >= width || y >= height ? -1 : y * width + x;
+    }
+
+    private Heading direction(int from, int to) {
+        int d = to - from;
+        if (d == 1) return Heading.RIGHT;
+        if (d == -1) return Heading.LEFT;
+        return d > 0 ? Heading.DOWN : Heading.UP;
+    }
+
+    private int nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            generation = 0;
+        }
+        return ++generation;
+    }
+
+    private int nextBlockedGeneration() {
+        if (blockedGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(blocked, 0);
+            blockedGeneration = 0;
+        }
+        return ++blockedGeneration;
+    }
+
+    private void ensureSize(int width, int height) {
+        if (width == this.width && height == this.height) return;
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        queue = new int[cells];
+        parent = new int[cells];
+        seen = new int[cells];
+        blocked = new int[cells];
+        path = new int[cells];
+        generation = 0;
+        blockedGeneration = 0;
+        pathTarget = -1;
+    }
+
+    public long getDecisions() { return decisions; }
+    public long getSearches() { return searches; }
+    public long getReusedSteps() { return reusedSteps; }
+    public long getFallbacks() { return fallbacks; }
+    public long getExpanded() { return expanded; }
+}
@@ -0,0 +1,26 @@
+package pl.polsl.snake.core;
+
+// Mapa zajętości planszy - jeden bit na pole
+public final class CellBitSet implements CellSet {
+
+    private final long[] words;
+
+    public CellBitSet(int cells) {
+        words = new long[(cells + 63) >>> 6];
+    }
+
+    @Override
+    public boolean get(int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public void set(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    @Override
+    public void clear(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+}
@@ -0,0 +1,32 @@
+package pl.polsl.snake.core;
+
+// Pola ciała zmienione od ostatniego odczytu (wjazd głowy, zejście ogona).
+// Renderer rysuje tylko je; przepełnienie lub reset oznacza pełne przerysowanie.
+public final class CellChanges {
+
+    private final int[] cells;
+    private int count;
+    private boolean overflow = true;
+
+    public CellChanges(int capacity) {
+        cells = new int[capacity];
+    }
+
+    void add(int cell) {
+        if (count == cells.length) overflow = true;
+        else cells[count++] = cell;
+    }
+
+    void markAll() {
+        overflow = true;
+    }
+
+    public int size() { return count; }
+    public int get(int i) { return cells[i]; }
+    public boolean isOverflow() { return overflow; }
+
+    public void clear() {
+        count = 0;
+        overflow = false;
+    }
+}
@@ -0,0 +1,12 @@
+package pl.polsl.snake.core;
+
+// Zbiór zajętych pól planszy. Mała plansza: bit na pole (CellBitSet),
+// wielki świat: tablica mieszająca tylko zajętych pól (SparseCellSet).
+public interface CellSet {
+
+    boolean get(int cell);
+
+    void set(int cell);
+
+    void clear(int cell);
+}
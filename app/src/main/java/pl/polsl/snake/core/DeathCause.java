@@ -0,0 +1,3 @@
+package pl.polsl.snake.core;
+
+public enum DeathCause {NONE, WALL, SELF}
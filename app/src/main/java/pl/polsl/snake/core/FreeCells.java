@@ -0,0 +1,57 @@
+package pl.polsl.snake.core;
+
+import java.util.Arrays;
+
+// Zbiór wolnych pól: gęsta tablica pól + indeks pozycji każdego pola.
+// Dodanie, usunięcie i losowanie to O(1), niezależnie od zapełnienia planszy.
+public final class FreeCells {
+
+    private final int[] cells;
+    private final int[] positions;
+    private int size;
+
+    public FreeCells(int capacity) {
+        cells = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) positions[cells[i]] = -1;
+        size = 0;
+    }
+
+    public boolean contains(int cell) {
+        return positions[cell] >= 0;
+    }
+
+    public void add(int cell) {
+        if (positions[cell] >= 0) return;
+        positions[cell] = size;
+        cells[size++] = cell;
+    }
+
+    // Na miejsce usuwanego pola wchodzi ostatnie z tablicy
+    public void remove(int cell) {
+        int pos = positions[cell];
+        if (pos < 0) return;
+        int last = cells[--size];
+        cells[pos] = last;
+        positions[last] = pos;
+        positions[cell] = -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Pole na pozycji i w gęstej tablicy - kolejność decyduje o wyniku pick()
+    public int get(int i) {
+        return cells[i];
+    }
+
+    // Losowe wolne pole albo -1, gdy nie ma żadnego
+    public int pick(Rng rng) {
+        return size == 0 ? -1 : cells[rng.nextInt(size)];
+    }
+}
@@ -0,0 +1,20 @@
+package pl.polsl.snake.core;
+
+public enum Heading {
+    UP(0, -1), RIGHT(1, 0), DOWN(0, 1), LEFT(-1, 0);
+
+    private static final Heading[] VALUES = values();
+
+    public final int dx, dy;
+
+    Heading(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public Heading opposite() { return VALUES[(ordinal() + 2) & 3]; }
+    public Heading turnRight() { return VALUES[(ordinal() + 1) & 3]; }
+    public Heading turnLeft() { return VALUES[(ordinal() + 3) & 3]; }
+
+    public static Heading of(int ordinal) { return VALUES[ordinal]; }
+}
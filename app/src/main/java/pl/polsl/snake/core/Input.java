@@ -0,0 +1,32 @@
+package pl.polsl.snake.core;
+
+// Polecenie gracza na jeden tick: kierunek bezwzględny (głos, akcelerometr)
+// albo skręt względem aktualnego kierunku (dotyk)
+public enum Input {
+    NONE, UP, RIGHT, DOWN, LEFT, TURN_LEFT, TURN_RIGHT;
+
+    private static final Input[] VALUES = values();
+
+    public static Input of(Heading heading) {
+        return VALUES[heading.ordinal() + 1];
+    }
+
+    public static Input of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // Nowy kierunek albo null, gdy polecenie nic nie zmienia lub zawraca węża w miejscu
+    public Heading resolve(Heading current) {
+        Heading next;
+        switch (this) {
+            case UP: next = Heading.UP; break;
+            case RIGHT: next = Heading.RIGHT; break;
+            case DOWN: next = Heading.DOWN; break;
+            case LEFT: next = Heading.LEFT; break;
+            case TURN_LEFT: return current.turnLeft();
+            case TURN_RIGHT: return current.turnRight();
+            default: return null;
+        }
+        return next == current || next == current.opposite() ? null : next;
+    }
+}
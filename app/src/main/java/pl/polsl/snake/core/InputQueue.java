@@ -0,0 +1,67 @@
+package pl.polsl.snake.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ograniczona kolejka poleceń: wielu producentów (wątek UI, czujniki, rozpoznawanie mowy),
+// jeden konsument (wątek gry). Bez blokad - każde miejsce ma numer sekwencyjny,
+// który mówi, czy jest wolne do zapisu, czy gotowe do odczytu.
+public final class InputQueue {
+
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final byte[] inputs;
+    private final long[] timestamps;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+    private long lastTimestamp;
+
+    // Pojemność zaokrąglana w górę do potęgi dwójki
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        sequence = new AtomicLongArray(size);
+        inputs = new byte[size];
+        timestamps = new long[size];
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+    }
+
+    // Producent; przy pełnej kolejce polecenie jest odrzucane, a nie blokuje wątku UI
+    public boolean offer(Input input, long timeNanos) {
+        long pos = tail.get();
+        for (;;) {
+            int idx = (int) pos & mask;
+            long diff = sequence.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        int idx = (int) pos & mask;
+        inputs[idx] = (byte) input.ordinal();
+        timestamps[idx] = timeNanos;
+        sequence.lazySet(idx, pos + 1);
+        return true;
+    }
+
+    // Tylko wątek gry: następne polecenie albo null; czas zgłoszenia w getLastTimestamp()
+    public Input poll() {
+        int idx = (int) head & mask;
+        if (sequence.get(idx) != head + 1) return null;
+        Input input = Input.of(inputs[idx]);
+        lastTimestamp = timestamps[idx];
+        sequence.lazySet(idx, head + mask + 1);
+        head++;
+        return input;
+    }
+
+    public long getLastTimestamp() { return lastTimestamp; }
+    public long getDropped() { return dropped.get(); }
+    public int capacity() { return mask + 1; }
+}
@@ -0,0 +1,27 @@
+package pl.polsl.snake.core;
+
+// Deterministyczny generator (SplitMix64) - cały stan to jeden long,
+// więc te same ziarno i wejścia dają tę samą grę na każdej maszynie
+public final class Rng {
+
+    private long state;
+
+    public Rng(long seed) {
+        state = seed;
+    }
+
+    public long getState() { return state; }
+    public void setState(long state) { this.state = state; }
+
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Liczba z przedziału [0, bound)
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+}
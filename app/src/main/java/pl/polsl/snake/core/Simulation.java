@@ -0,0 +1,320 @@
+package pl.polsl.snake.core;
+
+import java.nio.ByteBuffer;
+
+// Reguły gry bez Androida: jeden wywołany step() to jeden tick.
+// Wynik step() to maska zdarzeń, na które adapter reaguje dźwiękiem i wibracją.
+public final class Simulation {
+
+    public static final int EVENT_TURNED = 1;
+    public static final int EVENT_ATE = 1 << 1;
+    public static final int EVENT_NEAR_APPLE = 1 << 2;
+    public static final int EVENT_NEAR_WALL = 1 << 3;
+    public static final int EVENT_DIED = 1 << 4;
+
+    private static final int APPLE_WARNING_RANGE = 5;
+    private static final int WALL_WARNING_RANGE = 2;
+
+    // Powyżej tylu pól plansza jest "wielkim światem": zajętość w tablicy mieszającej,
+    // ciało w rosnącym buforze, a jabłko losowane próbami zamiast z listy wolnych pól
+    public static final int DENSE_CELL_LIMIT = 1 << 18;
+    private static final int SPARSE_BODY_CAPACITY = 64;
+    private static final int SPARSE_SPAWN_ATTEMPTS = 64;
+
+    // Wersja układu bajtów w writeState/readState - zmienić przy każdej zmianie pól
+    public static final int STATE_VERSION = 1;
+    private static final DeathCause[] DEATH_CAUSES = DeathCause.values();
+    private static final int HEADINGS = Heading.values().length;
+    private static final int STATE_HEADER_BYTES = 4 * 3 + 8 + 4 * 2 + 4 * 4 + 4 * 2 + 2 + 4 * 3 + 8 + 1 + 4 * 2;
+
+    private final int width, height;
+    private final Rng rng;
+    private int appleMargin = 3;
+    private float bobScale = 1.0f;
+
+    private final SnakeBody body;
+    private final CellSet occupied;
+    // Pola, na których może pojawić się jabłko: wnętrze planszy bez marginesu i bez ciała węża.
+    // W wielkim świecie null - lista miałaby rozmiar całej planszy.
+    private final FreeCells spawnable;
+    private int minSpawnX, maxSpawnX, minSpawnY, maxSpawnY;
+    private final CellChanges changes = new CellChanges(64);
+    private int headX, headY;
+    private boolean growing;
+    private Heading heading = Heading.RIGHT;
+    private int bobX, bobY;
+    private int score;
+    private long tick;
+    private DeathCause deathCause = DeathCause.NONE;
+
+    public Simulation(int width, int height, long seed) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Plansza " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.rng = new Rng(seed);
+        int cells = width * height;
+        if (cells <= DENSE_CELL_LIMIT) {
+            this.body = new SnakeBody(cells);
+            this.occupied = new CellBitSet(cells);
+            this.spawnable = new FreeCells(cells);
+        } else {
+            this.body = new SnakeBody(cells, SPARSE_BODY_CAPACITY);
+            this.occupied = new SparseCellSet();
+            this.spawnable = null;
+        }
+        reset(seed);
+    }
+
+    public void setAppleMargin(int appleMargin) { this.appleMargin = appleMargin; }
+    public void setBobScale(float bobScale) { this.bobScale = bobScale; }
+
+    public void reset(long seed) {
+        rng.setState(seed);
+        while (body.size() > 0) occupied.clear(body.popTail());
+        headX = width / 2;
+        headY = height / 2;
+        body.pushHead(cell(headX, headY));
+        occupied.set(body.headCell());
+        growing = false;
+        heading = Heading.RIGHT;
+        fillSpawnable();
+        changes.markAll();
+        spawnBob();
+        score = 0;
+        tick = 0;
+        deathCause = DeathCause.NONE;
+    }
+
+    public int step(Input input) {
+        if (deathCause != DeathCause.NONE) return 0;
+        int events = 0;
+
+        Heading next = input.resolve(heading);
+        if (next != null) {
+            heading = next;
+            events |= EVENT_TURNED;
+        }
+
+        boolean ate = headOnApple();
+        if (ate) {
+            growing = true;
+            score++;
+            events |= EVENT_ATE;
+        }
+        headX += heading.dx;
+        headY += heading.dy;
+        deathCause = moveSnake();
+        // Nowe jabłko losujemy dopiero po ruchu, żeby nie trafiło w pole, na które wjeżdża głowa
+        if (ate) spawnBob();
+        if (bobX >= 0 && Math.abs(headX - bobX) <= APPLE_WARNING_RANGE && Math.abs(headY - bobY) <= APPLE_WARNING_RANGE) {
+            events |= EVENT_NEAR_APPLE;
+        }
+        if (headX <= WALL_WARNING_RANGE || headX >= width - 1 - WALL_WARNING_RANGE
+                || headY <= WALL_WARNING_RANGE || headY >= height - 1 - WALL_WARNING_RANGE) {
+            events |= EVENT_NEAR_WALL;
+        }
+        if (deathCause != DeathCause.NONE) events |= EVENT_DIED;
+        tick++;
+        return events;
+    }
+
+    // Przy bobScale > 1 jabłko zjada się już z sąsiedniego pola
+    private boolean headOnApple() {
+        float hitRange = bobScale / 2.0f;
+        return bobX >= 0 && Math.abs(headX - bobX) <= hitRange && Math.abs(headY - bobY) <= hitRange;
+    }
+
+    // Z ilu pól (w każdą stronę) głowa zjada jabłko: 0 to tylko pole jabłka
+    public int getAppleReach() {
+        return (int) (bobScale / 2.0f);
+    }
+
+    // Czy następny step() wydłuży węża (ogon zostanie na miejscu) - ta sama reguła co w step()
+    public boolean willGrow() {
+        return deathCause == DeathCause.NONE && headOnApple() && !body.isFull();
+    }
+
+    // Gdy margines nie zostawia miejsca, jabłko może leżeć na całej planszy
+    private void fillSpawnable() {
+        boolean fitsX = width > appleMargin * 2, fitsY = height > appleMargin * 2;
+        minSpawnX = fitsX ? appleMargin : 0;
+        maxSpawnX = fitsX ? width - appleMargin - 1 : width - 1;
+        minSpawnY = fitsY ? appleMargin : 0;
+        maxSpawnY = fitsY ? height - appleMargin - 1 : height - 1;
+        if (spawnable == null) return;
+        spawnable.clear();
+        for (int y = minSpawnY; y <= maxSpawnY; y++) {
+            for (int x = minSpawnX; x <= maxSpawnX; x++) {
+                int c = cell(x, y);
+                if (!occupied.get(c)) spawnable.add(c);
+            }
+        }
+    }
+
+    private boolean isSpawnable(int c) {
+        int x = c % width, y = c / width;
+        return x >= minSpawnX && x <= maxSpawnX && y >= minSpawnY && y <= maxSpawnY;
+    }
+
+    // Jabłko nigdy nie pojawia się pod wężem; bez wolnego pola bobX = bobY = -1
+    private void spawnBob() {
+        int c = spawnable != null ? spawnable.pick(rng) : pickSparse();
+        bobX = c < 0 ? -1 : c % width;
+        bobY = c < 0 ? -1 : c / width;
+    }
+
+    // Wielki świat jest prawie pusty, więc losowe pole niemal zawsze jest wolne. Po serii
+    // pudeł przeglądamy obszar od losowego miejsca - to już tylko przy zapchanej planszy.
+    private int pickSparse() {
+        int w = maxSpawnX - minSpawnX + 1, h = maxSpawnY - minSpawnY + 1;
+        for (int i = 0; i < SPARSE_SPAWN_ATTEMPTS; i++) {
+            int c = cell(minSpawnX + rng.nextInt(w), minSpawnY + rng.nextInt(h));
+            if (!occupied.get(c)) return c;
+        }
+        int area = w * h, start = rng.nextInt(area);
+        for (int i = 0; i < area; i++) {
+            int k = (int) ((start + (long) i) % area);
+            int c = cell(minSpawnX + k % w, minSpawnY + k / w);
+            if (!occupied.get(c)) return c;
+        }
+        return -1;
+    }
+
+    // Głowa jest już przesunięta w headX/headY; za planszę ciała nie przesuwamy.
+    // Ogon schodzi przed wejściem głowy, więc można wjechać w pole, które właśnie zwalnia.
+    private DeathCause moveSnake() {
+        if (headX < 0 || headX >= width || headY < 0 || headY >= height) return DeathCause.WALL;
+        if (!growing || body.isFull()) {
+            int tail = body.popTail();
+            occupied.clear(tail);
+            changes.add(tail);
+            if (spawnable != null && isSpawnable(tail)) spawnable.add(tail);
+        }
+        growing = false;
+        int head = cell(headX, headY);
+        boolean hit = occupied.get(head);
+        body.pushHead(head);
+        changes.add(head);
+        if (hit) return DeathCause.SELF;
+        occupied.set(head);
+        if (spawnable != null) spawnable.remove(head);
+        return DeathCause.NONE;
+    }
+
+    private int cell(int x, int y) {
+        return y * width + x;
+    }
+
+    // Pełny stan gry w stałym układzie (big-endian, bez refleksji): ustawienia, generator,
+    // ciało od ogona do głowy i kolejność wolnych pól - od niej zależy, gdzie padnie
+    // następne jabłko, więc odtworzona gra toczy się bit w bit tak samo. Wielki świat losuje
+    // jabłko z samej zajętości, więc jego stan rośnie tylko z długością węża.
+    public int stateSize() {
+        return STATE_HEADER_BYTES + 4 * (body.size() + freeCount());
+    }
+
+    // Górna granica stateSize(): ciało i wolne pola razem nie przekroczą liczby pól planszy
+    public int maxStateSize() {
+        return STATE_HEADER_BYTES + 4 * width * height;
+    }
+
+    public void writeState(ByteBuffer out) {
+        out.putInt(STATE_VERSION).putInt(width).putInt(height);
+        out.putLong(rng.getState());
+        out.putInt(appleMargin).putFloat(bobScale);
+        out.putInt(minSpawnX).putInt(maxSpawnX).putInt(minSpawnY).putInt(maxSpawnY);
+        out.putInt(headX).putInt(headY);
+        out.put((byte) (growing ? 1 : 0)).put((byte) heading.ordinal());
+        out.putInt(bobX).putInt(bobY).putInt(score);
+        out.putLong(tick);
+        out.put((byte) deathCause.ordinal());
+        int length = body.size();
+        out.putInt(length);
+        for (int i = length - 1; i >= 0; i--) out.putInt(body.get(i));
+        int free = freeCount();
+        out.putInt(free);
+        for (int i = 0; i < free; i++) out.putInt(spawnable.get(i));
+    }
+
+    // Stan z innej wersji formatu albo innej planszy jest odrzucany, a symulacja zostaje bez zmian
+    // Wymiary planszy zapisanego stanu, bez przesuwania pozycji - żeby odtworzyć grę na
+    // planszy, na której była zapisana, a nie wyliczonej z bieżącego ekranu
+    public static int stateWidth(ByteBuffer in) {
+        return in.getInt(in.position() + 4);
+    }
+
+    public static int stateHeight(ByteBuffer in) {
+        return in.getInt(in.position() + 8);
+    }
+
+    public void readState(ByteBuffer in) {
+        int version = in.getInt(in.position());
+        if (version != STATE_VERSION) throw new IllegalArgumentException("Nieobsługiwana wersja stanu: " + version);
+        int w = in.getInt(in.position() + 4), h = in.getInt(in.position() + 8);
+        if (w != width || h != height) throw new IllegalArgumentException("Stan dla planszy " + w + "x" + h);
+        in.position(in.position() + 12);
+        rng.setState(in.getLong());
+        appleMargin = in.getInt();
+        bobScale = in.getFloat();
+        minSpawnX = in.getInt();
+        maxSpawnX = in.getInt();
+        minSpawnY = in.getInt();
+        maxSpawnY = in.getInt();
+        headX = in.getInt();
+        headY = in.getInt();
+        growing = in.get() != 0;
+        int headingOrdinal = in.get();
+        if (headingOrdinal < 0 || headingOrdinal >= HEADINGS) throw new IllegalArgumentException("Zły kierunek: " + headingOrdinal);
+        heading = Heading.of(headingOrdinal);
+        bobX = in.getInt();
+        bobY = in.getInt();
+        score = in.getInt();
+        tick = in.getLong();
+        int cause = in.get();
+        if (cause < 0 || cause >= DEATH_CAUSES.length) throw new IllegalArgumentException("Zła przyczyna śmierci: " + cause);
+        deathCause = DEATH_CAUSES[cause];
+        while (body.size() > 0) occupied.clear(body.popTail());
+        // Uszkodzony plik: za długie ciało wywróciłoby pushHead wyjątkiem spoza umowy readState
+        int length = in.getInt(), cells = width * height;
+        if (length < 0 || length > cells) throw new IllegalArgumentException("Zła długość ciała: " + length);
+        for (int i = 0; i < length; i++) {
+            int c = in.getInt();
+            if (c < 0 || c >= cells) throw new IllegalArgumentException("Pole ciała poza planszą: " + c);
+            body.pushHead(c);
+            occupied.set(c);
+        }
+        int free = in.getInt();
+        if (spawnable != null) {
+            spawnable.clear();
+            for (int i = 0; i < free; i++) spawnable.add(in.getInt());
+        } else {
+            in.position(in.position() + 4 * free);
+        }
+        changes.markAll();
+    }
+
+    private int freeCount() {
+        return spawnable == null ? 0 : spawnable.size();
+    }
+
+    public int getWidth() { return width; }
+    public boolean isSparse() { return spawnable == null; }
+    public int getHeight() { return height; }
+    public int getLength() { return body.size(); }
+    public SnakeBody getBody() { return body; }
+    public CellChanges getChanges() { return changes; }
+    public int segmentX(int i) { return body.get(i) % width; }
+    public int segmentY(int i) { return body.get(i) / width; }
+    public boolean isOccupied(int x, int y) { return occupied.get(cell(x, y)); }
+    public int getHeadX() { return headX; }
+    public int getHeadY() { return headY; }
+    public Heading getHeading() { return heading; }
+    public int getBobX() { return bobX; }
+    public int getBobY() { return bobY; }
+    public int getScore() { return score; }
+    public long getTick() { return tick; }
+    public boolean isDead() { return deathCause != DeathCause.NONE; }
+    public DeathCause getDeathCause() { return deathCause; }
+}
@@ -0,0 +1,81 @@
+package pl.polsl.snake.core;
+
+// Ciało węża jako bufor cykliczny numerów pól (y * width + x).
+// Nowa głowa i zdjęcie ogona to O(1), niezależnie od długości węża.
+// W wielkim świecie tablica startuje mała i podwaja się aż do maxCapacity,
+// więc pamięć idzie za długością węża, a nie za powierzchnią planszy.
+public final class SnakeBody {
+
+    public interface CellVisitor {
+        void visit(int cell);
+    }
+
+    private final int maxCapacity;
+    private int[] cells;
+    private int head;
+    private int length;
+
+    public SnakeBody(int capacity) {
+        this(capacity, capacity);
+    }
+
+    public SnakeBody(int maxCapacity, int initialCapacity) {
+        this.maxCapacity = Math.max(1, maxCapacity);
+        cells = new int[Math.max(1, Math.min(initialCapacity, this.maxCapacity))];
+    }
+
+    public void clear() {
+        head = 0;
+        length = 0;
+    }
+
+    public void pushHead(int cell) {
+        if (length == cells.length) {
+            if (length == maxCapacity) throw new IllegalStateException("Wąż zajmuje całą planszę");
+            grow();
+        }
+        head = head == 0 ? cells.length - 1 : head - 1;
+        cells[head] = cell;
+        length++;
+    }
+
+    public int popTail() {
+        if (length == 0) throw new IllegalStateException("Pusty wąż");
+        int cell = cells[index(length - 1)];
+        length--;
+        return cell;
+    }
+
+    // Segment i, licząc od głowy (0)
+    public int get(int i) {
+        return cells[index(i)];
+    }
+
+    public int headCell() { return cells[head]; }
+    public int tailCell() { return cells[index(length - 1)]; }
+    public int size() { return length; }
+    public int capacity() { return cells.length; }
+    public boolean isFull() { return length == maxCapacity; }
+
+    // Od głowy do ogona, w dwóch ciągłych kawałkach tablicy - bez alokacji i bez dzielenia modulo
+    public void forEach(CellVisitor visitor) {
+        int firstRun = Math.min(length, cells.length - head);
+        for (int i = head, end = head + firstRun; i < end; i++) visitor.visit(cells[i]);
+        for (int i = 0, end = length - firstRun; i < end; i++) visitor.visit(cells[i]);
+    }
+
+    // Segmenty od głowy trafiają na początek nowej tablicy
+    private void grow() {
+        int[] grown = new int[(int) Math.min(maxCapacity, cells.length * 2L)];
+        int firstRun = Math.min(length, cells.length - head);
+        System.arraycopy(cells, head, grown, 0, firstRun);
+        System.arraycopy(cells, 0, grown, firstRun, length - firstRun);
+        cells = grown;
+        head = 0;
+    }
+
+    private int index(int i) {
+        int idx = head + i;
+        return idx >= cells.length ? idx - cells.length : idx;
+    }
+}
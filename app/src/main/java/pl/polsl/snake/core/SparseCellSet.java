@@ -0,0 +1,84 @@
+package pl.polsl.snake.core;
+
+import java.util.Arrays;
+
+// Zajęte pola wielkiego świata: adresowanie otwarte z próbkowaniem liniowym.
+// Pamięć rośnie z liczbą zajętych pól (długością węża), a nie z powierzchnią planszy.
+// Usuwanie przesuwa następne wpisy łańcucha wstecz, więc nie ma nagrobków,
+// a wyszukiwanie nie zwalnia po długiej grze.
+public final class SparseCellSet implements CellSet {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 64;
+
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    public SparseCellSet() {
+        slots = new int[MIN_CAPACITY];
+        Arrays.fill(slots, EMPTY);
+        mask = MIN_CAPACITY - 1;
+    }
+
+    @Override
+    public boolean get(int cell) {
+        for (int i = slot(cell); ; i = (i + 1) & mask) {
+            int s = slots[i];
+            if (s == cell) return true;
+            if (s == EMPTY) return false;
+        }
+    }
+
+    @Override
+    public void set(int cell) {
+        int i = slot(cell);
+        for (; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == cell) return;
+        }
+        slots[i] = cell;
+        // Zapełnienie do połowy - łańcuchy zostają krótkie
+        if (++size * 2 > slots.length) grow();
+    }
+
+    @Override
+    public void clear(int cell) {
+        int i = slot(cell);
+        while (slots[i] != cell) {
+            if (slots[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+        size--;
+        // Dziura w i: cofamy wpisy, których miejsce domowe leży przed dziurą (cyklicznie)
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(slots[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                slots[i] = slots[j];
+                i = j;
+            }
+        }
+        slots[i] = EMPTY;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return slots.length; }
+
+    private void grow() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        Arrays.fill(slots, EMPTY);
+        mask = slots.length - 1;
+        for (int cell : old) {
+            if (cell == EMPTY) continue;
+            int i = slot(cell);
+            while (slots[i] != EMPTY) i = (i + 1) & mask;
+            slots[i] = cell;
+        }
+    }
+
+    // Sąsiednie pola mają kolejne numery - mieszamy, żeby nie zlewały się w jeden łańcuch
+    private int slot(int cell) {
+        int h = cell * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,62 @@
+package pl.polsl.snake.core;
+
+// Po stronie wątku gry: raz na tick opróżnia kolejkę i wybiera polecenie dla tego ticka.
+// Każde polecenie sprawdzamy względem kierunku, który naprawdę będzie obowiązywał,
+// a jeden dodatkowy skręt czeka na następny tick - dwa szybkie skręty w jednym
+// ticku nie zawrócą już węża w jego własne ciało.
+public final class Steering {
+
+    private final InputQueue queue;
+    private Heading buffered;
+    private long bufferedTimestamp;
+    private long lastLatencyNanos;
+    private long accepted, rejected, overflowed;
+
+    public Steering(InputQueue queue) {
+        this.queue = queue;
+    }
+
+    public Input next(Heading committed, long nowNanos) {
+        Heading chosen = null;
+        long chosenTimestamp = 0;
+        if (buffered != null) {
+            if (buffered != committed && buffered != committed.opposite()) {
+                chosen = buffered;
+                chosenTimestamp = bufferedTimestamp;
+            }
+            buffered = null;
+        }
+
+        Input input;
+        while ((input = queue.poll()) != null) {
+            if (chosen == null) {
+                chosen = input.resolve(committed);
+                chosenTimestamp = queue.getLastTimestamp();
+                if (chosen == null) rejected++;
+            } else if (buffered == null) {
+                // Skręt względny liczymy od kierunku wybranego na ten tick
+                buffered = input.resolve(chosen);
+                bufferedTimestamp = queue.getLastTimestamp();
+                if (buffered == null) rejected++;
+            } else {
+                overflowed++;
+            }
+        }
+
+        if (chosen == null) return Input.NONE;
+        accepted++;
+        lastLatencyNanos = nowNanos - chosenTimestamp;
+        return Input.of(chosen);
+    }
+
+    // Nowa gra - zaległe polecenia z poprzedniej nie mają znaczenia
+    public void clear() {
+        while (queue.poll() != null) { }
+        buffered = null;
+    }
+
+    public long getLastLatencyNanos() { return lastLatencyNanos; }
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
+    public long getOverflowed() { return overflowed; }
+}
@@ -0,0 +1,76 @@
+package pl.polsl.snake.feedback;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.ToneGenerator;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+
+// Efekty wibracji przygotowane z góry - nic nie powstaje przy zdarzeniu. Vibrator i ToneGenerator
+// (połączenie z usługą audio) powstają dopiero na wątku dyspozytora: w prepare(), jeśli dane
+// wyjście jest włączone, albo przy pierwszym użyciu - konstruktor nie spowalnia startu aplikacji.
+public final class DeviceFeedback implements FeedbackSink {
+
+    private final Context context;
+    private Vibrator vibrator;
+    private ToneGenerator toneGenerator;
+    private boolean toneFailed;
+    private final VibrationEffect[] effects = new VibrationEffect[Feedback.values().length];
+    private final int[] tones = new int[Feedback.values().length];
+    private final int[] toneMs = new int[Feedback.values().length];
+
+    public DeviceFeedback(Context context) {
+        this.context = context;
+        for (Feedback f : Feedback.values()) {
+            effects[f.ordinal()] = VibrationEffect.createOneShot(f.vibrationMs, f.amplitude);
+            tones[f.ordinal()] = -1;
+        }
+        tone(Feedback.EAT, ToneGenerator.TONE_PROP_ACK, 200);
+        tone(Feedback.TURN_UP, ToneGenerator.TONE_DTMF_1, 100);
+        tone(Feedback.TURN_DOWN, ToneGenerator.TONE_DTMF_7, 100);
+        tone(Feedback.TURN_LEFT, ToneGenerator.TONE_DTMF_4, 100);
+        tone(Feedback.TURN_RIGHT, ToneGenerator.TONE_DTMF_6, 100);
+        tone(Feedback.APPLE_NEAR, ToneGenerator.TONE_DTMF_B, 30);
+    }
+
+    private void tone(Feedback f, int tone, int durationMs) {
+        tones[f.ordinal()] = tone;
+        toneMs[f.ordinal()] = durationMs;
+    }
+
+    @Override
+    public void prepare(boolean vibration, boolean sound) {
+        if (vibration) vibrator();
+        if (sound) toneGenerator();
+    }
+
+    private Vibrator vibrator() {
+        if (vibrator == null) vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+        return vibrator;
+    }
+
+    private ToneGenerator toneGenerator() {
+        if (toneGenerator == null && !toneFailed) {
+            try {
+                toneGenerator = new ToneGenerator(AudioManager.STREAM_MUSIC, 100);
+            } catch (RuntimeException e) {
+                // Usługa audio niedostępna - gramy dalej bez dźwięków
+                toneFailed = true;
+            }
+        }
+        return toneGenerator;
+    }
+
+    @Override
+    public void vibrate(Feedback feedback) {
+        Vibrator v = vibrator();
+        if (v != null && v.hasVibrator()) v.vibrate(effects[feedback.ordinal()]);
+    }
+
+    @Override
+    public void tone(Feedback feedback) {
+        int t = tones[feedback.ordinal()];
+        ToneGenerator g = t != -1 ? toneGenerator() : null;
+        if (g != null) g.startTone(t, toneMs[feedback.ordinal()]);
+    }
+}
@@ -0,0 +1,50 @@
+package pl.polsl.snake.feedback;
+
+import pl.polsl.snake.core.Heading;
+
+// Zdarzenia dźwięk/wibracja w kolejności od najważniejszego.
+// minIntervalMs - jak często to samo zdarzenie może się powtórzyć (ostrzeżenia co tick męczyły wibrator)
+public enum Feedback {
+    DEATH(600, 255, 0),
+    EAT(50, 150, 0),
+    TURN_UP(10, 30, 60),
+    TURN_RIGHT(10, 30, 60),
+    TURN_DOWN(10, 30, 60),
+    TURN_LEFT(10, 30, 60),
+    APPLE_NEAR(15, 40, 300),
+    WALL_NEAR(20, 50, 300);
+
+    private static final Feedback[] VALUES = values();
+
+    public final int vibrationMs, amplitude;
+    public final long minIntervalNanos;
+
+    Feedback(int vibrationMs, int amplitude, int minIntervalMs) {
+        this.vibrationMs = vibrationMs;
+        this.amplitude = amplitude;
+        this.minIntervalNanos = minIntervalMs * 1_000_000L;
+    }
+
+    // Niższy numer = wyższy priorytet; skręty to jeden poziom
+    public int priority() {
+        switch (this) {
+            case DEATH: return 0;
+            case EAT: return 1;
+            case APPLE_NEAR:
+            case WALL_NEAR: return 3;
+            default: return 2;
+        }
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    public static Feedback of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static Feedback turn(Heading heading) {
+        return VALUES[TURN_UP.ordinal() + heading.ordinal()];
+    }
+}
@@ -0,0 +1,122 @@
+package pl.polsl.snake.feedback;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Wątek gry tylko ustawia bit zdarzenia (post) - wibracje i dźwięki odtwarza osobny wątek.
+// Zdarzenia zgłoszone kilka razy przed odebraniem są scalane, a z jednej paczki gra tylko
+// najważniejsze, które nie przekracza limitu częstotliwości. Trwająca wibracja
+// o wyższym priorytecie (np. śmierć) wycisza słabsze zdarzenia do swojego końca.
+public final class FeedbackDispatcher implements Runnable {
+
+    private static final int FEEDBACK_COUNT = Feedback.values().length;
+
+    private final FeedbackSink sink;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong posted = new AtomicLong(), merged = new AtomicLong();
+    private final long[] lastPlayed = new long[FEEDBACK_COUNT];
+    private long busyUntil;
+    private int busyPriority = Integer.MAX_VALUE;
+    private volatile long played, dropped;
+
+    private volatile boolean vibrationEnabled = true, soundEnabled = true;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public FeedbackDispatcher(FeedbackSink sink) {
+        this.sink = sink;
+        Arrays.fill(lastPlayed, Long.MIN_VALUE / 2);
+    }
+
+    public void setEnabled(boolean vibration, boolean sound) {
+        vibrationEnabled = vibration;
+        soundEnabled = sound;
+    }
+
+    // Wątek gry: bez alokacji i bez wywołań systemowych
+    public void post(Feedback feedback) {
+        if (!vibrationEnabled && !soundEnabled) return;
+        posted.incrementAndGet();
+        int bit = feedback.bit();
+        int prev;
+        do {
+            prev = pending.get();
+            if ((prev & bit) != 0) {
+                merged.incrementAndGet();
+                return;
+            }
+        } while (!pending.compareAndSet(prev, prev | bit));
+        if (prev == 0) {
+            Thread t = worker;
+            if (t != null) LockSupport.unpark(t);
+        }
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        Thread t = new Thread(this, "snake-feedback");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    public void stop() {
+        running = false;
+        Thread t = worker;
+        worker = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try { t.join(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    @Override
+    public void run() {
+        sink.prepare(vibrationEnabled, soundEnabled);
+        while (running) {
+            if (pending.get() == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+            drain(System.nanoTime());
+        }
+    }
+
+    // Odbiera paczkę zdarzeń i odtwarza co najwyżej jedno; testy wołają to bezpośrednio
+    public void drain(long nowNanos) {
+        int mask = pending.getAndSet(0);
+        boolean done = false;
+        for (int i = 0; i < FEEDBACK_COUNT; i++) {
+            if ((mask & (1 << i)) == 0) continue;
+            Feedback f = Feedback.of(i);
+            if (done || !allowed(f, nowNanos)) {
+                dropped++;
+                continue;
+            }
+            play(f, nowNanos);
+            done = true;
+        }
+    }
+
+    private boolean allowed(Feedback f, long now) {
+        if (now - lastPlayed[f.ordinal()] < f.minIntervalNanos) return false;
+        return now >= busyUntil || f.priority() <= busyPriority;
+    }
+
+    private void play(Feedback f, long now) {
+        if (vibrationEnabled && f.vibrationMs > 0) sink.vibrate(f);
+        if (soundEnabled) sink.tone(f);
+        lastPlayed[f.ordinal()] = now;
+        busyUntil = now + f.vibrationMs * 1_000_000L;
+        busyPriority = f.priority();
+        played++;
+    }
+
+    public long getPosted() { return posted.get(); }
+    public long getMerged() { return merged.get(); }
+    public long getPlayed() { return played; }
+    public long getDropped() { return dropped; }
+}
@@ -0,0 +1,11 @@
+package pl.polsl.snake.feedback;
+
+// Faktyczne wyjście (Vibrator, ToneGenerator); wołane tylko z wątku dyspozytora
+public interface FeedbackSink {
+    // Na starcie wątku dyspozytora: przygotowanie tylko włączonych wyjść, poza wątkiem UI
+    default void prepare(boolean vibration, boolean sound) {
+    }
+
+    void vibrate(Feedback feedback);
+    void tone(Feedback feedback);
+}
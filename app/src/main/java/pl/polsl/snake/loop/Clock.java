@@ -0,0 +1,8 @@
+package pl.polsl.snake.loop;
+
+// Źródło czasu pętli - w testach podmieniane na sztuczny zegar
+public interface Clock {
+    Clock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
@@ -0,0 +1,125 @@
+package pl.polsl.snake.loop;
+
+// Pętla gry ze stałym krokiem symulacji. Czas mierzony przez System.nanoTime()
+// trafia do akumulatora, z którego zdejmujemy pełne ticki - tempo gry (gameSpeed)
+// nie zależy więc od tego, jak często rysujemy. Między tickami wątek czeka w Pacerze
+// zamiast kręcić się w pętli.
+public final class FixedStepLoop {
+
+    public interface Callback {
+        void tick();
+        void render();
+    }
+
+    // Po tylu zaległych tickach w jednej klatce resztę opuszczamy, żeby gra nie "przewijała się"
+    public static final int DEFAULT_MAX_CATCH_UP = 3;
+
+    private final LoopMode mode;
+    private final Clock clock;
+    private final Pacer pacer;
+    private final Callback callback;
+
+    private long stepNanos;
+    private int maxCatchUp = DEFAULT_MAX_CATCH_UP;
+    private boolean started;
+    private long lastTime;
+    private long accumulator;
+
+    private long ticks, frames, wakeups, lateTicks, skippedTicks, idleNanos;
+    // Ostatnia klatka: ile ticków ruszyło i o ile po terminie
+    private int lastTicksRun;
+    private long lastLatenessNanos;
+
+    public FixedStepLoop(LoopMode mode, Clock clock, Pacer pacer, Callback callback) {
+        this.mode = mode;
+        this.clock = clock;
+        this.pacer = mode == LoopMode.HEADLESS ? Pacer.NONE : pacer;
+        this.callback = callback;
+        setTicksPerSecond(10);
+    }
+
+    public void setTicksPerSecond(int ticksPerSecond) {
+        stepNanos = 1_000_000_000L / Math.max(1, ticksPerSecond);
+    }
+
+    public void setMaxCatchUp(int maxCatchUp) {
+        this.maxCatchUp = Math.max(1, maxCatchUp);
+    }
+
+    // Po wznowieniu zaczynamy liczyć od nowa, bez nadrabiania czasu spędzonego w pauzie
+    public void reset() {
+        started = false;
+        accumulator = 0;
+    }
+
+    // Jedna klatka: czekanie na termin, zaległe ticki, rysowanie
+    public void frame() throws InterruptedException {
+        if (mode == LoopMode.HEADLESS) {
+            callback.tick();
+            ticks++;
+            callback.render();
+            frames++;
+            lastTicksRun = 1;
+            lastLatenessNanos = 0;
+            return;
+        }
+        if (!started) {
+            // Pierwszy tick od razu, tak jak wcześniej po newGame()
+            lastTime = clock.nanoTime() - stepNanos;
+            started = true;
+        }
+
+        long deadline = lastTime + stepNanos - accumulator;
+        long early = pacer.earlyWakeNanos();
+        long before = clock.nanoTime();
+        if (before < deadline - early) {
+            pacer.awaitUntil(deadline);
+            wakeups++;
+        }
+        long now = clock.nanoTime();
+        idleNanos += now - before;
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        int ran = 0;
+        // Pobudka tuż przed terminem (w granicy pacera) to już ten tick - reszta czasu przechodzi
+        // na minus do akumulatora, więc średnie tempo się nie zmienia, a wątek nie kręci się
+        // w pętli do terminu
+        if (accumulator < stepNanos && accumulator + early >= stepNanos) {
+            callback.tick();
+            accumulator -= stepNanos;
+            ran++;
+        }
+        while (accumulator >= stepNanos) {
+            if (ran == maxCatchUp) {
+                long skip = accumulator / stepNanos;
+                skippedTicks += skip;
+                accumulator -= skip * stepNanos;
+                break;
+            }
+            callback.tick();
+            accumulator -= stepNanos;
+            ran++;
+        }
+        ticks += ran;
+        lastTicksRun = ran;
+        lastLatenessNanos = ran > 0 ? Math.max(0, now - deadline) : 0;
+        if (ran > 1) lateTicks += ran - 1;
+        if (ran > 0) {
+            callback.render();
+            frames++;
+        }
+    }
+
+    public LoopMode getMode() { return mode; }
+    public long getStepNanos() { return stepNanos; }
+    public long getTicks() { return ticks; }
+    public long getFrames() { return frames; }
+    public long getWakeups() { return wakeups; }
+    public long getLateTicks() { return lateTicks; }
+    public long getSkippedTicks() { return skippedTicks; }
+    public long getIdleNanos() { return idleNanos; }
+    public int getLastTicksRun() { return lastTicksRun; }
+    public long getLastLatenessNanos() { return lastLatenessNanos; }
+}
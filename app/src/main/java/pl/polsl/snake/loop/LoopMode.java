@@ -0,0 +1,7 @@
+package pl.polsl.snake.loop;
+
+public enum LoopMode {
+    VSYNC,    // budzenie zsynchronizowane z odświeżaniem ekranu (Choreographer)
+    SLEEP,    // zwykłe uśpienie wątku do terminu ticka
+    HEADLESS  // bez czekania i bez zegara - testy i benchmarki
+}
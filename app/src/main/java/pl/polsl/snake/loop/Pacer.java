@@ -0,0 +1,15 @@
+package pl.polsl.snake.loop;
+
+// Sposób czekania wątku gry na termin kolejnego ticka
+public interface Pacer {
+    // Tryb bezgłowy - bez czekania
+    Pacer NONE = deadlineNanos -> { };
+
+    void awaitUntil(long deadlineNanos) throws InterruptedException;
+
+    // O ile przed terminem pacer może celowo wrócić (np. na vsync najbliższy terminowi).
+    // Pętla uznaje wtedy tick za należny, zamiast od razu czekać ponownie.
+    default long earlyWakeNanos() {
+        return 0;
+    }
+}
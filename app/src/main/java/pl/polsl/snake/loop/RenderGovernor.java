@@ -0,0 +1,93 @@
+package pl.polsl.snake.loop;
+
+// Decyduje, czy po tickach danej klatki rysować. Symulacja idzie swoim tempem (ticki
+// liczy FixedStepLoop), a rysowanie jest tylko tak częste, jak trzeba:
+// - klatki bez widocznych zmian nie są pokazywane (o tym mówi rysujący - rendered(false)),
+// - bez obrazu (gra tylko dźwiękiem i wibracjami) odświeżamy sam HUD, najwyżej co HUD_ONLY_PERIOD_NANOS,
+// - przy grzaniu się urządzenia albo oszczędzaniu baterii obowiązuje limit klatek na sekundę.
+// Klatka wstrzymana limitem nie przepada: zmiany czekają i idą na ekran przy następnej okazji.
+public final class RenderGovernor {
+
+    // Poziomy jak PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_NONE = 0, THERMAL_LIGHT = 1, THERMAL_MODERATE = 2, THERMAL_SEVERE = 3;
+
+    public static final long HUD_ONLY_PERIOD_NANOS = 500_000_000L;
+    public static final int POWER_SAVE_FPS = 30;
+    public static final int THERMAL_MODERATE_FPS = 30;
+    public static final int THERMAL_SEVERE_FPS = 15;
+    // Tyle wcześniej klatka może przyjść przed końcem okresu - ticki budzą się na vsync, z drganiami
+    static final long JITTER_NANOS = 4_000_000L;
+
+    private final Clock clock;
+    private int thermalStatus;
+    private boolean powerSave;
+    private long minFrameNanos;
+    private boolean started;
+    private long lastFrameNanos;
+
+    private long ticks, frames, unchanged, capped;
+
+    public RenderGovernor(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void setThermalStatus(int status) {
+        thermalStatus = status;
+        updateCap();
+    }
+
+    public void setPowerSave(boolean powerSave) {
+        this.powerSave = powerSave;
+        updateCap();
+    }
+
+    private void updateCap() {
+        int fps = 0;
+        if (powerSave) fps = POWER_SAVE_FPS;
+        if (thermalStatus >= THERMAL_MODERATE) fps = fps == 0 ? THERMAL_MODERATE_FPS : Math.min(fps, THERMAL_MODERATE_FPS);
+        if (thermalStatus >= THERMAL_SEVERE) fps = THERMAL_SEVERE_FPS;
+        minFrameNanos = fps == 0 ? 0 : 1_000_000_000L / fps;
+    }
+
+    // Limit klatek na sekundę, 0 - bez limitu
+    public int getFrameCap() {
+        return minFrameNanos == 0 ? 0 : (int) (1_000_000_000L / minFrameNanos);
+    }
+
+    public void onTick() {
+        ticks++;
+    }
+
+    // Czy rysować teraz; boardVisible = false to tryb bez obrazu, tylko HUD
+    public boolean shouldRender(boolean boardVisible) {
+        if (!started) return true;
+        long period = boardVisible ? minFrameNanos : Math.max(minFrameNanos, HUD_ONLY_PERIOD_NANOS);
+        if (period > 0 && clock.nanoTime() - lastFrameNanos < period - JITTER_NANOS) {
+            capped++;
+            return false;
+        }
+        return true;
+    }
+
+    // Wynik rysowania po shouldRender() == true: presented = false, gdy nic się nie zmieniło
+    public void rendered(boolean presented) {
+        if (!presented) {
+            unchanged++;
+            return;
+        }
+        frames++;
+        started = true;
+        lastFrameNanos = clock.nanoTime();
+    }
+
+    public long getTicks() { return ticks; }
+    public long getFrames() { return frames; }
+    // Klatki bez zmian na ekranie i klatki wstrzymane limitem
+    public long getUnchanged() { return unchanged; }
+    public long getCapped() { return capped; }
+
+    // Klatki pokazane na tick symulacji
+    public double getFramesPerTick() {
+        return ticks == 0 ? 0 : (double) frames / ticks;
+    }
+}
@@ -0,0 +1,22 @@
+package pl.polsl.snake.loop;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Usypia wątek do terminu; parkNanos może wrócić wcześniej, więc sprawdzamy zegar w pętli
+public final class SleepPacer implements Pacer {
+
+    private final Clock clock;
+
+    public SleepPacer(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void awaitUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - clock.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
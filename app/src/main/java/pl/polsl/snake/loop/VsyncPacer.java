@@ -0,0 +1,58 @@
+package pl.polsl.snake.loop;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import java.util.concurrent.locks.LockSupport;
+
+// Czeka na pierwszy vsync po terminie ticka. Do ostatniej klatki przed terminem
+// wątek zwyczajnie śpi, więc między tickami budzimy się najwyżej kilka razy.
+public final class VsyncPacer implements Pacer, Choreographer.FrameCallback {
+
+    private static final long DEFAULT_FRAME_NANOS = 16_666_667L;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable postFrameCallback = () -> Choreographer.getInstance().postFrameCallback(this);
+    private volatile Thread waiter;
+    private volatile boolean vsyncArrived;
+    private volatile long frameNanos = DEFAULT_FRAME_NANOS;
+    private long lastVsyncNanos;
+
+    @Override
+    public void awaitUntil(long deadlineNanos) throws InterruptedException {
+        long coarse = deadlineNanos - frameNanos - System.nanoTime();
+        if (coarse > 0) LockSupport.parkNanos(this, coarse);
+        if (Thread.interrupted()) throw new InterruptedException();
+
+        while (System.nanoTime() < deadlineNanos - frameNanos / 2) {
+            waiter = Thread.currentThread();
+            vsyncArrived = false;
+            mainHandler.post(postFrameCallback);
+            long giveUp = System.nanoTime() + frameNanos * 4;
+            // Zabezpieczenie: gdy główny wątek jest zajęty, nie czekamy w nieskończoność
+            while (!vsyncArrived && System.nanoTime() < giveUp) {
+                LockSupport.parkNanos(this, frameNanos);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+            if (!vsyncArrived) break;
+        }
+    }
+
+    // Wracamy na vsync najbliższy terminowi - do pół klatki przed nim
+    @Override
+    public long earlyWakeNanos() {
+        return frameNanos / 2;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (lastVsyncNanos != 0) {
+            long interval = frameTimeNanos - lastVsyncNanos;
+            if (interval > 0 && interval < DEFAULT_FRAME_NANOS * 2) frameNanos = interval;
+        }
+        lastVsyncNanos = frameTimeNanos;
+        vsyncArrived = true;
+        Thread t = waiter;
+        if (t != null) LockSupport.unpark(t);
+    }
+}
@@ -0,0 +1,127 @@
+package pl.polsl.snake.profile;
+
+import java.util.Locale;
+import pl.polsl.snake.render.TextBuffer;
+
+// Pomiar czasu faz klatki: start() przed fazą, end(faza, start) po niej.
+// Próbki trafiają do histogramów przydzielonych z góry - pomiar niczego nie alokuje
+// i kosztuje dwa wywołania nanoTime. Wszystkie wywołania z wątku gry.
+public final class FrameProfiler {
+
+    public enum Phase {
+        TICK("tick"),
+        FEEDBACK("feedback"),
+        // Całe rysowanie, razem z LOCK i POST
+        DRAW("draw"),
+        LOCK("lock"),
+        POST("post"),
+        // O ile ticki ruszyły po terminie wyznaczonym przez pętlę
+        LATENESS("late"),
+        // Od początku wypowiedzi do ticku, w którym wąż skręcił
+        VOICE("voice"),
+        // Od próbki akcelerometru, na której zapadła decyzja, do ticku ze skrętem
+        TILT("tilt");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private long lateTicks, skippedTicks, gcCount, gcTimeMs;
+    private long renderFrames, renderTicks;
+    private long gcCountAtReset, gcTimeAtReset;
+
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void end(Phase phase, long startNanos) {
+        histograms[phase.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram get(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    // Liczniki pętli są narastające od startu wątku gry
+    public void setLoopStats(long lateTicks, long skippedTicks) {
+        this.lateTicks = lateTicks;
+        this.skippedTicks = skippedTicks;
+    }
+
+    // Klatki pokazane na ekranie i ticki symulacji od startu wątku gry
+    public void setRenderStats(long frames, long ticks) {
+        renderFrames = frames;
+        renderTicks = ticks;
+    }
+
+    // Liczniki GC od startu procesu; pokazujemy przyrost od reset()
+    public void setGcStats(long count, long timeMs) {
+        gcCount = count;
+        gcTimeMs = timeMs;
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+        gcCountAtReset = gcCount;
+        gcTimeAtReset = gcTimeMs;
+    }
+
+    public long getLateTicks() { return lateTicks; }
+    public long getSkippedTicks() { return skippedTicks; }
+    public long getRenderFrames() { return renderFrames; }
+    public long getRenderTicks() { return renderTicks; }
+    public long getGcCount() { return gcCount - gcCountAtReset; }
+    public long getGcTimeMs() { return gcTimeMs - gcTimeAtReset; }
+
+    // Wiersz nakładki, np. "tick 50%=120 99%=800 max=2300 us"
+    public TextBuffer appendLine(TextBuffer out, Phase phase) {
+        LatencyHistogram h = get(phase);
+        return out.append(phase.label)
+                .append(" 50%=").append(micros(h.percentile(0.50)))
+                .append(" 99%=").append(micros(h.percentile(0.99)))
+                .append(" max=").append(micros(h.getMax()))
+                .append(" us");
+    }
+
+    public TextBuffer appendCounters(TextBuffer out) {
+        return out.append("spóźnione=").append((int) lateTicks)
+                .append(" pominięte=").append((int) skippedTicks)
+                .append(" klatki=").append((int) renderFrames).append('/').append((int) renderTicks)
+                .append(" GC=").append((int) getGcCount())
+                .append(" (").append((int) getGcTimeMs()).append(" ms)");
+    }
+
+    // Podsumowanie do logcat albo pliku - do porównywania buildów, więc w stałym formacie
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-8s %8s %8s %8s %8s %8s%n", "phase", "count", "p50_us", "p99_us", "max_us", "mean_us"));
+        for (Phase phase : PHASES) {
+            LatencyHistogram h = get(phase);
+            sb.append(String.format(Locale.ROOT, "%-8s %8d %8.1f %8.1f %8.1f %8.1f%n", phase.label, h.getCount(),
+                    h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.getMax() / 1e3, h.getMean() / 1e3));
+        }
+        sb.append(String.format(Locale.ROOT, "lateTicks=%d skippedTicks=%d gcCount=%d gcTimeMs=%d%n",
+                lateTicks, skippedTicks, getGcCount(), getGcTimeMs()));
+        sb.append(String.format(Locale.ROOT, "frames=%d ticks=%d framesPerTick=%.3f%n",
+                renderFrames, renderTicks, renderTicks == 0 ? 0.0 : (double) renderFrames / renderTicks));
+        return sb.toString();
+    }
+
+    private static int micros(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, nanos / 1000);
+    }
+}
@@ -0,0 +1,189 @@
+package pl.polsl.snake.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import pl.polsl.snake.core.CellChanges;
+import pl.polsl.snake.core.Simulation;
+
+// Plansza trzymana w bitmapie poza ekranem. Co tick malujemy tylko pola, które się
+// zmieniły (głowa, ogon, jabłko), a na ekran kopiujemy wyłącznie ich prostokąt.
+// Całe ciało (pełne odrysowanie) idzie jedną partią linii z SegmentBatch.
+// Plansza z innego ekranu (odtworzona po obrocie) leży na środku, z pasami tła wokół.
+public final class BoardRenderer implements WorldRenderer {
+
+    public static final int BACKGROUND = Color.argb(255, 26, 128, 182);
+
+    private final int blockSize, originX, originY;
+    private final Paint paint = new Paint();
+    private final Paint segmentPaint;
+    private final SegmentBatch batch = new SegmentBatch();
+    private final Rect cellRect = new Rect();
+    private final RectF bobRect = new RectF();
+    private final RectF prevBobRect = new RectF();
+    private Bitmap board;
+    private Canvas boardCanvas;
+
+    private volatile boolean fullRedraw = true;
+    private boolean prevVisible;
+    private int prevBobX = -1, prevBobY = -1;
+    private int cellsPainted, drawCalls, primitives;
+    private long totalCellsPainted, totalDrawCalls, totalPrimitives;
+
+    public BoardRenderer(int width, int height, int blockSize) {
+        this(width, height, blockSize, 0, 0);
+    }
+
+    public BoardRenderer(int width, int height, int blockSize, int originX, int originY) {
+        this.blockSize = blockSize;
+        this.originX = originX;
+        this.originY = originY;
+        segmentPaint = newSegmentPaint(blockSize);
+        resize(width, height);
+    }
+
+    // Linie z SegmentBatch: grubość pola i płaskie końce, więc linia pokrywa dokładnie swoje pola
+    public static Paint newSegmentPaint(int blockSize) {
+        Paint p = new Paint();
+        p.setStyle(Paint.Style.STROKE);
+        p.setStrokeWidth(blockSize);
+        p.setStrokeCap(Paint.Cap.BUTT);
+        return p;
+    }
+
+    public void resize(int width, int height) {
+        if (board != null && board.getWidth() == width && board.getHeight() == height) return;
+        if (board != null) board.recycle();
+        board = Bitmap.createBitmap(Math.max(1, width), Math.max(1, height), Bitmap.Config.ARGB_8888);
+        boardCanvas = new Canvas(board);
+        fullRedraw = true;
+    }
+
+    // Zmiana stanu (menu/gra, nowa gra, rozmiar powierzchni) - następna klatka rysuje całość
+    @Override
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    // Aktualizuje bitmapę; w dirty zwraca obszar ekranu do odświeżenia (pusty, gdy nic się nie zmieniło)
+    @Override
+    public void update(Simulation sim, float bobScale, boolean visible, Rect dirty) {
+        CellChanges changes = sim.getChanges();
+        cellsPainted = 0;
+        drawCalls = 0;
+        primitives = 0;
+        dirty.setEmpty();
+        apple(sim.getBobX(), sim.getBobY(), bobScale, bobRect);
+
+        if (fullRedraw || changes.isOverflow() || visible != prevVisible) {
+            boardCanvas.drawColor(BACKGROUND);
+            drawCalls++;
+            if (visible) {
+                batch.clear().addBody(sim.getBody(), sim.getWidth(), originX, originY, blockSize);
+                segmentPaint.setColor(Color.RED);
+                boardCanvas.drawLines(batch.getLines(), 0, batch.size(), segmentPaint);
+                drawCalls++;
+                primitives += batch.getPrimitives();
+                cellsPainted += batch.getCells();
+                drawBob(sim);
+            }
+            dirty.set(0, 0, board.getWidth(), board.getHeight());
+            fullRedraw = false;
+        } else if (visible) {
+            int w = sim.getWidth();
+            for (int i = 0; i < changes.size(); i++) {
+                int c = changes.get(i);
+                repaintCell(sim, c % w, c / w, dirty);
+            }
+            if (sim.getBobX() != prevBobX || sim.getBobY() != prevBobY) {
+                // Stare jabłko może zachodzić na sąsiednie pola przy bobScale > 1
+                repaintArea(sim, prevBobRect, dirty);
+                drawBob(sim);
+                union(dirty, bobRect);
+            }
+        }
+        changes.clear();
+        prevVisible = visible;
+        prevBobX = sim.getBobX();
+        prevBobY = sim.getBobY();
+        prevBobRect.set(bobRect);
+        totalCellsPainted += cellsPainted;
+        totalDrawCalls += drawCalls;
+        totalPrimitives += primitives;
+    }
+
+    // Kopiuje fragment bitmapy na ekran; canvas z lockCanvas(dirty) ma już ustawiony clip
+    @Override
+    public void composite(Canvas canvas, Rect dirty) {
+        canvas.drawBitmap(board, dirty, dirty, null);
+        drawCalls++;
+        totalDrawCalls++;
+    }
+
+    private void repaintArea(Simulation sim, RectF area, Rect dirty) {
+        if (area.isEmpty()) return;
+        int x0 = Math.max(0, (int) Math.floor((area.left - originX) / blockSize));
+        int y0 = Math.max(0, (int) Math.floor((area.top - originY) / blockSize));
+        int x1 = Math.min(sim.getWidth() - 1, (int) Math.ceil((area.right - originX) / blockSize) - 1);
+        int y1 = Math.min(sim.getHeight() - 1, (int) Math.ceil((area.bottom - originY) / blockSize) - 1);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) repaintCell(sim, x, y, dirty);
+        }
+    }
+
+    private void repaintCell(Simulation sim, int x, int y, Rect dirty) {
+        cellRect(x, y);
+        paint.setColor(sim.isOccupied(x, y) ? Color.RED : BACKGROUND);
+        boardCanvas.drawRect(cellRect, paint);
+        cellsPainted++;
+        drawCalls++;
+        primitives++;
+        dirty.union(cellRect);
+        // Jabłko leży nad wężem, więc odnawiamy je, gdy pole pod nim zostało zamalowane
+        if (bobRect.intersects(cellRect.left, cellRect.top, cellRect.right, cellRect.bottom)) drawBob(sim);
+    }
+
+    private void drawBob(Simulation sim) {
+        if (sim.getBobX() < 0) return;
+        paint.setColor(Color.GREEN);
+        boardCanvas.drawRect(bobRect, paint);
+        drawCalls++;
+        primitives++;
+    }
+
+    private void apple(int bobX, int bobY, float bobScale, RectF out) {
+        if (bobX < 0) {
+            out.setEmpty();
+            return;
+        }
+        float centerX = originX + bobX * blockSize + (blockSize / 2.0f);
+        float centerY = originY + bobY * blockSize + (blockSize / 2.0f);
+        float scaledSize = (blockSize / 2.0f) * bobScale;
+        out.set(centerX - scaledSize, centerY - scaledSize, centerX + scaledSize, centerY + scaledSize);
+    }
+
+    private void cellRect(int x, int y) {
+        int left = originX + x * blockSize, top = originY + y * blockSize;
+        cellRect.set(left, top, left + blockSize, top + blockSize);
+    }
+
+    private static void union(Rect dirty, RectF r) {
+        if (!r.isEmpty()) dirty.union((int) Math.floor(r.left), (int) Math.floor(r.top), (int) Math.ceil(r.right), (int) Math.ceil(r.bottom));
+    }
+
+    @Override
+    public int getCellsPainted() { return cellsPainted; }
+    @Override
+    public long getTotalCellsPainted() { return totalCellsPainted; }
+    @Override
+    public int getDrawCalls() { return drawCalls; }
+    @Override
+    public int getPrimitives() { return primitives; }
+    @Override
+    public long getTotalDrawCalls() { return totalDrawCalls; }
+    @Override
+    public long getTotalPrimitives() { return totalPrimitives; }
+}
@@ -0,0 +1,49 @@
+package pl.polsl.snake.render;
+
+// Widok na świat większy niż ekran: lewy górny róg w polach. Kamera rusza się dopiero,
+// gdy głowa wyjedzie ze środkowej ramki, i nigdy nie pokazuje nic za krawędzią świata,
+// chyba że świat jest mniejszy od ekranu - wtedy stoi pośrodku.
+public final class Camera {
+
+    private int viewWidth = 1, viewHeight = 1;
+    private int x, y;
+
+    public void setView(int cellsWide, int cellsHigh) {
+        viewWidth = Math.max(1, cellsWide);
+        viewHeight = Math.max(1, cellsHigh);
+    }
+
+    // Nowa gra albo pierwsza klatka: głowa na środku
+    public void center(int headX, int headY, int worldWidth, int worldHeight) {
+        x = clamp(headX - viewWidth / 2, viewWidth, worldWidth);
+        y = clamp(headY - viewHeight / 2, viewHeight, worldHeight);
+    }
+
+    // true, gdy widok się przesunął i trzeba przerysować cały ekran
+    public boolean follow(int headX, int headY, int worldWidth, int worldHeight) {
+        int nx = clamp(track(x, headX, viewWidth), viewWidth, worldWidth);
+        int ny = clamp(track(y, headY, viewHeight), viewHeight, worldHeight);
+        boolean moved = nx != x || ny != y;
+        x = nx;
+        y = ny;
+        return moved;
+    }
+
+    // Ramka: środkowa trzecia część widoku
+    private static int track(int pos, int head, int view) {
+        int margin = view / 3;
+        if (head < pos + margin) return head - margin;
+        if (head > pos + view - 1 - margin) return head - (view - 1 - margin);
+        return pos;
+    }
+
+    private static int clamp(int pos, int view, int world) {
+        if (world <= view) return (world - view) / 2;
+        return Math.max(0, Math.min(world - view, pos));
+    }
+
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+}
@@ -0,0 +1,268 @@
+package pl.polsl.snake.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import pl.polsl.snake.core.CellChanges;
+import pl.polsl.snake.core.Simulation;
+
+// Świat większy niż ekran, widziany przez kamerę idącą za głową. Świat dzielimy na kawałki
+// CHUNK x CHUNK pól, a bitmapy trzymamy tylko dla kawałków w widoku - pula ma stały rozmiar
+// liczony z ekranu, więc pamięć i koszt klatki nie zależą od wielkości świata ani długości węża.
+// Kawałek rysujemy w całości, gdy wjeżdża w widok; potem malujemy w nim tylko zmienione pola.
+// Jabłko nie trafia do bitmap - rysujemy je na wierzchu przy składaniu klatki.
+// Nowy kawałek maluje wiersze zajętych pól sklejone w odcinki, jedną partią linii.
+public final class ChunkRenderer implements WorldRenderer {
+
+    public static final int CHUNK = 16;
+    // Za krawędzią świata
+    public static final int OUTSIDE = Color.argb(255, 12, 50, 72);
+
+    private static final int NO_CHUNK = -1;
+
+    private final int screenWidth, screenHeight, blockSize, chunkPixels;
+    private final Camera camera = new Camera();
+    private final Paint paint = new Paint();
+    private final Paint segmentPaint;
+    private final SegmentBatch batch = new SegmentBatch();
+    private final Rect cellRect = new Rect();
+    private final RectF bobRect = new RectF();
+    private final RectF prevBobRect = new RectF();
+
+    // Pula bitmap: slotChunk[i] to numer kawałka (cy * chunksWide + cx) w bitmapie i
+    private final Bitmap[] bitmaps;
+    private final Canvas[] canvases;
+    private final int[] slotChunk;
+    private final long[] slotUsed;
+    private long frame;
+
+    // Widoczne kawałki w tej klatce i ich sloty, wiersz po wierszu
+    private int firstChunkX, firstChunkY, visibleChunksX, visibleChunksY;
+    private final int[] visibleSlots;
+
+    private int worldWidth = -1, worldHeight = -1, chunksWide;
+    private volatile boolean fullRedraw = true;
+    private boolean visible, prevVisible;
+    private int cellsPainted, chunksRendered, drawCalls, primitives;
+    private long totalCellsPainted, totalChunksRendered, totalDrawCalls, totalPrimitives;
+
+    public ChunkRenderer(int screenWidth, int screenHeight, int blockSize) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.blockSize = blockSize;
+        chunkPixels = CHUNK * blockSize;
+        segmentPaint = BoardRenderer.newSegmentPaint(blockSize);
+        segmentPaint.setColor(Color.RED);
+        camera.setView((screenWidth + blockSize - 1) / blockSize, (screenHeight + blockSize - 1) / blockSize);
+        // Widok niewyrównany do kawałków zahacza o jeden kawałek więcej w każdej osi
+        int maxX = (camera.getViewWidth() + CHUNK - 1) / CHUNK + 1;
+        int maxY = (camera.getViewHeight() + CHUNK - 1) / CHUNK + 1;
+        int slots = maxX * maxY;
+        bitmaps = new Bitmap[slots];
+        canvases = new Canvas[slots];
+        slotChunk = new int[slots];
+        slotUsed = new long[slots];
+        visibleSlots = new int[slots];
+        for (int i = 0; i < slots; i++) {
+            // Plansza nie ma przezroczystości - 16 bitów na piksel, pula zajmuje tyle co jeden ekran ARGB
+            bitmaps[i] = Bitmap.createBitmap(chunkPixels, chunkPixels, Bitmap.Config.RGB_565);
+            canvases[i] = new Canvas(bitmaps[i]);
+            slotChunk[i] = NO_CHUNK;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    @Override
+    public void update(Simulation sim, float bobScale, boolean visible, Rect dirty) {
+        CellChanges changes = sim.getChanges();
+        cellsPainted = 0;
+        chunksRendered = 0;
+        drawCalls = 0;
+        primitives = 0;
+        dirty.setEmpty();
+        frame++;
+        this.visible = visible;
+
+        boolean everything = fullRedraw || changes.isOverflow() || visible != prevVisible
+                || sim.getWidth() != worldWidth || sim.getHeight() != worldHeight;
+        if (everything) {
+            worldWidth = sim.getWidth();
+            worldHeight = sim.getHeight();
+            chunksWide = (worldWidth + CHUNK - 1) / CHUNK;
+            for (int i = 0; i < slotChunk.length; i++) slotChunk[i] = NO_CHUNK;
+            camera.center(sim.getHeadX(), sim.getHeadY(), worldWidth, worldHeight);
+            fullRedraw = false;
+        }
+        boolean moved = camera.follow(sim.getHeadX(), sim.getHeadY(), worldWidth, worldHeight);
+
+        // Zmienione pola w kawałkach, które mają bitmapę; pozostałe narysują się przy wjeździe w widok
+        if (visible && !everything) {
+            for (int i = 0; i < changes.size(); i++) {
+                int c = changes.get(i);
+                int x = c % worldWidth, y = c / worldWidth;
+                int slot = find((y / CHUNK) * chunksWide + x / CHUNK);
+                if (slot < 0) continue;
+                paintCell(sim, slot, x, y);
+                if (!moved) {
+                    screenCell(x, y);
+                    dirty.union(cellRect);
+                }
+            }
+        }
+        changes.clear();
+
+        layoutVisible();
+        apple(sim, bobScale);
+        if (everything || moved) {
+            dirty.set(0, 0, screenWidth, screenHeight);
+        } else if (!bobRect.equals(prevBobRect)) {
+            union(dirty, prevBobRect);
+            union(dirty, bobRect);
+        }
+        for (int i = 0, n = visibleChunksX * visibleChunksY; i < n; i++) {
+            int cx = firstChunkX + i % visibleChunksX, cy = firstChunkY + i / visibleChunksX;
+            visibleSlots[i] = acquire(sim, cx, cy);
+        }
+        prevVisible = visible;
+        prevBobRect.set(bobRect);
+        totalCellsPainted += cellsPainted;
+        totalChunksRendered += chunksRendered;
+        totalDrawCalls += drawCalls;
+        totalPrimitives += primitives;
+    }
+
+    @Override
+    public void composite(Canvas canvas, Rect dirty) {
+        canvas.drawColor(OUTSIDE);
+        int calls = 1;
+        for (int i = 0, n = visibleChunksX * visibleChunksY; i < n; i++) {
+            int cx = firstChunkX + i % visibleChunksX, cy = firstChunkY + i / visibleChunksX;
+            int left = (cx * CHUNK - camera.getX()) * blockSize, top = (cy * CHUNK - camera.getY()) * blockSize;
+            if (left >= dirty.right || top >= dirty.bottom || left + chunkPixels <= dirty.left || top + chunkPixels <= dirty.top) continue;
+            canvas.drawBitmap(bitmaps[visibleSlots[i]], left, top, null);
+            calls++;
+        }
+        if (visible && !bobRect.isEmpty()) {
+            paint.setColor(Color.GREEN);
+            canvas.drawRect(bobRect, paint);
+            calls++;
+        }
+        drawCalls += calls;
+        totalDrawCalls += calls;
+    }
+
+    // Zakres kawałków pod kamerą, przycięty do świata
+    private void layoutVisible() {
+        int x0 = Math.max(0, camera.getX()), y0 = Math.max(0, camera.getY());
+        int x1 = Math.min(worldWidth, camera.getX() + camera.getViewWidth()) - 1;
+        int y1 = Math.min(worldHeight, camera.getY() + camera.getViewHeight()) - 1;
+        firstChunkX = x0 / CHUNK;
+        firstChunkY = y0 / CHUNK;
+        visibleChunksX = x1 / CHUNK - firstChunkX + 1;
+        visibleChunksY = y1 / CHUNK - firstChunkY + 1;
+    }
+
+    // Slot z bitmapą kawałka; nowy kawałek dostaje slot nieużyty w tej klatce i jest rysowany od zera
+    private int acquire(Simulation sim, int cx, int cy) {
+        int chunk = cy * chunksWide + cx;
+        int slot = find(chunk);
+        if (slot < 0) {
+            slot = 0;
+            for (int i = 1; i < slotUsed.length; i++) {
+                if (slotUsed[i] < slotUsed[slot]) slot = i;
+            }
+            slotChunk[slot] = chunk;
+            renderChunk(sim, slot, cx, cy);
+        }
+        slotUsed[slot] = frame;
+        return slot;
+    }
+
+    private int find(int chunk) {
+        for (int i = 0; i < slotChunk.length; i++) {
+            if (slotChunk[i] == chunk) return i;
+        }
+        return -1;
+    }
+
+    private void renderChunk(Simulation sim, int slot, int cx, int cy) {
+        Canvas c = canvases[slot];
+        c.drawColor(OUTSIDE);
+        int x0 = cx * CHUNK, y0 = cy * CHUNK;
+        int w = Math.min(CHUNK, worldWidth - x0), h = Math.min(CHUNK, worldHeight - y0);
+        paint.setColor(BoardRenderer.BACKGROUND);
+        c.drawRect(0, 0, w * blockSize, h * blockSize, paint);
+        chunksRendered++;
+        drawCalls += 2;
+        if (!visible) return;
+        batch.clear();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                if (!sim.isOccupied(x0 + x, y0 + y)) continue;
+                int start = x;
+                while (x + 1 < w && sim.isOccupied(x0 + x + 1, y0 + y)) x++;
+                batch.addRow(y, start, x, blockSize);
+            }
+        }
+        if (batch.isEmpty()) return;
+        c.drawLines(batch.getLines(), 0, batch.size(), segmentPaint);
+        drawCalls++;
+        primitives += batch.getPrimitives();
+        cellsPainted += batch.getCells();
+    }
+
+    private void paintCell(Simulation sim, int slot, int x, int y) {
+        int lx = x % CHUNK, ly = y % CHUNK;
+        cellRect.set(lx * blockSize, ly * blockSize, (lx + 1) * blockSize, (ly + 1) * blockSize);
+        paint.setColor(sim.isOccupied(x, y) ? Color.RED : BoardRenderer.BACKGROUND);
+        canvases[slot].drawRect(cellRect, paint);
+        cellsPainted++;
+        drawCalls++;
+        primitives++;
+    }
+
+    private void screenCell(int x, int y) {
+        int left = (x - camera.getX()) * blockSize, top = (y - camera.getY()) * blockSize;
+        cellRect.set(left, top, left + blockSize, top + blockSize);
+    }
+
+    private void apple(Simulation sim, float bobScale) {
+        int bx = sim.getBobX(), by = sim.getBobY();
+        if (bx < 0) {
+            bobRect.setEmpty();
+            return;
+        }
+        float centerX = (bx - camera.getX()) * blockSize + (blockSize / 2.0f);
+        float centerY = (by - camera.getY()) * blockSize + (blockSize / 2.0f);
+        float scaledSize = (blockSize / 2.0f) * bobScale;
+        bobRect.set(centerX - scaledSize, centerY - scaledSize, centerX + scaledSize, centerY + scaledSize);
+    }
+
+    private static void union(Rect dirty, RectF r) {
+        if (!r.isEmpty()) dirty.union((int) Math.floor(r.left), (int) Math.floor(r.top), (int) Math.ceil(r.right), (int) Math.ceil(r.bottom));
+    }
+
+    public Camera getCamera() { return camera; }
+    public int getChunksRendered() { return chunksRendered; }
+    public long getTotalChunksRendered() { return totalChunksRendered; }
+
+    @Override
+    public int getCellsPainted() { return cellsPainted; }
+    @Override
+    public long getTotalCellsPainted() { return totalCellsPainted; }
+    @Override
+    public int getDrawCalls() { return drawCalls; }
+    @Override
+    public int getPrimitives() { return primitives; }
+    @Override
+    public long getTotalDrawCalls() { return totalDrawCalls; }
+    @Override
+    public long getTotalPrimitives() { return totalPrimitives; }
+}
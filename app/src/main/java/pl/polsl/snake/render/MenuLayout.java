@@ -0,0 +1,73 @@
+package pl.polsl.snake.render;
+
+// Układ menu liczony raz dla danego rozmiaru powierzchni. Z tych samych liczb
+// korzysta rysowanie (drawMenu) i obsługa dotyku (onTouchEvent).
+public final class MenuLayout {
+
+    public static final int NONE = -1;
+    public static final int MODE_TOUCH = 0, MODE_ACCELEROMETER = 1, MODE_VOICE = 2;
+    public static final int TOGGLE_VISUAL = 3, TOGGLE_SOUND = 4, TOGGLE_VIBRATION = 5;
+    public static final int SPEED_DOWN = 6, SPEED_UP = 7, SCALE_DOWN = 8, SCALE_UP = 9;
+    public static final int START = 10;
+    public static final int MODE_AUTOPILOT = 11;
+    public static final int TOGGLE_LARGE_WORLD = 12;
+
+    public static final int PADDING = 20;
+
+    private int width = -1, height = -1;
+
+    // Pozycje wyliczone w update()
+    public int tileHeight, halfTileWidth, fullTileWidth, rightColumnX;
+    public int controlRowY, voiceRowY;
+    public int feedbackRowY, vibrationRowY;
+    public int speedRowY, scaleRowY;
+    public int controlHeaderY, feedbackHeaderY, parametersHeaderY, statsY;
+    public int startTop, startBottom, startTextX, startTextY;
+
+    public void update(int width, int height) {
+        if (width == this.width && height == this.height) return;
+        this.width = width;
+        this.height = height;
+        int p = PADDING;
+        tileHeight = height / 15;
+        halfTileWidth = (width / 2) - (p * 2);
+        fullTileWidth = width - (p * 2);
+        rightColumnX = width / 2 + p;
+
+        controlHeaderY = 70;
+        controlRowY = 90;
+        voiceRowY = controlRowY + tileHeight + p;
+
+        feedbackRowY = 90 + (tileHeight + p) * 2 + 60;
+        feedbackHeaderY = feedbackRowY - 20;
+        vibrationRowY = feedbackRowY + tileHeight + p;
+
+        speedRowY = feedbackRowY + (tileHeight + p) * 2 + 60;
+        parametersHeaderY = speedRowY - 20;
+        scaleRowY = speedRowY + tileHeight + p;
+        statsY = scaleRowY + tileHeight + 60;
+
+        startTop = height - 180;
+        startBottom = height - 30;
+        startTextX = width / 2 - 170;
+        startTextY = height - 90;
+    }
+
+    // Element menu pod punktem dotyku; pasy wierszy i połówki ekranu jak dotychczas.
+    // Wiersze głosu i wibracji łapią też odstęp pod kafelkiem (jak w pierwotnym menu).
+    public int hit(float x, float y) {
+        boolean left = x < width / 2;
+        int h = tileHeight, p = PADDING;
+        if (y > controlRowY && y < controlRowY + h) return left ? MODE_TOUCH : MODE_ACCELEROMETER;
+        if (y > voiceRowY && y < voiceRowY + h + p) return left ? MODE_VOICE : MODE_AUTOPILOT;
+        if (y > feedbackRowY && y < feedbackRowY + h) return left ? TOGGLE_VISUAL : TOGGLE_SOUND;
+        if (y > vibrationRowY && y < vibrationRowY + h + p) return left ? TOGGLE_VIBRATION : TOGGLE_LARGE_WORLD;
+        if (y > speedRowY && y < speedRowY + h) return left ? SPEED_DOWN : SPEED_UP;
+        if (y > scaleRowY && y < scaleRowY + h) return left ? SCALE_DOWN : SCALE_UP;
+        if (y > startTop) return START;
+        return NONE;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
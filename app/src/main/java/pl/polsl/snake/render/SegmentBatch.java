@@ -0,0 +1,86 @@
+package pl.polsl.snake.render;
+
+import java.util.Arrays;
+import pl.polsl.snake.core.SnakeBody;
+
+// Geometria wielu pól naraz, do jednego Canvas.drawLines zamiast drawRect na każde pole.
+// Prosty odcinek pól (poziomy albo pionowy) to jedna linia przez środek odcinka, o grubości
+// pola i z płaskim zakończeniem - maluje dokładnie ten sam prostokąt co drawRect na całym
+// odcinku. Kolejne odcinki nie zachodzą na siebie, bo każde pole należy do jednego.
+// Bufor rośnie tylko do najdłuższej dotąd partii, potem klatki niczego nie alokują.
+public final class SegmentBatch {
+
+    // Cztery liczby na linię: x0, y0, x1, y1
+    private float[] lines = new float[64];
+    private int size;
+    private int cells;
+
+    public SegmentBatch clear() {
+        size = 0;
+        cells = 0;
+        return this;
+    }
+
+    // Ciało węża od głowy do ogona, sklejone w proste odcinki. originX/originY to przesunięcie
+    // w pikselach dodawane po przeliczeniu pól - jak w BoardRenderer (originX + x * blockSize).
+    public SegmentBatch addBody(SnakeBody body, int width, int originX, int originY, int blockSize) {
+        int n = body.size();
+        int i = 0;
+        while (i < n) {
+            int start = body.get(i);
+            int end = start, step = 0;
+            int j = i + 1;
+            for (; j < n; j++) {
+                int next = body.get(j), d = next - end;
+                if (step == 0 && isNeighbour(end, next, width)) step = d;
+                if (d != step) break;
+                end = next;
+            }
+            addRun(Math.min(start, end), Math.max(start, end), width, originX, originY, blockSize);
+            i = j;
+        }
+        return this;
+    }
+
+    // Odcinek pól od from do to (to >= from) w jednym wierszu albo jednej kolumnie
+    private void addRun(int from, int to, int width, int originX, int originY, int blockSize) {
+        addRect(from % width, from / width, to % width, to / width, originX, originY, blockSize);
+    }
+
+    // Poziomy odcinek pól x0..x1 w wierszu y (współrzędne w polach, włącznie)
+    public SegmentBatch addRow(int y, int x0, int x1, int blockSize) {
+        addRect(x0, y, x1, y, 0, 0, blockSize);
+        return this;
+    }
+
+    private void addRect(int x0, int y0, int x1, int y1, int originX, int originY, int blockSize) {
+        if (size + 4 > lines.length) lines = Arrays.copyOf(lines, lines.length * 2);
+        float half = blockSize / 2.0f;
+        if (y0 == y1) {
+            lines[size] = originX + x0 * blockSize;
+            lines[size + 1] = originY + y0 * blockSize + half;
+            lines[size + 2] = originX + (x1 + 1) * blockSize;
+            lines[size + 3] = originY + y0 * blockSize + half;
+        } else {
+            lines[size] = originX + x0 * blockSize + half;
+            lines[size + 1] = originY + y0 * blockSize;
+            lines[size + 2] = originX + x0 * blockSize + half;
+            lines[size + 3] = originY + (y1 + 1) * blockSize;
+        }
+        size += 4;
+        cells += (x1 - x0) + (y1 - y0) + 1;
+    }
+
+    private static boolean isNeighbour(int a, int b, int width) {
+        int d = b - a;
+        return d == width || d == -width || (d == 1 || d == -1) && a / width == b / width;
+    }
+
+    // Dla Canvas.drawLines(getLines(), 0, size(), paint)
+    public float[] getLines() { return lines; }
+    public int size() { return size; }
+    // Prostokąty w partii - tyle drawRect zastępuje jedno wywołanie
+    public int getPrimitives() { return size / 4; }
+    public int getCells() { return cells; }
+    public boolean isEmpty() { return size == 0; }
+}
@@ -0,0 +1,76 @@
+package pl.polsl.snake.render;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+// Wielokrotnego użytku bufor znaków dla napisów HUD i menu. Liczby formatujemy
+// ręcznie, więc złożenie "Wynik: 12" w każdej klatce niczego nie alokuje.
+public final class TextBuffer {
+
+    private final char[] chars;
+    // Separator dziesiętny jak w String.format - raz, przy tworzeniu ("1,0" na polskim urządzeniu)
+    private final char decimalSeparator;
+    private int length;
+
+    public TextBuffer(int capacity) {
+        this(capacity, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    public TextBuffer(int capacity, Locale locale) {
+        chars = new char[capacity];
+        decimalSeparator = DecimalFormatSymbols.getInstance(locale).getDecimalSeparator();
+    }
+
+    public TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextBuffer append(char c) {
+        if (length < chars.length) chars[length++] = c;
+        return this;
+    }
+
+    public TextBuffer append(String s) {
+        int n = Math.min(s.length(), chars.length - length);
+        s.getChars(0, n, chars, length);
+        length += n;
+        return this;
+    }
+
+    public TextBuffer append(int value) {
+        if (value < 0) {
+            append('-');
+            // MIN_VALUE nie ma dodatniego odpowiednika - ostatnią cyfrę dopisujemy osobno
+            if (value == Integer.MIN_VALUE) return append(214748364).append('8');
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        if (length + digits > chars.length) return this;
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    // Odpowiednik String.format("%.1f", value) w języku bufora
+    public TextBuffer appendFixed1(float value) {
+        int tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            append('-');
+            tenths = -tenths;
+        }
+        return append(tenths / 10).append(decimalSeparator).append((char) ('0' + tenths % 10));
+    }
+
+    public char[] chars() { return chars; }
+    public int length() { return length; }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
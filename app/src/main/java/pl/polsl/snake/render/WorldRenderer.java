@@ -0,0 +1,31 @@
+package pl.polsl.snake.render;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import pl.polsl.snake.core.Simulation;
+
+// Rysowanie planszy w trakcie gry: update() odświeża bufory poza ekranem i zwraca obszar
+// ekranu do odświeżenia, composite() kopiuje go na płótno z lockCanvas(dirty).
+public interface WorldRenderer {
+
+    void update(Simulation sim, float bobScale, boolean visible, Rect dirty);
+
+    void composite(Canvas canvas, Rect dirty);
+
+    // Następna klatka rysuje całość (zmiana stanu, nowa powierzchnia)
+    void invalidate();
+
+    int getCellsPainted();
+
+    long getTotalCellsPainted();
+
+    // Wywołania rysujące na Canvas i prostokąty, które narysowały (partia linii to jedno
+    // wywołanie, ale wiele prostokątów) - w ostatniej klatce i od początku
+    int getDrawCalls();
+
+    int getPrimitives();
+
+    long getTotalDrawCalls();
+
+    long getTotalPrimitives();
+}
@@ -0,0 +1,53 @@
+package pl.polsl.snake.replay;
+
+import java.nio.ByteBuffer;
+
+// Plik powtórki:
+//   nagłówek: MAGIC, VERSION, szerokość, wysokość, co ile ticków migawka
+//   rekordy:  varint((ticki od poprzedniego rekordu << 3) | rodzaj)
+//             rodzaj 1..6 - Input.ordinal() (NONE nie zapisujemy), rodzaj 7 - migawka:
+//             varint(długość) + Simulation.writeState()
+//   stopka:   [tick, pozycja rekordu] dla każdej migawki, ostatni tick, liczba migawek, FOOTER_MAGIC
+// Pierwszy rekord to zawsze migawka, więc nagranie można zacząć w dowolnym momencie gry.
+// Plik bez stopki (przerwany zapis) da się odczytać, przeglądając rekordy po kolei.
+final class ReplayFormat {
+
+    static final int MAGIC = 0x534E4B52; // "SNKR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * 5;
+    static final int FOOTER_MAGIC = 0x454E4452; // "ENDR"
+    static final int FOOTER_TAIL_BYTES = 8 + 4 + 4;
+    static final int INDEX_ENTRY_BYTES = 16;
+
+    static final int KIND_BITS = 3;
+    static final int KIND_SNAPSHOT = 7;
+
+    private ReplayFormat() {}
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Za długi varint");
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
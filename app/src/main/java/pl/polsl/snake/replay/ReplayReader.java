@@ -0,0 +1,179 @@
+package pl.polsl.snake.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Odtwarzanie nagrania zmapowanego do pamięci. seek() odtwarza najbliższą wcześniejszą
+// migawkę i dogrywa tylko brakujące ticki, step() przesuwa grę o jeden tick.
+// Plik bez stopki (np. po zabiciu procesu) jest indeksowany przez przejrzenie rekordów.
+public final class ReplayReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final int width, height, snapshotInterval;
+    private final int dataEnd;
+    private final long[] indexTicks, indexOffsets;
+    private final long endTick;
+
+    // Kursor odtwarzania: następny nieprzetworzony rekord
+    private long lastRecordTick;
+    private long recordTick;
+    private int recordKind = -1;
+
+    public static ReplayReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ReplayReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ReplayReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        data = mapped;
+        if (data.limit() < ReplayFormat.HEADER_BYTES || data.getInt(0) != ReplayFormat.MAGIC) {
+            throw new IOException("To nie jest plik powtórki");
+        }
+        int version = data.getInt(4);
+        if (version != ReplayFormat.VERSION) throw new IOException("Nieobsługiwana wersja powtórki: " + version);
+        width = data.getInt(8);
+        height = data.getInt(12);
+        snapshotInterval = data.getInt(16);
+
+        int size = data.limit();
+        int tail = size - ReplayFormat.FOOTER_TAIL_BYTES;
+        int count = tail >= ReplayFormat.HEADER_BYTES ? data.getInt(tail + 8) : -1;
+        long footerStart = tail - (long) count * ReplayFormat.INDEX_ENTRY_BYTES;
+        if (count > 0 && data.getInt(size - 4) == ReplayFormat.FOOTER_MAGIC && footerStart >= ReplayFormat.HEADER_BYTES) {
+            dataEnd = (int) footerStart;
+            indexTicks = new long[count];
+            indexOffsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                indexTicks[i] = data.getLong(dataEnd + i * ReplayFormat.INDEX_ENTRY_BYTES);
+                indexOffsets[i] = data.getLong(dataEnd + i * ReplayFormat.INDEX_ENTRY_BYTES + 8);
+            }
+            endTick = data.getLong(tail);
+        } else {
+            dataEnd = size;
+            long[][] index = new long[2][];
+            endTick = scan(index);
+            indexTicks = index[0];
+            indexOffsets = index[1];
+        }
+        if (indexTicks.length == 0) throw new IOException("Powtórka bez migawki startowej");
+    }
+
+    // Przegląd rekordów od początku, gdy stopki brak; urwany ostatni rekord jest pomijany
+    private long scan(long[][] index) {
+        long[] ticks = new long[16], offsets = new long[16];
+        int count = 0;
+        long tick = 0, lastComplete = 0;
+        ByteBuffer in = data.duplicate();
+        in.position(ReplayFormat.HEADER_BYTES);
+        try {
+            while (in.position() < dataEnd) {
+                int offset = in.position();
+                long header = ReplayFormat.getVarLong(in);
+                tick += header >>> ReplayFormat.KIND_BITS;
+                if ((header & ((1 << ReplayFormat.KIND_BITS) - 1)) == ReplayFormat.KIND_SNAPSHOT) {
+                    int length = (int) ReplayFormat.getVarLong(in);
+                    if (length > in.remaining()) break;
+                    in.position(in.position() + length);
+                    if (count == ticks.length) {
+                        ticks = Arrays.copyOf(ticks, count * 2);
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                    }
+                    ticks[count] = tick;
+                    offsets[count] = offset;
+                    count++;
+                }
+                lastComplete = tick;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException ignored) {
+        }
+        index[0] = Arrays.copyOf(ticks, count);
+        index[1] = Arrays.copyOf(offsets, count);
+        return lastComplete;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getSnapshotInterval() { return snapshotInterval; }
+    public int getSnapshotCount() { return indexTicks.length; }
+    public long getStartTick() { return indexTicks[0]; }
+    // Ostatni zapisany tick; w pliku bez stopki - tick ostatniego pełnego rekordu
+    public long getEndTick() { return endTick; }
+
+    public Simulation newSimulation() {
+        Simulation sim = new Simulation(width, height, 0);
+        seek(sim, getStartTick());
+        return sim;
+    }
+
+    // Stan gry dokładnie z podanego ticku (albo z końca nagrania, jeśli wcześniej)
+    public void seek(Simulation sim, long tick) {
+        int i = Arrays.binarySearch(indexTicks, Math.max(tick, indexTicks[0]));
+        if (i < 0) i = -i - 2;
+        data.position((int) indexOffsets[i]);
+        ReplayFormat.getVarLong(data);
+        int length = (int) ReplayFormat.getVarLong(data);
+        ByteBuffer state = data.slice();
+        state.limit(length);
+        sim.readState(state);
+        data.position(data.position() + length);
+        lastRecordTick = indexTicks[i];
+        readRecord();
+        while (sim.getTick() < tick && step(sim)) {
+            // dogrywamy ticki od migawki
+        }
+    }
+
+    // Jeden tick z nagranym wejściem; false na końcu nagrania albo po śmierci węża
+    public boolean step(Simulation sim) {
+        if (sim.isDead() || sim.getTick() >= endTick) return false;
+        Input input = Input.NONE;
+        while (recordKind >= 0 && recordTick == sim.getTick()) {
+            if (recordKind == ReplayFormat.KIND_SNAPSHOT) {
+                int length = (int) ReplayFormat.getVarLong(data);
+                data.position(data.position() + length);
+            } else {
+                input = Input.of(recordKind);
+            }
+            readRecord();
+        }
+        sim.step(input);
+        return true;
+    }
+
+    private void readRecord() {
+        if (data.position() >= dataEnd) {
+            recordKind = -1;
+            return;
+        }
+        try {
+            long header = ReplayFormat.getVarLong(data);
+            recordTick = lastRecordTick + (header >>> ReplayFormat.KIND_BITS);
+            recordKind = (int) (header & ((1 << ReplayFormat.KIND_BITS) - 1));
+            lastRecordTick = recordTick;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            recordKind = -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
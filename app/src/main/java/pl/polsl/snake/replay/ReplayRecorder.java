@@ -0,0 +1,240 @@
+package pl.polsl.snake.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Nagrywanie gry: wątek gry dopisuje rekordy do bufora w pamięci, a pełne bufory
+// oddaje osobnemu wątkowi, który zapisuje je przez FileChannel. Wątek gry nigdy nie
+// czeka na dysk - gdy zapis nie nadąża, nagranie bieżącej gry jest porzucane.
+public final class ReplayRecorder implements Runnable {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+
+    private static final int CHUNK_BYTES = 16 * 1024;
+    private static final int POOLED_CHUNKS = 8;
+    private static final int MAX_PENDING_CHUNKS = 64;
+    private static final int SNAPSHOT_RECORD_BYTES = 20;
+
+    // Kawałek pliku w drodze do wątku zapisu
+    private static final class Chunk {
+        final ByteBuffer data;
+        Path open;     // przed zapisem zamknąć poprzedni plik i otworzyć ten
+        boolean close; // po zapisie zamknąć plik
+
+        Chunk(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    private final int snapshotInterval;
+    // Jedno miejsce ponad limit zostaje na znacznik zamknięcia porzuconego pliku
+    private final ArrayBlockingQueue<Chunk> pending = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS + 1);
+    private final ArrayBlockingQueue<Chunk> free = new ArrayBlockingQueue<>(POOLED_CHUNKS);
+
+    // Stan wątku gry
+    private boolean recording;
+    private Chunk current;
+    // Rozmiar kawałków w puli: mieści największą migawkę planszy, więc ensure() nie alokuje
+    private int chunkBytes = CHUNK_BYTES;
+    private long flushedBytes;
+    private long lastRecordTick, lastSnapshotTick;
+    private long[] indexTicks = new long[16], indexOffsets = new long[16];
+    private int indexCount;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile long lostChunks, writeErrors;
+
+    public ReplayRecorder(int snapshotInterval) {
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        Thread t = new Thread(this, "snake-replay");
+        t.setPriority(Thread.MIN_PRIORITY);
+        worker = t;
+        t.start();
+    }
+
+    // Zapisuje wszystko, co już oddano. Bez przerywania wątku - przerwany FileChannel zamyka plik.
+    public void stop() {
+        running = false;
+        Thread t = worker;
+        worker = null;
+        if (t == null) return;
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        FileChannel channel = null;
+        while (running || !pending.isEmpty()) {
+            Chunk chunk;
+            try {
+                chunk = pending.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (chunk == null) continue;
+            try {
+                if (chunk.open != null) {
+                    closeQuietly(channel);
+                    Path parent = chunk.open.getParent();
+                    if (parent != null) Files.createDirectories(parent);
+                    channel = FileChannel.open(chunk.open, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                }
+                if (channel != null) {
+                    while (chunk.data.hasRemaining()) channel.write(chunk.data);
+                    if (chunk.close) {
+                        channel.close();
+                        channel = null;
+                    }
+                }
+            } catch (IOException e) {
+                writeErrors++;
+                closeQuietly(channel);
+                channel = null;
+            }
+            free.offer(chunk);
+        }
+        closeQuietly(channel);
+    }
+
+    public boolean isRecording() { return recording; }
+
+    // Wątek gry: nowy plik; pierwszy rekord to migawka bieżącego stanu
+    public void begin(Path file, Simulation sim) {
+        if (recording) end(sim);
+        recording = true;
+        flushedBytes = 0;
+        indexCount = 0;
+        // Wielki świat ma tylko wolne pola w zajętości - granicą jest bieżący wąż, dalej kawałki rosną
+        int state = sim.isSparse() ? sim.stateSize() : sim.maxStateSize();
+        chunkBytes = Math.max(CHUNK_BYTES, ReplayFormat.HEADER_BYTES + SNAPSHOT_RECORD_BYTES + state);
+        if (current != null) free.offer(current);
+        current = obtain();
+        current.open = file;
+        current.data.putInt(ReplayFormat.MAGIC).putInt(ReplayFormat.VERSION)
+                .putInt(sim.getWidth()).putInt(sim.getHeight()).putInt(snapshotInterval);
+        lastRecordTick = sim.getTick();
+        snapshot(sim);
+    }
+
+    // Wątek gry, przed sim.step(input)
+    public void record(Simulation sim, Input input) {
+        if (!recording) return;
+        long tick = sim.getTick();
+        if (tick - lastSnapshotTick >= snapshotInterval) snapshot(sim);
+        if (input != Input.NONE) {
+            ensure(10);
+            putRecord(tick, input.ordinal());
+        }
+    }
+
+    // Wątek gry: stopka z indeksem migawek i oddanie pliku do zamknięcia
+    public void end(Simulation sim) {
+        if (!recording) return;
+        for (int i = 0; i < indexCount; i++) {
+            ensure(ReplayFormat.INDEX_ENTRY_BYTES);
+            current.data.putLong(indexTicks[i]).putLong(indexOffsets[i]);
+        }
+        ensure(ReplayFormat.FOOTER_TAIL_BYTES);
+        current.data.putLong(sim.getTick()).putInt(indexCount).putInt(ReplayFormat.FOOTER_MAGIC);
+        current.close = true;
+        submit();
+        recording = false;
+    }
+
+    private void snapshot(Simulation sim) {
+        long tick = sim.getTick();
+        int size = sim.stateSize();
+        ensure(SNAPSHOT_RECORD_BYTES + size);
+        if (indexCount == indexTicks.length) {
+            indexTicks = Arrays.copyOf(indexTicks, indexCount * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+        }
+        indexTicks[indexCount] = tick;
+        indexOffsets[indexCount] = flushedBytes + current.data.position();
+        indexCount++;
+        putRecord(tick, ReplayFormat.KIND_SNAPSHOT);
+        ReplayFormat.putVarLong(current.data, size);
+        sim.writeState(current.data);
+        lastSnapshotTick = tick;
+    }
+
+    private void putRecord(long tick, int kind) {
+        ReplayFormat.putVarLong(current.data, (tick - lastRecordTick) << ReplayFormat.KIND_BITS | kind);
+        lastRecordTick = tick;
+    }
+
+    // Miejsce na kolejne bytes bajtów. Kawałki z puli mieszczą każdą migawkę planszy;
+    // tylko w wielkim świecie wąż dłuższy niż dotąd powiększa je (skokowo, stare wypadają z puli).
+    private void ensure(int bytes) {
+        if (current.data.remaining() >= bytes) return;
+        if (current.data.position() > 0) {
+            submit();
+            current = obtain();
+        }
+        if (current.data.capacity() < bytes) {
+            chunkBytes = Math.max(2 * chunkBytes, bytes);
+            Path open = current.open;
+            current = obtain();
+            current.open = open;
+        }
+    }
+
+    private void submit() {
+        Chunk chunk = current;
+        current = null;
+        flushedBytes += chunk.data.position();
+        chunk.data.flip();
+        if (pending.size() >= MAX_PENDING_CHUNKS || !pending.offer(chunk)) {
+            // Zapis nie nadąża: plik byłby dziurawy, więc dalej tej gry nie nagrywamy.
+            // Ten kawałek wraca pusty jako znacznik zamknięcia - inaczej plik zostałby otwarty
+            // do następnego nagrania. Tylko ten wątek dokłada, więc zapasowe miejsce jest wolne.
+            lostChunks++;
+            recording = false;
+            chunk.data.clear().flip();
+            chunk.open = null;
+            chunk.close = true;
+            pending.offer(chunk);
+            current = obtain();
+        }
+    }
+
+    private Chunk obtain() {
+        Chunk chunk = free.poll();
+        if (chunk == null || chunk.data.capacity() < chunkBytes) chunk = new Chunk(ByteBuffer.allocate(chunkBytes));
+        chunk.data.clear();
+        chunk.open = null;
+        chunk.close = false;
+        return chunk;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public long getLostChunks() { return lostChunks; }
+    public long getWriteErrors() { return writeErrors; }
+}
@@ -0,0 +1,75 @@
+package pl.polsl.snake.session;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import pl.polsl.snake.core.Simulation;
+
+// Stan sesji zapisywany przy onPause: ustawienia z menu + pełny stan symulacji.
+// Stały układ bajtów, bez refleksji i Serializable:
+//   MAGIC, VERSION, tryb sterowania, stan gry, flagi, szybkość, margines, skala jabłka,
+//   długość stanu symulacji, Simulation.writeState()
+// Pola ustawień są publiczne jak w MenuLayout - silnik kopiuje je przed zapisem i po odczycie.
+public final class GameSnapshot {
+
+    public static final int MAGIC = 0x534E4B53; // "SNKS"
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 2 + 3 + 4 * 3 + 4;
+
+    private static final int FLAG_VIBRATION = 1, FLAG_SOUND = 1 << 1, FLAG_VISIBLE = 1 << 2, FLAG_LARGE_WORLD = 1 << 3;
+
+    // Symulacja o wymiarach zapisanej gry - rozmiar świata jest znany dopiero po odczycie flag,
+    // a plansza mogła być liczona z innego ekranu (obrót, podzielony ekran)
+    public interface SimulationSource {
+        Simulation get(boolean largeWorld, int width, int height);
+    }
+
+    public int controlMode, gameState;
+    public boolean vibrationEnabled, soundEnabled, gameVisible, largeWorld;
+    public int gameSpeed, appleMargin;
+    public float bobScale;
+
+    public int size(Simulation sim) {
+        return HEADER_BYTES + sim.stateSize();
+    }
+
+    public void write(ByteBuffer out, Simulation sim) {
+        out.putInt(MAGIC).putInt(VERSION);
+        out.put((byte) controlMode).put((byte) gameState);
+        out.put((byte) ((vibrationEnabled ? FLAG_VIBRATION : 0) | (soundEnabled ? FLAG_SOUND : 0)
+                | (gameVisible ? FLAG_VISIBLE : 0) | (largeWorld ? FLAG_LARGE_WORLD : 0)));
+        out.putInt(gameSpeed).putInt(appleMargin).putFloat(bobScale);
+        out.putInt(sim.stateSize());
+        sim.writeState(out);
+    }
+
+    // false, gdy dane są z innej wersji, innej planszy albo ucięte - pola zostają bez zmian.
+    // Symulacja jest ruszana dopiero po sprawdzeniu wersji i planszy; przy uszkodzonej treści
+    // może zostać w połowie odczytu, więc po false trzeba zacząć nową grę.
+    public boolean read(ByteBuffer in, Simulation sim) {
+        return read(in, (large, width, height) -> sim);
+    }
+
+    public boolean read(ByteBuffer in, SimulationSource source) {
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return false;
+            int mode = in.get(), state = in.get(), flags = in.get();
+            int speed = in.getInt(), margin = in.getInt();
+            float scale = in.getFloat();
+            int length = in.getInt();
+            if (length != in.remaining()) return false;
+            source.get((flags & FLAG_LARGE_WORLD) != 0, Simulation.stateWidth(in), Simulation.stateHeight(in)).readState(in);
+            controlMode = mode;
+            gameState = state;
+            vibrationEnabled = (flags & FLAG_VIBRATION) != 0;
+            soundEnabled = (flags & FLAG_SOUND) != 0;
+            gameVisible = (flags & FLAG_VISIBLE) != 0;
+            largeWorld = (flags & FLAG_LARGE_WORLD) != 0;
+            gameSpeed = speed;
+            appleMargin = margin;
+            bobScale = scale;
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package pl.polsl.snake.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import pl.polsl.snake.core.Simulation;
+
+// Migawka sesji w jednym pliku. Zapis idzie do pliku tymczasowego i jest podmieniany
+// atomowo, więc zabicie procesu w trakcie zapisu zostawia poprzednią, całą migawkę.
+// Bufor jest używany ponownie między zapisami.
+// saveInBackground() serializuje migawkę w wątku wywołującym (onPause), a plik zapisuje wątek
+// "snake-session"; load() najpierw czeka na zaległy zapis. Silnik bierze plik przez shared(),
+// więc silnik odtworzony po obrocie ekranu czyta migawkę, którą stary jeszcze zapisuje.
+public final class SessionFile {
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final Map<Path, SessionFile> SHARED = new HashMap<>();
+
+    private final Path file, temp;
+    private final Object fileLock = new Object();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+    // Migawka czekająca na wątek zapisu i wolny bufor na następną
+    private ByteBuffer queued, spare;
+    private Thread worker;
+    private volatile long writes, failures;
+
+    public SessionFile(Path file) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    // Plik sesji wspólny dla procesu
+    public static SessionFile shared(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (SHARED) {
+            return SHARED.computeIfAbsent(key, SessionFile::new);
+        }
+    }
+
+    public void save(GameSnapshot snapshot, Simulation sim) throws IOException {
+        int size = snapshot.size(sim);
+        if (buffer.capacity() < size) buffer = ByteBuffer.allocateDirect(size);
+        buffer.clear();
+        snapshot.write(buffer, sim);
+        buffer.flip();
+        synchronized (this) {
+            // Starsza migawka z kolejki nie może nadpisać tej
+            queued = null;
+        }
+        write(buffer);
+    }
+
+    // Bez dysku w wątku wywołującym; błąd zapisu widać tylko w getFailures()
+    public void saveInBackground(GameSnapshot snapshot, Simulation sim) {
+        int size = snapshot.size(sim);
+        synchronized (this) {
+            // Migawka, której wątek jeszcze nie podjął, jest nieaktualna - nadpisujemy jej bufor
+            ByteBuffer out = queued != null ? queued : spare;
+            if (out == null || out.capacity() < size) out = ByteBuffer.allocateDirect(Math.max(size, INITIAL_CAPACITY));
+            out.clear();
+            snapshot.write(out, sim);
+            out.flip();
+            if (out == spare) spare = null;
+            queued = out;
+            if (worker == null) {
+                worker = new Thread(this::run, "snake-session");
+                worker.setDaemon(true);
+                worker.start();
+            }
+        }
+    }
+
+    // Czeka, aż wątek zapisu skończy zaległe migawki
+    public synchronized void awaitWritten() throws InterruptedException {
+        while (worker != null) wait();
+    }
+
+    public long getWrites() { return writes; }
+    public long getFailures() { return failures; }
+
+    // false, gdy pliku nie ma albo nie pasuje (patrz GameSnapshot.read)
+    public boolean load(GameSnapshot snapshot, Simulation sim) throws IOException {
+        return load(snapshot, (large, width, height) -> sim);
+    }
+
+    // Przerwanie w trakcie czekania na zapis zostawia flagę przerwania i zwraca false
+    public boolean load(GameSnapshot snapshot, GameSnapshot.SimulationSource source) throws IOException {
+        try {
+            awaitWritten();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) return false;
+            if (buffer.capacity() < size) buffer = ByteBuffer.allocateDirect((int) size);
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining() && ch.read(buffer) >= 0) {
+                // czytamy do końca pliku
+            }
+            buffer.flip();
+            return snapshot.read(buffer, source);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    public void delete() throws IOException {
+        synchronized (this) {
+            queued = null;
+        }
+        synchronized (fileLock) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            ByteBuffer data;
+            synchronized (this) {
+                data = queued;
+                queued = null;
+                if (data == null) {
+                    worker = null;
+                    notifyAll();
+                    return;
+                }
+            }
+            try {
+                write(data);
+            } catch (IOException e) {
+                failures++;
+            }
+            synchronized (this) {
+                if (spare == null) spare = data;
+            }
+        }
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        synchronized (fileLock) {
+            Path parent = file.getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) ch.write(data);
+                ch.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writes++;
+        }
+    }
+}
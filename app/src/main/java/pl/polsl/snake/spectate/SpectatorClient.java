@@ -0,0 +1,92 @@
+package pl.polsl.snake.spectate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Widz na komputerze: odbudowuje stan gry ze strumienia i wypisuje go raz na sekundę.
+// Surowy strumień można nagrać do pliku i potem przejrzeć tym samym narzędziem.
+//   adb forward tcp:7531 tcp:7531
+//   ./gradlew :benchmarks:spectate -Pspectate.args="--port=7531 --record=gra.snkv"
+//   ./gradlew :benchmarks:spectate -Pspectate.args="--play=gra.snkv"
+public final class SpectatorClient {
+
+    private static final String USAGE = "Użycie: [--host=127.0.0.1] [--port=" + SpectatorServer.DEFAULT_PORT
+            + "] [--record=plik] | --play=plik";
+
+    private SpectatorClient() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        SpectatorView view = new SpectatorView();
+        String play = options.get("play");
+        if (play != null) {
+            try (FileChannel in = FileChannel.open(Paths.get(play), StandardOpenOption.READ)) {
+                follow(in, null, view);
+            }
+            return;
+        }
+        InetSocketAddress address = new InetSocketAddress(options.getOrDefault("host", "127.0.0.1"),
+                Integer.parseInt(options.getOrDefault("port", String.valueOf(SpectatorServer.DEFAULT_PORT))));
+        String record = options.get("record");
+        try (SocketChannel in = SocketChannel.open(address);
+             FileChannel out = record == null ? null : FileChannel.open(Paths.get(record), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            follow(in, out, view);
+        }
+    }
+
+    private static void follow(ReadableByteChannel in, FileChannel record, SpectatorView view) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        long lastPrint = 0;
+        while (true) {
+            int from = buffer.position();
+            if (in.read(buffer) < 0) break;
+            buffer.flip();
+            if (record != null) {
+                // Do pliku tylko nowe bajty; niepełna ramka z poprzedniego odczytu już tam jest
+                ByteBuffer fresh = buffer.duplicate();
+                fresh.position(from);
+                while (fresh.hasRemaining()) record.write(fresh);
+            }
+            view.consume(buffer);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // Migawka długiego węża nie mieści się w buforze
+                ByteBuffer bigger = ByteBuffer.allocate(2 * buffer.capacity());
+                buffer.flip();
+                buffer = bigger.put(buffer);
+            }
+            long now = System.nanoTime();
+            if (now - lastPrint >= 1_000_000_000L) {
+                lastPrint = now;
+                System.out.println(status(view));
+            }
+        }
+        System.out.println(status(view));
+    }
+
+    static String status(SpectatorView view) {
+        if (!view.isSynced()) return "czekam na migawkę";
+        return String.format(Locale.ROOT, "tick=%d wynik=%d długość=%d jabłko=%d,%d%s migawki=%d delty=%d",
+                view.getTick(), view.getScore(), view.getLength(), view.getBobX(), view.getBobY(),
+                view.isDead() ? " MARTWY" : "", view.getSnapshots(), view.getDeltas());
+    }
+}
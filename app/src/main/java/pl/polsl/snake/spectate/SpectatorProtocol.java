@@ -0,0 +1,45 @@
+package pl.polsl.snake.spectate;
+
+import java.nio.ByteBuffer;
+import pl.polsl.snake.core.Simulation;
+
+// Strumień dla widzów (big-endian). Po połączeniu serwer wysyła MAGIC i VERSION, potem ramki:
+//   SNAPSHOT: typ, tick (long), szerokość, wysokość, wynik, jabłko x, y, martwy (bajt),
+//             długość, pola ciała od ogona do głowy
+//   DELTA:    typ, flagi, [nowa głowa], [jabłko x, y], [wynik] - pola tylko dla ustawionych flag;
+//             każda delta to dokładnie jeden tick po poprzedniej ramce
+// Migawka idzie po dołączeniu, po prośbie widza (dowolny bajt od klienta) i gdy serwer zgubił
+// ciągłość (nowa gra, przepełnienie kolejki). Typowy tick to 6 bajtów.
+public final class SpectatorProtocol {
+
+    public static final int MAGIC = 0x534E4B56; // "SNKV"
+    public static final int VERSION = 1;
+    public static final int HELLO_BYTES = 8;
+
+    public static final byte FRAME_SNAPSHOT = 1, FRAME_DELTA = 2;
+
+    public static final int TAIL_REMOVED = 1, HEAD_ADDED = 1 << 1, APPLE_MOVED = 1 << 2,
+            SCORE_CHANGED = 1 << 3, DIED = 1 << 4;
+
+    // Prośba widza o migawkę (np. po wykryciu rozjazdu u siebie)
+    public static final byte REQUEST_SNAPSHOT = 'S';
+
+    static final int SNAPSHOT_HEADER_BYTES = 1 + 8 + 4 * 5 + 1 + 4;
+
+    private SpectatorProtocol() {
+    }
+
+    public static int snapshotSize(Simulation sim) {
+        return SNAPSHOT_HEADER_BYTES + 4 * sim.getLength();
+    }
+
+    public static void writeSnapshot(ByteBuffer out, Simulation sim) {
+        out.put(FRAME_SNAPSHOT).putLong(sim.getTick());
+        out.putInt(sim.getWidth()).putInt(sim.getHeight()).putInt(sim.getScore());
+        out.putInt(sim.getBobX()).putInt(sim.getBobY());
+        out.put((byte) (sim.isDead() ? 1 : 0));
+        int length = sim.getLength();
+        out.putInt(length);
+        for (int i = length - 1; i >= 0; i--) out.putInt(sim.getBody().get(i));
+    }
+}
@@ -0,0 +1,346 @@
+package pl.polsl.snake.spectate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import pl.polsl.snake.core.DeathCause;
+import pl.polsl.snake.core.Simulation;
+
+// Podgląd gry na żywo dla widzów na komputerze (np. przez adb forward tcp:7531 tcp:7531).
+// Wątek gry w publish() tylko dopisuje ramkę do kolejki w pamięci - bez alokacji (poza
+// rzadkim powiększeniem kolejki dla rekordowo długiego węża) i bez operacji na gniazdach.
+// Osobny wątek z selektorem NIO rozsyła kolejkę do klientów.
+// Każdy klient ma ograniczony bufor: kto nie nadąża odbierać, zostaje rozłączony,
+// zamiast wstrzymywać grę albo pozostałych widzów. Migawka większa od bufora i tak
+// musi dojść w całości - wtedy bufor klienta rośnie do jej rozmiaru.
+public final class SpectatorServer implements Runnable {
+
+    public static final int DEFAULT_PORT = 7531;
+    public static final int DEFAULT_CLIENT_BUFFER = 64 * 1024;
+    private static final int QUEUE_BYTES = 256 * 1024;
+
+    // Adresaci wpisu w kolejce: zsynchronizowani widzowie, czekający na migawkę albo wszyscy
+    private static final byte TO_SYNCED = 0, TO_WAITING = 1, TO_ALL = 2;
+    private static final int ENTRY_HEADER = 1 + 4;
+
+    private static final class Client {
+        final SocketChannel channel;
+        ByteBuffer out;
+        SelectionKey key;
+        boolean waiting = true;
+
+        Client(SocketChannel channel, int bufferBytes) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocate(bufferBytes);
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final int clientBufferBytes;
+
+    // Kolejka wątek gry -> wątek selektora: dwa bufory zamieniane pod blokadą
+    private final Object queueLock = new Object();
+    private ByteBuffer front = ByteBuffer.allocate(QUEUE_BYTES), back = ByteBuffer.allocate(QUEUE_BYTES);
+
+    // Stan z poprzedniego publish() - tylko wątek gry
+    private Simulation last;
+    private long lastTick;
+    private int lastLength, lastBobX, lastBobY, lastScore;
+    private boolean lastDead, resync = true;
+
+    private volatile boolean running;
+    // Ustawia wątek selektora (nowy widz, prośba), zużywa wątek gry w publish()
+    private final AtomicBoolean snapshotWanted = new AtomicBoolean();
+    private volatile int clientCount, port = -1;
+    private volatile Selector selector;
+    private volatile long frames, snapshots, dropped, resyncs, bytesSent;
+    private Thread worker;
+    private CountDownLatch bound;
+
+    private final List<Client> clients = new ArrayList<>();
+    private final ByteBuffer readScratch = ByteBuffer.allocate(64);
+
+    public SpectatorServer(InetSocketAddress address, int clientBufferBytes) {
+        this.address = address;
+        this.clientBufferBytes = clientBufferBytes;
+    }
+
+    // Gniazdo otwiera wątek serwera - wywołujący (wątek UI) nie czeka na sieć
+    public synchronized void start() {
+        if (worker != null) return;
+        running = true;
+        port = -1;
+        bound = new CountDownLatch(1);
+        worker = new Thread(this, "snake-spectate");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = worker;
+            worker = null;
+        }
+        Selector s = selector;
+        if (s != null) s.wakeup();
+        if (t != null) {
+            try { t.join(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    // Numer portu (przy porcie 0 - przydzielony przez system) albo -1, gdy nie udało się otworzyć
+    public int awaitPort(long timeoutMillis) throws InterruptedException {
+        CountDownLatch latch;
+        synchronized (this) {
+            latch = bound;
+        }
+        if (latch != null) latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        return port;
+    }
+
+    // Wątek gry: następny publish() wyśle wszystkim pełną migawkę (nowa gra, odtworzona sesja)
+    public void invalidate() {
+        resync = true;
+    }
+
+    // Wątek gry, po każdym ticku
+    public void publish(Simulation sim) {
+        long tick = sim.getTick();
+        boolean continuous = !resync && sim == last && tick == lastTick + 1;
+        boolean sent = false;
+        if (clientCount > 0) {
+            // Flaga zdjęta przed zbudowaniem migawki: widz dołączający w trakcie ustawi ją
+            // ponownie i dostanie migawkę w następnym ticku
+            boolean wanted = snapshotWanted.getAndSet(false);
+            synchronized (queueLock) {
+                boolean ok = continuous && enqueueDelta(sim);
+                if (ok && wanted) ok = enqueueSnapshot(TO_WAITING, sim);
+                if (!ok) {
+                    // Ciągłość zgubiona (nowa gra albo pełna kolejka): migawka dla wszystkich
+                    int size = SpectatorProtocol.snapshotSize(sim);
+                    if (!fits(size)) {
+                        front.clear();
+                        resyncs++;
+                        // Wąż dłuższy niż kiedykolwiek: kolejka rośnie, rzadko i tylko skokowo
+                        if (!fits(size)) front = ByteBuffer.allocate(Math.max(2 * front.capacity(), ENTRY_HEADER + size));
+                    }
+                    ok = enqueueSnapshot(TO_ALL, sim);
+                }
+                sent = ok;
+            }
+            if (!sent && wanted) snapshotWanted.set(true);
+            Selector s = selector;
+            if (s != null) s.wakeup();
+        }
+        resync = !sent;
+        last = sim;
+        lastTick = tick;
+        lastLength = sim.getLength();
+        lastBobX = sim.getBobX();
+        lastBobY = sim.getBobY();
+        lastScore = sim.getScore();
+        lastDead = sim.isDead();
+    }
+
+    private boolean fits(int size) {
+        return front.remaining() >= ENTRY_HEADER + size;
+    }
+
+    private boolean enqueueSnapshot(byte audience, Simulation sim) {
+        int size = SpectatorProtocol.snapshotSize(sim);
+        if (!fits(size)) return false;
+        front.put(audience).putInt(size);
+        SpectatorProtocol.writeSnapshot(front, sim);
+        snapshots++;
+        return true;
+    }
+
+    // Jeden tick: głowa wjeżdża zawsze, chyba że wąż uderzył w ścianę; ogon schodzi, gdy długość
+    // się nie zmieniła (także przy wjeździe w siebie - głowa jest już w ciele)
+    private boolean enqueueDelta(Simulation sim) {
+        boolean headAdded = sim.getDeathCause() != DeathCause.WALL;
+        boolean appleMoved = sim.getBobX() != lastBobX || sim.getBobY() != lastBobY;
+        boolean scoreChanged = sim.getScore() != lastScore;
+        int flags = 0;
+        if (headAdded) flags |= SpectatorProtocol.HEAD_ADDED;
+        if (headAdded && sim.getLength() == lastLength) flags |= SpectatorProtocol.TAIL_REMOVED;
+        if (appleMoved) flags |= SpectatorProtocol.APPLE_MOVED;
+        if (scoreChanged) flags |= SpectatorProtocol.SCORE_CHANGED;
+        if (sim.isDead() && !lastDead) flags |= SpectatorProtocol.DIED;
+        int size = 2 + (headAdded ? 4 : 0) + (appleMoved ? 8 : 0) + (scoreChanged ? 4 : 0);
+        if (!fits(size)) return false;
+        front.put(TO_SYNCED).putInt(size);
+        front.put(SpectatorProtocol.FRAME_DELTA).put((byte) flags);
+        if (headAdded) front.putInt(sim.getBody().headCell());
+        if (appleMoved) front.putInt(sim.getBobX()).putInt(sim.getBobY());
+        if (scoreChanged) front.putInt(sim.getScore());
+        frames++;
+        return true;
+    }
+
+    @Override
+    public void run() {
+        try (Selector sel = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(sel, SelectionKey.OP_ACCEPT);
+            port = server.socket().getLocalPort();
+            selector = sel;
+            bound.countDown();
+            while (running) {
+                sel.select();
+                drainQueue();
+                Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept(server, sel);
+                    else handle((Client) key.attachment(), key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // Gniazdo zajęte albo zamknięte - podgląd po prostu nie działa
+        } finally {
+            selector = null;
+            for (Client c : clients) closeQuietly(c);
+            clients.clear();
+            clientCount = 0;
+            bound.countDown();
+        }
+    }
+
+    private void accept(ServerSocketChannel server, Selector sel) throws IOException {
+        SocketChannel ch = server.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Client c = new Client(ch, clientBufferBytes);
+        c.out.putInt(SpectatorProtocol.MAGIC).putInt(SpectatorProtocol.VERSION);
+        c.key = ch.register(sel, SelectionKey.OP_READ | SelectionKey.OP_WRITE, c);
+        clients.add(c);
+        clientCount = clients.size();
+        snapshotWanted.set(true);
+    }
+
+    private void handle(Client c, SelectionKey key) {
+        try {
+            if (key.isReadable()) {
+                readScratch.clear();
+                int n = c.channel.read(readScratch);
+                if (n < 0) {
+                    drop(c, false);
+                    return;
+                }
+                // Dowolny bajt od widza to prośba o migawkę
+                if (n > 0) {
+                    c.waiting = true;
+                    snapshotWanted.set(true);
+                }
+            }
+            if (key.isValid() && key.isWritable()) flush(c);
+        } catch (IOException e) {
+            drop(c, false);
+        }
+    }
+
+    private void drainQueue() {
+        ByteBuffer batch;
+        synchronized (queueLock) {
+            batch = front;
+            front = back;
+            back = batch;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            byte audience = batch.get();
+            int size = batch.getInt();
+            int end = batch.position() + size;
+            ByteBuffer frame = batch.duplicate();
+            frame.limit(end);
+            for (int i = clients.size() - 1; i >= 0; i--) {
+                Client c = clients.get(i);
+                boolean deliver = audience == TO_ALL || (audience == TO_WAITING) == c.waiting;
+                if (!deliver) continue;
+                if (c.out.remaining() < size && (audience == TO_SYNCED || !grow(c, size))) {
+                    // Za wolny widz: rozłączamy zamiast czekać
+                    drop(c, true);
+                    continue;
+                }
+                c.out.put(frame.duplicate());
+                if (audience != TO_SYNCED) c.waiting = false;
+            }
+            batch.position(end);
+        }
+        batch.clear();
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client c = clients.get(i);
+            if (c.out.position() > 0) {
+                try {
+                    flush(c);
+                } catch (IOException e) {
+                    drop(c, false);
+                }
+            }
+        }
+    }
+
+    // Migawka większa niż wolne miejsce: bufor rośnie, o ile zaległości przed nią mieszczą się
+    // w zwykłym limicie - inaczej widz po prostu nie nadąża
+    private boolean grow(Client c, int size) {
+        if (c.out.position() > clientBufferBytes) return false;
+        ByteBuffer bigger = ByteBuffer.allocate(clientBufferBytes + size);
+        c.out.flip();
+        bigger.put(c.out);
+        c.out = bigger;
+        return true;
+    }
+
+    private void flush(Client c) throws IOException {
+        c.out.flip();
+        bytesSent += c.channel.write(c.out);
+        c.out.compact();
+        if (c.key.isValid()) {
+            c.key.interestOps(c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    private void drop(Client c, boolean slow) {
+        closeQuietly(c);
+        clients.remove(c);
+        clientCount = clients.size();
+        if (slow) dropped++;
+    }
+
+    private static void closeQuietly(Client c) {
+        try {
+            c.channel.close();
+        } catch (IOException e) {
+            // i tak go usuwamy
+        }
+    }
+
+    public boolean isRunning() { return selector != null; }
+    public int getClients() { return clientCount; }
+    public long getFrames() { return frames; }
+    public long getSnapshots() { return snapshots; }
+    // Widzowie rozłączeni, bo nie nadążali odbierać
+    public long getDropped() { return dropped; }
+    // Ile razy kolejka się przepełniła i zaległe ramki zastąpiła migawka
+    public long getResyncs() { return resyncs; }
+    public long getBytesSent() { return bytesSent; }
+}
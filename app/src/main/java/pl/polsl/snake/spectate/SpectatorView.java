@@ -0,0 +1,120 @@
+package pl.polsl.snake.spectate;
+
+import java.nio.ByteBuffer;
+import pl.polsl.snake.core.SnakeBody;
+
+// Stan gry odbudowany po stronie widza z migawek i delt. Bez Androida - używa go klient
+// na komputerze i testy. consume() bierze tyle pełnych ramek, ile jest w buforze;
+// niepełną resztę zostawia na następny odczyt.
+public final class SpectatorView {
+
+    private boolean hello, synced;
+    private int width, height, score, bobX = -1, bobY = -1;
+    private long tick;
+    private boolean dead;
+    private SnakeBody body;
+    private long snapshots, deltas;
+
+    // Liczba zużytych ramek; IllegalStateException przy obcym strumieniu
+    public int consume(ByteBuffer in) {
+        int frames = 0;
+        while (true) {
+            int start = in.position();
+            if (!hello) {
+                if (in.remaining() < SpectatorProtocol.HELLO_BYTES) return frames;
+                if (in.getInt() != SpectatorProtocol.MAGIC || in.getInt() != SpectatorProtocol.VERSION) {
+                    throw new IllegalStateException("To nie jest strumień widza w tej wersji");
+                }
+                hello = true;
+                continue;
+            }
+            if (!in.hasRemaining()) return frames;
+            byte type = in.get(start);
+            boolean complete = type == SpectatorProtocol.FRAME_SNAPSHOT ? readSnapshot(in)
+                    : type == SpectatorProtocol.FRAME_DELTA ? readDelta(in) : fail(type);
+            if (!complete) {
+                in.position(start);
+                return frames;
+            }
+            frames++;
+        }
+    }
+
+    private boolean readSnapshot(ByteBuffer in) {
+        int start = in.position();
+        if (in.remaining() < SpectatorProtocol.SNAPSHOT_HEADER_BYTES) return false;
+        int length = in.getInt(start + SpectatorProtocol.SNAPSHOT_HEADER_BYTES - 4);
+        if (in.remaining() < SpectatorProtocol.SNAPSHOT_HEADER_BYTES + 4L * length) return false;
+        in.get();
+        tick = in.getLong();
+        int w = in.getInt(), h = in.getInt();
+        if (body == null || w != width || h != height) {
+            width = w;
+            height = h;
+            body = new SnakeBody(w * h, 16);
+        }
+        body.clear();
+        score = in.getInt();
+        bobX = in.getInt();
+        bobY = in.getInt();
+        dead = in.get() != 0;
+        in.getInt();
+        for (int i = 0; i < length; i++) body.pushHead(in.getInt());
+        synced = true;
+        snapshots++;
+        return true;
+    }
+
+    private boolean readDelta(ByteBuffer in) {
+        int start = in.position();
+        if (in.remaining() < 2) return false;
+        int flags = in.get(start + 1);
+        int size = 2 + ((flags & SpectatorProtocol.HEAD_ADDED) != 0 ? 4 : 0)
+                + ((flags & SpectatorProtocol.APPLE_MOVED) != 0 ? 8 : 0)
+                + ((flags & SpectatorProtocol.SCORE_CHANGED) != 0 ? 4 : 0);
+        if (in.remaining() < size) return false;
+        in.position(start + 2);
+        // Delta bez migawki nie ma do czego się odnieść - pomijamy do pierwszej migawki
+        boolean apply = synced;
+        if (apply && (flags & SpectatorProtocol.TAIL_REMOVED) != 0) body.popTail();
+        if ((flags & SpectatorProtocol.HEAD_ADDED) != 0) {
+            int head = in.getInt();
+            if (apply) body.pushHead(head);
+        }
+        if ((flags & SpectatorProtocol.APPLE_MOVED) != 0) {
+            int x = in.getInt(), y = in.getInt();
+            if (apply) {
+                bobX = x;
+                bobY = y;
+            }
+        }
+        if ((flags & SpectatorProtocol.SCORE_CHANGED) != 0) {
+            int s = in.getInt();
+            if (apply) score = s;
+        }
+        if (apply) {
+            if ((flags & SpectatorProtocol.DIED) != 0) dead = true;
+            tick++;
+            deltas++;
+        }
+        return true;
+    }
+
+    private static boolean fail(byte type) {
+        throw new IllegalStateException("Nieznana ramka " + type);
+    }
+
+    public boolean isSynced() { return synced; }
+    public long getTick() { return tick; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getScore() { return score; }
+    public int getBobX() { return bobX; }
+    public int getBobY() { return bobY; }
+    public boolean isDead() { return dead; }
+    public int getLength() { return body == null ? 0 : body.size(); }
+    // Segment i, licząc od głowy (0) - jak SnakeBody.get
+    public int getCell(int i) { return body.get(i); }
+    public long getSnapshots() { return snapshots; }
+    public long getDeltas() { return deltas; }
+}
@@ -0,0 +1,46 @@
+package pl.polsl.snake.startup;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// Podsystem tworzony przy pierwszym użyciu albo zawczasu w tle (prewarm), np. gdy gracz
+// jest jeszcze w menu. Fabryka działa najwyżej raz; wątek, który przyjdzie w trakcie
+// tworzenia, czeka na wynik. null to poprawny wynik (np. brak czujnika w urządzeniu).
+public final class Lazy<T> {
+
+    private final Supplier<? extends T> factory;
+    private volatile boolean created;
+    private T value;
+    private long createNanos;
+
+    public Lazy(Supplier<? extends T> factory) {
+        this.factory = factory;
+    }
+
+    public T get() {
+        if (created) return value;
+        synchronized (this) {
+            if (!created) {
+                long start = System.nanoTime();
+                value = factory.get();
+                createNanos = System.nanoTime() - start;
+                created = true;
+            }
+            return value;
+        }
+    }
+
+    // Tworzy w tle; get() w trakcie zaczeka, a po nim zwróci gotowy obiekt od razu
+    public void prewarm(Executor executor) {
+        if (!created) executor.execute(this::get);
+    }
+
+    // Obiekt, jeśli już powstał - do zwalniania bez tworzenia
+    public T peek() {
+        return created ? value : null;
+    }
+
+    public boolean isCreated() { return created; }
+    // Czas działania fabryki, 0 przed utworzeniem
+    public long getCreateNanos() { return created ? createNanos : 0; }
+}
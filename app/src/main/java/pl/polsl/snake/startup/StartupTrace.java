@@ -0,0 +1,62 @@
+package pl.polsl.snake.startup;
+
+import java.util.Locale;
+
+// Znaczniki zimnego startu liczone od jednej chwili (na urządzeniu - początek konstruktora
+// silnika). Ostatni to pierwsza klatka na ekranie: time-to-first-frame do logu i do porównań
+// między buildami. Znaczniki stawia wątek główny i wątek gry.
+public final class StartupTrace {
+
+    public static final String FIRST_FRAME = "pierwsza_klatka";
+
+    private static final int MAX_MARKS = 16;
+
+    private final long startNanos;
+    private final String[] names = new String[MAX_MARKS];
+    private final long[] offsets = new long[MAX_MARKS];
+    private int count;
+    private volatile long firstFrameNanos = -1;
+
+    public StartupTrace(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public synchronized void mark(String name, long nowNanos) {
+        if (count == MAX_MARKS) return;
+        names[count] = name;
+        offsets[count] = nowNanos - startNanos;
+        count++;
+    }
+
+    // true tylko za pierwszym razem - wtedy wołający raportuje start
+    public boolean firstFrame(long nowNanos) {
+        if (firstFrameNanos >= 0) return false;
+        synchronized (this) {
+            if (firstFrameNanos >= 0) return false;
+            firstFrameNanos = nowNanos - startNanos;
+            mark(FIRST_FRAME, nowNanos);
+            return true;
+        }
+    }
+
+    public boolean hasFirstFrame() { return firstFrameNanos >= 0; }
+    // -1, dopóki pierwsza klatka nie trafiła na ekran
+    public long getTimeToFirstFrameNanos() { return firstFrameNanos; }
+
+    public synchronized long getMarkNanos(String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) return offsets[i];
+        }
+        return -1;
+    }
+
+    // Np. "konstruktor=3.1 ms sesja=7.9 ms pierwsza_klatka=41.0 ms"
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(String.format(Locale.ROOT, "%s=%.1f ms", names[i], offsets[i] / 1e6));
+        }
+        return sb.toString();
+    }
+}
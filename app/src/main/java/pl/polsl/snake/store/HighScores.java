@@ -0,0 +1,60 @@
+package pl.polsl.snake.store;
+
+import java.nio.ByteBuffer;
+
+// Tabela najlepszych wyników, malejąco. Przy równym wyniku wyżej jest starszy.
+public final class HighScores {
+
+    public static final int CAPACITY = 10;
+
+    private final int[] scores = new int[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private int count;
+
+    // Miejsce w tabeli (od 0) albo -1, gdy wynik się nie zmieścił
+    public int insert(int score, long timeMillis) {
+        int pos = count;
+        while (pos > 0 && scores[pos - 1] < score) pos--;
+        if (pos == CAPACITY) return -1;
+        int last = Math.min(count, CAPACITY - 1);
+        System.arraycopy(scores, pos, scores, pos + 1, last - pos);
+        System.arraycopy(times, pos, times, pos + 1, last - pos);
+        scores[pos] = score;
+        times[pos] = timeMillis;
+        if (count < CAPACITY) count++;
+        return pos;
+    }
+
+    public void addAll(HighScores other) {
+        for (int i = 0; i < other.count; i++) insert(other.scores[i], other.times[i]);
+    }
+
+    public void copyFrom(HighScores other) {
+        count = other.count;
+        System.arraycopy(other.scores, 0, scores, 0, count);
+        System.arraycopy(other.times, 0, times, 0, count);
+    }
+
+    public void clear() { count = 0; }
+
+    public int getCount() { return count; }
+    public int getScore(int rank) { return scores[rank]; }
+    public long getTimeMillis(int rank) { return times[rank]; }
+    public int getBest() { return count == 0 ? 0 : scores[0]; }
+
+    static int size() {
+        return 1 + CAPACITY * (4 + 8);
+    }
+
+    void write(ByteBuffer out) {
+        out.put((byte) count);
+        for (int i = 0; i < count; i++) out.putInt(scores[i]).putLong(times[i]);
+    }
+
+    void read(ByteBuffer in) {
+        clear();
+        int n = in.get();
+        if (n < 0 || n > CAPACITY) throw new IllegalArgumentException("wyników: " + n);
+        for (int i = 0; i < n; i++) insert(in.getInt(), in.getLong());
+    }
+}
@@ -0,0 +1,117 @@
+package pl.polsl.snake.store;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+// Wszystko, co gracz ma zachować między uruchomieniami: ustawienia z menu, ostatni wynik,
+// tabela rekordów, statystyki bieżącej i poprzedniej sesji oraz sumy ze wszystkich sesji.
+// Stały układ bajtów jak w GameSnapshot, na końcu CRC32 całości:
+//   MAGIC, VERSION, flagi, tryb sterowania, szybkość, margines, skala jabłka, ostatni wynik,
+//   rekordy, statystyki sesji, poprzedniej sesji i sumy, CRC32
+public final class PlayerRecord {
+
+    public static final int MAGIC = 0x534E4B50; // "SNKP"
+    public static final int VERSION = 1;
+    static final int SIZE = 4 * 2 + 2 + 4 * 4 + HighScores.size() + 3 * SessionStats.size() + 4;
+
+    private static final int FLAG_SETTINGS = 1, FLAG_VIBRATION = 1 << 1, FLAG_SOUND = 1 << 2,
+            FLAG_VISIBLE = 1 << 3, FLAG_LARGE_WORLD = 1 << 4;
+
+    // Ustawienia - publiczne pola jak w GameSnapshot; hasSettings = false do pierwszego zapisu
+    public boolean hasSettings;
+    public int controlMode, gameSpeed, appleMargin;
+    public float bobScale;
+    public boolean vibrationEnabled, soundEnabled, gameVisible, largeWorld;
+
+    public int lastScore;
+    public final HighScores highScores = new HighScores();
+    public final SessionStats session = new SessionStats();
+    public final SessionStats previousSession = new SessionStats();
+    public final SessionStats totals = new SessionStats();
+
+    private final CRC32 crc = new CRC32();
+
+    public void copySettingsFrom(PlayerRecord other) {
+        hasSettings = other.hasSettings;
+        controlMode = other.controlMode;
+        gameSpeed = other.gameSpeed;
+        appleMargin = other.appleMargin;
+        bobScale = other.bobScale;
+        vibrationEnabled = other.vibrationEnabled;
+        soundEnabled = other.soundEnabled;
+        gameVisible = other.gameVisible;
+        largeWorld = other.largeWorld;
+    }
+
+    // Porównuje same wartości, bez hasSettings
+    public boolean sameSettings(PlayerRecord other) {
+        return controlMode == other.controlMode
+                && gameSpeed == other.gameSpeed && appleMargin == other.appleMargin
+                && Float.compare(bobScale, other.bobScale) == 0
+                && vibrationEnabled == other.vibrationEnabled && soundEnabled == other.soundEnabled
+                && gameVisible == other.gameVisible && largeWorld == other.largeWorld;
+    }
+
+    public void copyFrom(PlayerRecord other) {
+        copySettingsFrom(other);
+        lastScore = other.lastScore;
+        highScores.copyFrom(other.highScores);
+        session.copyFrom(other.session);
+        previousSession.copyFrom(other.previousSession);
+        totals.copyFrom(other.totals);
+    }
+
+    public void write(ByteBuffer out) {
+        int start = out.position();
+        out.putInt(MAGIC).putInt(VERSION);
+        out.put((byte) ((hasSettings ? FLAG_SETTINGS : 0) | (vibrationEnabled ? FLAG_VIBRATION : 0)
+                | (soundEnabled ? FLAG_SOUND : 0) | (gameVisible ? FLAG_VISIBLE : 0)
+                | (largeWorld ? FLAG_LARGE_WORLD : 0)));
+        out.put((byte) controlMode);
+        out.putInt(gameSpeed).putInt(appleMargin).putFloat(bobScale).putInt(lastScore);
+        highScores.write(out);
+        session.write(out);
+        previousSession.write(out);
+        totals.write(out);
+        out.putInt(checksum(out, start, out.position()));
+    }
+
+    // false, gdy dane są z innej wersji, ucięte albo uszkodzone (CRC) - wtedy pola są
+    // niezdefiniowane i trzeba zacząć od pustego rekordu
+    public boolean read(ByteBuffer in) {
+        try {
+            int start = in.position();
+            if (in.remaining() < 4) return false;
+            int end = in.limit() - 4;
+            if (in.getInt(end) != checksum(in, start, end)) return false;
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return false;
+            int flags = in.get();
+            hasSettings = (flags & FLAG_SETTINGS) != 0;
+            vibrationEnabled = (flags & FLAG_VIBRATION) != 0;
+            soundEnabled = (flags & FLAG_SOUND) != 0;
+            gameVisible = (flags & FLAG_VISIBLE) != 0;
+            largeWorld = (flags & FLAG_LARGE_WORLD) != 0;
+            controlMode = in.get();
+            gameSpeed = in.getInt();
+            appleMargin = in.getInt();
+            bobScale = in.getFloat();
+            lastScore = in.getInt();
+            highScores.read(in);
+            session.read(in);
+            previousSession.read(in);
+            totals.read(in);
+            return in.position() == end;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private int checksum(ByteBuffer buffer, int from, int to) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(to).position(from);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,240 @@
+package pl.polsl.snake.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import pl.polsl.snake.core.DeathCause;
+
+// Rekord gracza trzymany w pamięci i zapisywany z opóźnieniem (write-behind). Wątek gry i UI
+// tylko zmieniają stan pod krótką blokadą; odczyt i zapisy robi wątek "snake-store".
+// Zmiany z okna FLUSH_DELAY są scalane w jeden zapis. Zapis idzie do pliku tymczasowego,
+// force() i atomowa podmiana - przerwany zapis zostawia poprzedni, cały rekord.
+// stop() nie czeka na dysk: wątek dopisuje zaległe zmiany i sam się kończy.
+// Aplikacja bierze magazyn przez shared(): jeden na plik w całym procesie, więc silnik
+// odtworzony po obrocie ekranu nie czyta pliku, który stary jeszcze zapisuje.
+public final class PlayerStore {
+
+    public static final long DEFAULT_FLUSH_DELAY_MS = 2000;
+
+    private static final Map<Path, PlayerStore> SHARED = new HashMap<>();
+
+    private final Path file, temp;
+    private final long flushDelayNanos;
+    private final PlayerRecord record = new PlayerRecord();
+    // Kopia rekordu do zapisu - serializacja i dysk poza blokadą
+    private final PlayerRecord pending = new PlayerRecord();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(PlayerRecord.SIZE);
+
+    private boolean running, scheduled, settingsChanged;
+    private long dirtySince;
+    private Thread worker;
+    private Runnable onLoaded;
+    private volatile boolean loaded;
+    private volatile long updates, writes, failures;
+
+    public PlayerStore(Path file, long flushDelayMillis) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.flushDelayNanos = flushDelayMillis * 1_000_000L;
+    }
+
+    // Magazyn dla pliku wspólny dla procesu; opóźnienie zapisu z pierwszego wywołania
+    public static PlayerStore shared(Path file, long flushDelayMillis) {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (SHARED) {
+            return SHARED.computeIfAbsent(key, k -> new PlayerStore(k, flushDelayMillis));
+        }
+    }
+
+    // Wołane z wątku magazynu po odczycie pliku (także gdy go nie było); gdy plik jest
+    // już wczytany (wspólny magazyn, nowy silnik) - od razu, w wątku wywołującym
+    public void setOnLoaded(Runnable onLoaded) {
+        boolean now;
+        synchronized (this) {
+            this.onLoaded = onLoaded;
+            now = loaded;
+        }
+        if (now && onLoaded != null) onLoaded.run();
+    }
+
+    public synchronized void start() {
+        running = true;
+        if (worker == null) {
+            worker = new Thread(this::run, "snake-store");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        notifyAll();
+    }
+
+    // Zaległe zmiany trafią na dysk od razu, bez czekania na koniec okna
+    public synchronized void stop() {
+        running = false;
+        notifyAll();
+    }
+
+    // Dla testów i narzędzi: czeka, aż wątek magazynu skończy po stop()
+    public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = worker;
+        }
+        if (t != null) t.join(timeoutMillis);
+        return t == null || !t.isAlive();
+    }
+
+    public boolean isLoaded() { return loaded; }
+
+    public synchronized void updateSettings(PlayerRecord settings) {
+        if (record.hasSettings && record.sameSettings(settings)) return;
+        record.copySettingsFrom(settings);
+        record.hasSettings = true;
+        settingsChanged = true;
+        changed();
+    }
+
+    // false, dopóki nic nie zapisano (ani w tej sesji, ani w pliku)
+    public synchronized boolean readSettings(PlayerRecord out) {
+        if (!record.hasSettings) return false;
+        out.copySettingsFrom(record);
+        return true;
+    }
+
+    // Miejsce w tabeli rekordów albo -1
+    public synchronized int recordScore(int score, long timeMillis) {
+        record.lastScore = score;
+        int rank = record.highScores.insert(score, timeMillis);
+        changed();
+        return rank;
+    }
+
+    public synchronized void addStats(SessionStats stats) {
+        if (stats.isEmpty()) return;
+        record.session.add(stats);
+        record.totals.add(stats);
+        changed();
+    }
+
+    public synchronized void read(PlayerRecord out) {
+        out.copyFrom(record);
+    }
+
+    public synchronized int getBestScore() { return record.highScores.getBest(); }
+    public synchronized int getDeaths(DeathCause cause) { return record.totals.getDeaths(cause); }
+
+    public long getUpdates() { return updates; }
+    public long getWrites() { return writes; }
+    public long getFailures() { return failures; }
+
+    private void changed() {
+        updates++;
+        if (!scheduled) {
+            scheduled = true;
+            dirtySince = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+    private void run() {
+        if (!loaded) load();
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (running && !scheduled) wait();
+                    // Okno scalania: kolejne zmiany dołączają do tego samego zapisu
+                    long wait;
+                    while (running && (wait = dirtySince + flushDelayNanos - System.nanoTime()) > 0) {
+                        wait(wait / 1_000_000L + 1);
+                    }
+                    if (!scheduled) {
+                        worker = null;
+                        return;
+                    }
+                    scheduled = false;
+                    pending.copyFrom(record);
+                }
+                if (write(pending)) continue;
+                synchronized (this) {
+                    // Spróbujemy przy następnej zmianie albo po kolejnym oknie; po stop() - przy start()
+                    if (!running) {
+                        scheduled = true;
+                        worker = null;
+                        return;
+                    }
+                    if (!scheduled) {
+                        scheduled = true;
+                        dirtySince = System.nanoTime();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                worker = null;
+            }
+        }
+    }
+
+    private void load() {
+        PlayerRecord stored = new PlayerRecord();
+        boolean ok = false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer in = size <= buffer.capacity() ? buffer : ByteBuffer.allocate((int) Math.min(size, 1 << 20));
+            in.clear().limit((int) Math.min(size, in.capacity()));
+            while (in.hasRemaining() && ch.read(in) >= 0) {
+                // czytamy do końca pliku
+            }
+            in.flip();
+            ok = stored.read(in);
+            if (!ok) failures++;
+        } catch (NoSuchFileException e) {
+            // pierwsze uruchomienie
+        } catch (IOException e) {
+            failures++;
+        }
+        Runnable callback;
+        synchronized (this) {
+            if (ok) merge(stored);
+            loaded = true;
+            callback = onLoaded;
+        }
+        if (callback != null) callback.run();
+    }
+
+    // Zmiany sprzed odczytu mają pierwszeństwo; rekordy i sumy łączymy
+    private void merge(PlayerRecord stored) {
+        if (!settingsChanged && stored.hasSettings) record.copySettingsFrom(stored);
+        if (record.lastScore == 0) record.lastScore = stored.lastScore;
+        record.highScores.addAll(stored.highScores);
+        record.previousSession.copyFrom(stored.session);
+        record.totals.add(stored.totals);
+    }
+
+    private boolean write(PlayerRecord data) {
+        buffer.clear();
+        data.write(buffer);
+        buffer.flip();
+        try {
+            Path parent = file.getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) ch.write(buffer);
+                ch.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writes++;
+            return true;
+        } catch (IOException e) {
+            failures++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package pl.polsl.snake.store;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import pl.polsl.snake.core.DeathCause;
+
+// Liczniki rozgrywki: ticki, czas gry, jabłka, gry i śmierci według przyczyny.
+// Wątek gry zbiera je u siebie bez blokad i raz na jakiś czas przekazuje do magazynu (add).
+public final class SessionStats {
+
+    private static final int CAUSES = DeathCause.values().length;
+
+    private long ticks, playNanos, apples;
+    private int games;
+    private final int[] deaths = new int[CAUSES];
+
+    public void onGameStart() { games++; }
+
+    public void onTick(long tickNanos) {
+        ticks++;
+        playNanos += tickNanos;
+    }
+
+    public void onApple() { apples++; }
+
+    public void onDeath(DeathCause cause) { deaths[cause.ordinal()]++; }
+
+    public void add(SessionStats other) {
+        ticks += other.ticks;
+        playNanos += other.playNanos;
+        apples += other.apples;
+        games += other.games;
+        for (int i = 0; i < CAUSES; i++) deaths[i] += other.deaths[i];
+    }
+
+    public void copyFrom(SessionStats other) {
+        clear();
+        add(other);
+    }
+
+    public void clear() {
+        ticks = playNanos = apples = 0;
+        games = 0;
+        Arrays.fill(deaths, 0);
+    }
+
+    public boolean isEmpty() {
+        return ticks == 0 && games == 0 && apples == 0 && getDeaths() == 0;
+    }
+
+    public long getTicks() { return ticks; }
+    // Czas gry liczony w tickach (1 / szybkość na tick), bez menu i pauz po śmierci
+    public long getPlayNanos() { return playNanos; }
+    public long getApples() { return apples; }
+    public int getGames() { return games; }
+    public int getDeaths(DeathCause cause) { return deaths[cause.ordinal()]; }
+
+    public int getDeaths() {
+        int sum = 0;
+        for (int d : deaths) sum += d;
+        return sum;
+    }
+
+    public double getApplesPerMinute() {
+        return playNanos == 0 ? 0 : apples * 60e9 / playNanos;
+    }
+
+    // Liczba przyczyn jest zapisana, więc nowa przyczyna w DeathCause nie psuje starych plików
+    static int size() {
+        return 8 * 3 + 4 + 1 + 4 * CAUSES;
+    }
+
+    void write(ByteBuffer out) {
+        out.putLong(ticks).putLong(playNanos).putLong(apples).putInt(games);
+        out.put((byte) CAUSES);
+        for (int d : deaths) out.putInt(d);
+    }
+
+    void read(ByteBuffer in) {
+        clear();
+        ticks = in.getLong();
+        playNanos = in.getLong();
+        apples = in.getLong();
+        games = in.getInt();
+        int causes = in.get();
+        for (int i = 0; i < causes; i++) {
+            int d = in.getInt();
+            if (i < CAUSES) deaths[i] = d;
+        }
+    }
+}
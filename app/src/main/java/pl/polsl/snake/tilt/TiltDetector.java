@@ -0,0 +1,149 @@
+package pl.polsl.snake.tilt;
+
+import pl.polsl.snake.core.Input;
+
+// Gest przechylenia z akcelerometru. Dwie strony:
+// - wątek czujnika (onSample) tylko filtruje: dolnoprzepustowo tłumi drgania dłoni,
+//   a powoli płynąca linia bazowa (górnoprzepustowo) zdejmuje stałe nachylenie,
+//   pod którym gracz trzyma telefon; wynik publikuje jako jedną wartość volatile,
+// - wątek gry (sample) raz na tick podejmuje decyzję z histerezą: skręt pada, gdy
+//   przechylenie przekroczy próg wejścia, a następny w tę samą stronę dopiero po
+//   powrocie poniżej progu zwolnienia. Na przekątnej (żadna oś wyraźnie nie przeważa)
+//   nic się nie dzieje.
+// Kierunki jak w starym progu 3.0: +x w lewo, -x w prawo, +y w dół, -y w górę.
+public final class TiltDetector {
+
+    public static final float DEFAULT_ENTER = 3.0f;
+    public static final float DEFAULT_RELEASE = 1.5f;
+    // Przewaga dominującej osi nad drugą
+    public static final float DEFAULT_AXIS_RATIO = 1.5f;
+    // Linia bazowa dopasowuje się tylko, gdy telefon leży w tym promieniu od niej
+    public static final float DEFAULT_DEAD_ZONE = 1.0f;
+    public static final long DEFAULT_SMOOTHING_NANOS = 80_000_000L;
+    public static final long DEFAULT_BASELINE_NANOS = 3_000_000_000L;
+    // Po starcie gry pozycję neutralną wyznacza wygładzony sygnał z tego okna, nie jedna próbka
+    public static final long CALIBRATION_NANOS = 300_000_000L;
+
+    // Próbkowanie czujnika i najdłuższe opóźnienie paczki przy batchingu sprzętowym
+    public static final int SAMPLING_PERIOD_US = 20_000;
+    public static final int MAX_REPORT_LATENCY_US = 100_000;
+
+    private final float enter, release, axisRatio, deadZone;
+    private final long smoothingNanos, baselineNanos;
+
+    // Stan wątku czujnika
+    private boolean initialized;
+    private float smoothX, smoothY, baseX, baseY;
+    private long lastSampleNanos, calibratedAt;
+    private long samples;
+    private volatile boolean recalibrate = true;
+
+    // Przechylenie po filtrach: dwa floaty w jednym longu, żeby wątek gry nie zobaczył pół próbki
+    private volatile long published;
+    private volatile long publishedNanos;
+
+    // Stan wątku gry
+    private Input active = Input.NONE;
+    private long turns;
+
+    public TiltDetector() {
+        this(DEFAULT_ENTER, DEFAULT_RELEASE, DEFAULT_AXIS_RATIO, DEFAULT_DEAD_ZONE,
+                DEFAULT_SMOOTHING_NANOS, DEFAULT_BASELINE_NANOS);
+    }
+
+    public TiltDetector(float enter, float release, float axisRatio, float deadZone,
+                        long smoothingNanos, long baselineNanos) {
+        if (release > enter) throw new IllegalArgumentException("Próg zwolnienia wyższy niż próg wejścia");
+        this.enter = enter;
+        this.release = release;
+        this.axisRatio = axisRatio;
+        this.deadZone = deadZone;
+        this.smoothingNanos = smoothingNanos;
+        this.baselineNanos = baselineNanos;
+    }
+
+    // Paczka nie dłuższa niż tick, żeby batching nie dokładał więcej niż jednego ticku opóźnienia
+    public static int reportLatencyMicros(int ticksPerSecond) {
+        return Math.min(MAX_REPORT_LATENCY_US, 1_000_000 / Math.max(1, ticksPerSecond));
+    }
+
+    // Wątek czujnika. Próbki z jednej paczki przychodzą naraz, ale z własnymi czasami,
+    // więc filtr liczy stałe czasowe od znaczników, a nie od chwili dostarczenia.
+    public void onSample(float x, float y, long timestampNanos) {
+        samples++;
+        if (!initialized || recalibrate) {
+            // Pozycja w chwili startu gry jest neutralna
+            initialized = true;
+            recalibrate = false;
+            smoothX = baseX = x;
+            smoothY = baseY = y;
+            calibratedAt = timestampNanos + CALIBRATION_NANOS;
+        } else {
+            long dt = Math.max(0, timestampNanos - lastSampleNanos);
+            float a = (float) dt / (smoothingNanos + dt);
+            smoothX += a * (x - smoothX);
+            smoothY += a * (y - smoothY);
+            float tx = smoothX - baseX, ty = smoothY - baseY;
+            if (timestampNanos < calibratedAt) {
+                baseX = smoothX;
+                baseY = smoothY;
+            } else if (tx * tx + ty * ty < deadZone * deadZone) {
+                float b = (float) dt / (baselineNanos + dt);
+                baseX += b * tx;
+                baseY += b * ty;
+            }
+        }
+        lastSampleNanos = timestampNanos;
+        publishedNanos = timestampNanos;
+        published = pack(smoothX - baseX, smoothY - baseY);
+    }
+
+    // Wątek gry, raz na tick: nowy skręt albo NONE
+    public Input sample() {
+        long packed = published;
+        float tx = Float.intBitsToFloat((int) packed), ty = Float.intBitsToFloat((int) (packed >>> 32));
+        Input candidate = direction(tx, ty);
+        if (candidate != Input.NONE && candidate != active) {
+            active = candidate;
+            turns++;
+            return candidate;
+        }
+        if (active != Input.NONE && component(active, tx, ty) < release) active = Input.NONE;
+        return Input.NONE;
+    }
+
+    // Wątek gry (nowa gra): następna próbka wyznaczy nową pozycję neutralną, bieżący gest przepada
+    public void recalibrate() {
+        recalibrate = true;
+        published = 0;
+        active = Input.NONE;
+    }
+
+    // Czas najnowszej przefiltrowanej próbki (znacznik z czujnika)
+    public long getSampleNanos() { return publishedNanos; }
+
+    public float getTiltX() { return Float.intBitsToFloat((int) published); }
+    public float getTiltY() { return Float.intBitsToFloat((int) (published >>> 32)); }
+    public long getSamples() { return samples; }
+    public long getTurns() { return turns; }
+
+    private Input direction(float tx, float ty) {
+        float ax = Math.abs(tx), ay = Math.abs(ty);
+        if (ax >= enter && ax >= ay * axisRatio) return tx > 0 ? Input.LEFT : Input.RIGHT;
+        if (ay >= enter && ay >= ax * axisRatio) return ty > 0 ? Input.DOWN : Input.UP;
+        return Input.NONE;
+    }
+
+    private static float component(Input direction, float tx, float ty) {
+        switch (direction) {
+            case LEFT: return tx;
+            case RIGHT: return -tx;
+            case DOWN: return ty;
+            default: return -ty;
+        }
+    }
+
+    private static long pack(float x, float y) {
+        return Float.floatToRawIntBits(x) & 0xFFFFFFFFL | (long) Float.floatToRawIntBits(y) << 32;
+    }
+}
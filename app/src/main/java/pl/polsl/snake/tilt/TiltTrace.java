@@ -0,0 +1,224 @@
+package pl.polsl.snake.tilt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Rng;
+import pl.polsl.snake.profile.LatencyHistogram;
+
+// Zapis odczytów akcelerometru z oznaczonym zamiarem gracza - do strojenia TiltDetector na JVM.
+// Plik CSV, wiersz na próbkę: czas w ms, x, y, zamiar (U R D L albo - gdy telefon ma leżeć
+// spokojnie); wiersze od # to komentarze. replay() przepuszcza ślad przez detektor tak jak
+// gra - próbki, potem decyzja raz na tick - i liczy skręty fałszywe, pominięte gesty
+// oraz opóźnienie od początku gestu do ticku ze skrętem.
+//   java pl.polsl.snake.tilt.TiltTrace --trace=ślad.csv --tick-ms=100 --batch-ms=0,20,100
+//   java pl.polsl.snake.tilt.TiltTrace --synthetic=1 --gestures=200
+public final class TiltTrace {
+
+    private static final String USAGE = "Opcje: --trace=plik.csv | --synthetic=ziarno --gestures=N"
+            + " --tick-ms=N[,N...] --batch-ms=N[,N...] --write=plik.csv";
+    private static final String LABELS = "-URDL";
+
+    private int count;
+    private long[] nanos = new long[256];
+    private float[] xs = new float[256], ys = new float[256];
+    private Input[] intended = new Input[256];
+
+    public static final class Result {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public long ticks, turns, falseTurns, gestures, missed;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "gesty=%d skręty=%d fałszywe=%d pominięte=%d opóźnienie p50=%d ms p95=%d ms max=%d ms",
+                    gestures, turns, falseTurns, missed, latency.percentile(0.5) / 1_000_000,
+                    latency.percentile(0.95) / 1_000_000, latency.getMax() / 1_000_000);
+        }
+    }
+
+    public void add(long timeNanos, float x, float y, Input intent) {
+        if (count > 0 && timeNanos < nanos[count - 1]) throw new IllegalArgumentException("Czas próbek się cofa");
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+            xs = Arrays.copyOf(xs, count * 2);
+            ys = Arrays.copyOf(ys, count * 2);
+            intended = Arrays.copyOf(intended, count * 2);
+        }
+        nanos[count] = timeNanos;
+        xs[count] = x;
+        ys[count] = y;
+        intended[count] = intent;
+        count++;
+    }
+
+    public int size() { return count; }
+    public long getNanos(int i) { return nanos[i]; }
+    public float getX(int i) { return xs[i]; }
+    public float getY(int i) { return ys[i]; }
+    public Input getIntended(int i) { return intended[i]; }
+
+    public static TiltTrace read(BufferedReader in) throws IOException {
+        TiltTrace trace = new TiltTrace();
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split(",");
+            int label = f.length == 4 && f[3].trim().length() == 1 ? LABELS.indexOf(f[3].trim().charAt(0)) : -1;
+            if (label < 0) throw new IOException("Błędny wiersz " + lineNo + ": " + line);
+            trace.add((long) (Double.parseDouble(f[0]) * 1_000_000), Float.parseFloat(f[1]),
+                    Float.parseFloat(f[2]), Input.of(label));
+        }
+        return trace;
+    }
+
+    public void write(Writer out) throws IOException {
+        out.write("# ms,x,y,zamiar\n");
+        for (int i = 0; i < count; i++) {
+            out.write(String.format(Locale.ROOT, "%.3f,%.3f,%.3f,%c\n", nanos[i] / 1e6, xs[i], ys[i],
+                    LABELS.charAt(intended[i].ordinal())));
+        }
+    }
+
+    // Gra z tickiem co tickNanos. Przy batchNanos > 0 czujnik oddaje próbki paczkami,
+    // na koniec każdego okna batchNanos - tak jak przy maxReportLatencyUs.
+    public Result replay(TiltDetector detector, long tickNanos, long batchNanos) {
+        Result result = new Result();
+        if (count == 0) return result;
+        long start = nanos[0];
+        int delivered = 0, truth = 0;
+        Input gesture = Input.NONE;
+        long gestureStart = 0;
+        boolean answered = false;
+        for (long t = start; t <= nanos[count - 1]; t += tickNanos) {
+            while (delivered < count && deliveryTime(nanos[delivered], start, batchNanos) <= t) {
+                detector.onSample(xs[delivered], ys[delivered], nanos[delivered]);
+                delivered++;
+            }
+            while (truth + 1 < count && nanos[truth + 1] <= t) {
+                truth++;
+                if (intended[truth] != gesture) {
+                    if (gesture != Input.NONE && !answered) result.missed++;
+                    gesture = intended[truth];
+                    gestureStart = nanos[truth];
+                    answered = false;
+                    if (gesture != Input.NONE) result.gestures++;
+                }
+            }
+            result.ticks++;
+            Input turn = detector.sample();
+            if (turn == Input.NONE) continue;
+            result.turns++;
+            if (turn == gesture && !answered) {
+                answered = true;
+                result.latency.record(t - gestureStart);
+            } else {
+                result.falseTurns++;
+            }
+        }
+        if (gesture != Input.NONE && !answered) result.missed++;
+        return result;
+    }
+
+    private static long deliveryTime(long sampleNanos, long start, long batchNanos) {
+        if (batchNanos <= 0) return sampleNanos;
+        return start + (sampleNanos - start + batchNanos - 1) / batchNanos * batchNanos;
+    }
+
+    // Ślad udający prawdziwy: telefon trzymany pod kątem, drżenie dłoni, pojedyncze szarpnięcia
+    // (krok, stuknięcie w ekran; do 40 ms) i gesty - narastanie 150 ms, przytrzymanie 500 ms, powrót.
+    public static TiltTrace synthetic(long seed, int gestures, long samplePeriodNanos) {
+        Rng rng = new Rng(seed);
+        TiltTrace trace = new TiltTrace();
+        float restX = 0.3f, restY = 4.0f;
+        long t = 0;
+        int spike = 0;
+        float spikeX = 0, spikeY = 0;
+        for (int g = 0; g <= gestures; g++) {
+            long neutral = 1_500_000_000L + rng.nextInt(1_500) * 1_000_000L;
+            long ramp = 150_000_000L, hold = 500_000_000L;
+            long gestureNanos = g < gestures ? 2 * ramp + hold : 0;
+            Input dir = Input.of(1 + rng.nextInt(4));
+            float amplitude = 5.0f + rng.nextInt(20) / 10f;
+            for (long e = 0; e < neutral + gestureNanos; e += samplePeriodNanos, t += samplePeriodNanos) {
+                float x = restX + 0.6f * gaussian(rng), y = restY + 0.6f * gaussian(rng);
+                if (spike == 0 && rng.nextInt(100) < 2) {
+                    spike = 1 + rng.nextInt(2);
+                    float s = (rng.nextInt(2) == 0 ? -1 : 1) * (4.0f + rng.nextInt(20) / 10f);
+                    spikeX = rng.nextInt(2) == 0 ? s : 0;
+                    spikeY = spikeX == 0 ? s : 0;
+                }
+                if (spike > 0) {
+                    spike--;
+                    x += spikeX;
+                    y += spikeY;
+                }
+                Input intent = Input.NONE;
+                if (e >= neutral) {
+                    long p = e - neutral;
+                    float level = p < ramp ? (float) p / ramp
+                            : p < ramp + hold ? 1f : 1f - (float) (p - ramp - hold) / ramp;
+                    float v = amplitude * level;
+                    switch (dir) {
+                        case LEFT: x += v; break;
+                        case RIGHT: x -= v; break;
+                        case DOWN: y += v; break;
+                        default: y -= v; break;
+                    }
+                    intent = dir;
+                }
+                trace.add(t, x, y, intent);
+            }
+        }
+        return trace;
+    }
+
+    private static float gaussian(Rng rng) {
+        double u = ((rng.nextLong() >>> 11) + 1) * 0x1.0p-53, v = (rng.nextLong() >>> 11) * 0x1.0p-53;
+        return (float) (Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        TiltTrace trace;
+        if (options.containsKey("trace")) {
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(options.get("trace")), StandardCharsets.UTF_8)) {
+                trace = read(in);
+            }
+        } else {
+            trace = synthetic(Long.parseLong(options.getOrDefault("synthetic", "1")),
+                    Integer.parseInt(options.getOrDefault("gestures", "100")), TiltDetector.SAMPLING_PERIOD_US * 1000L);
+        }
+        String out = options.get("write");
+        if (out != null) {
+            try (Writer w = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+                trace.write(w);
+            }
+        }
+        System.out.println("# próbki=" + trace.size());
+        for (String tick : options.getOrDefault("tick-ms", "100").split(",")) {
+            for (String batch : options.getOrDefault("batch-ms", "0").split(",")) {
+                Result r = trace.replay(new TiltDetector(), Long.parseLong(tick) * 1_000_000, Long.parseLong(batch) * 1_000_000);
+                System.out.println("tick=" + tick + "ms batch=" + batch + "ms\t" + r);
+            }
+        }
+    }
+}
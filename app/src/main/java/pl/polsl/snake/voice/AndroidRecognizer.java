@@ -0,0 +1,96 @@
+package pl.polsl.snake.voice;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.speech.RecognitionListener;
+import android.speech.RecognizerIntent;
+import android.speech.SpeechRecognizer;
+import java.util.ArrayList;
+
+// SpeechRecognizer tworzony raz i używany do kolejnych wypowiedzi. Z wyników bierzemy
+// tylko najlepszą hipotezę - pozostałe to warianty tego samego i dublowałyby komendy.
+// Nic nie powstaje w konstruktorze: intencja i połączenie z usługą przy prepare()
+// albo pierwszym startListening(), więc gra bez głosu nie płaci za nie przy starcie.
+public final class AndroidRecognizer implements Recognizer, RecognitionListener {
+
+    private final Context context;
+    private Intent intent;
+    private Listener listener;
+    private SpeechRecognizer recognizer;
+
+    public AndroidRecognizer(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void prepare() {
+        try {
+            connect();
+        } catch (RuntimeException e) {
+            // Brak usługi mowy - startListening() zgłosi błąd i kontroler ponowi
+        }
+    }
+
+    private void connect() {
+        if (intent == null) {
+            intent = new Intent(RecognizerIntent.ACTION_RECOGNIZE_SPEECH);
+            intent.putExtra(RecognizerIntent.EXTRA_LANGUAGE_MODEL, RecognizerIntent.LANGUAGE_MODEL_FREE_FORM);
+            intent.putExtra(RecognizerIntent.EXTRA_LANGUAGE, "pl-PL");
+            intent.putExtra(RecognizerIntent.EXTRA_PARTIAL_RESULTS, true);
+            intent.putExtra(RecognizerIntent.EXTRA_PREFER_OFFLINE, true);
+            intent.putExtra(RecognizerIntent.EXTRA_CALLING_PACKAGE, context.getPackageName());
+        }
+        if (recognizer == null) {
+            recognizer = SpeechRecognizer.createSpeechRecognizer(context);
+            recognizer.setRecognitionListener(this);
+        }
+    }
+
+    @Override
+    public void startListening() {
+        try {
+            connect();
+            recognizer.startListening(intent);
+        } catch (RuntimeException e) {
+            // Brak usługi mowy albo uprawnień - kontroler spróbuje ponownie z opóźnieniem
+            listener.onError(SpeechRecognizer.ERROR_CLIENT);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (recognizer != null) recognizer.cancel();
+    }
+
+    @Override
+    public void destroy() {
+        if (recognizer != null) {
+            recognizer.destroy();
+            recognizer = null;
+        }
+    }
+
+    @Override public void onReadyForSpeech(Bundle params) { listener.onReady(); }
+    @Override public void onBeginningOfSpeech() { listener.onSpeechStart(System.nanoTime()); }
+    @Override public void onPartialResults(Bundle partialResults) { deliver(partialResults, false); }
+    @Override public void onResults(Bundle results) { deliver(results, true); }
+    @Override public void onError(int error) { listener.onError(error); }
+    @Override public void onEndOfSpeech() {}
+    @Override public void onRmsChanged(float rmsdB) {}
+    @Override public void onBufferReceived(byte[] buffer) {}
+    @Override public void onEvent(int eventType, Bundle params) {}
+
+    private void deliver(Bundle bundle, boolean last) {
+        long now = System.nanoTime();
+        ArrayList<String> matches = bundle.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
+        String best = matches != null && !matches.isEmpty() ? matches.get(0) : "";
+        if (last) listener.onFinal(best, now);
+        else listener.onPartial(best, now);
+    }
+}
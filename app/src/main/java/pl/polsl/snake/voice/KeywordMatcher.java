@@ -0,0 +1,144 @@
+package pl.polsl.snake.voice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import pl.polsl.snake.core.Input;
+
+// Automat Aho-Corasick dla wszystkich słów-komend naraz: tekst przechodzimy raz,
+// znak po znaku, bez toLowerCase() i bez contains() dla każdego słowa.
+// Automat budujemy raz; findAll() niczego nie alokuje. Liczą się tylko całe słowa:
+// "up" w "grupa" ani "prawa" w "sprawa" nie są komendą.
+public final class KeywordMatcher {
+
+    // Polecenia i ich synonimy, także bez polskich znaków - rozpoznawanie mowy bywa niekonsekwentne
+    public static final String[][] DEFAULT_KEYWORDS = {
+            {"UP", "góra", "górę", "góry", "gora", "gore", "gory", "up"},
+            {"DOWN", "dół", "dołu", "dol", "dolu", "down"},
+            {"LEFT", "lewo", "lewa", "left"},
+            {"RIGHT", "prawo", "prawa", "right"},
+    };
+
+    // Przejścia stanu s: edgeChar/edgeTarget[edgeStart[s] .. edgeStart[s + 1])
+    private final int[] edgeStart;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final int[] fail;
+    // Najdłuższe słowo kończące się w stanie (także przez łańcuch fail) albo null, i jego długość
+    private final Input[] output;
+    private final int[] outputLength;
+
+    public static KeywordMatcher createDefault() {
+        Map<String, Input> keywords = new LinkedHashMap<>();
+        for (String[] group : DEFAULT_KEYWORDS) {
+            Input input = Input.valueOf(group[0]);
+            for (int i = 1; i < group.length; i++) keywords.put(group[i], input);
+        }
+        return new KeywordMatcher(keywords);
+    }
+
+    public KeywordMatcher(Map<String, Input> keywords) {
+        // Budowa drzewa na listach - raz, przy starcie
+        // Dla każdego stanu spłaszczone pary (znak, stan docelowy)
+        List<int[]> children = new ArrayList<>();
+        List<Input> out = new ArrayList<>();
+        List<Integer> depth = new ArrayList<>();
+        children.add(new int[0]);
+        out.add(null);
+        depth.add(0);
+        for (Map.Entry<String, Input> e : keywords.entrySet()) {
+            int s = 0;
+            String word = e.getKey().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < word.length(); i++) {
+                int next = child(children.get(s), word.charAt(i));
+                if (next < 0) {
+                    next = children.size();
+                    children.add(new int[0]);
+                    out.add(null);
+                    depth.add(depth.get(s) + 1);
+                    int[] c = children.get(s);
+                    int[] grown = Arrays.copyOf(c, c.length + 2);
+                    grown[c.length] = word.charAt(i);
+                    grown[c.length + 1] = next;
+                    children.set(s, grown);
+                }
+                s = next;
+            }
+            out.set(s, e.getValue());
+        }
+
+        int states = children.size();
+        edgeStart = new int[states + 1];
+        for (int s = 0; s < states; s++) edgeStart[s + 1] = edgeStart[s] + children.get(s).length / 2;
+        edgeChar = new char[edgeStart[states]];
+        edgeTarget = new int[edgeStart[states]];
+        for (int s = 0; s < states; s++) {
+            int[] c = children.get(s);
+            for (int i = 0; i < c.length / 2; i++) {
+                edgeChar[edgeStart[s] + i] = (char) c[i * 2];
+                edgeTarget[edgeStart[s] + i] = c[i * 2 + 1];
+            }
+        }
+
+        // Łącza fail wszerz: stan dziecka wskazuje najdłuższy właściwy sufiks będący w drzewie
+        fail = new int[states];
+        output = out.toArray(new Input[0]);
+        outputLength = new int[states];
+        for (int s = 0; s < states; s++) if (output[s] != null) outputLength[s] = depth.get(s);
+        int[] queue = new int[states];
+        int read = 0, write = 0;
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) queue[write++] = edgeTarget[e];
+        while (read < write) {
+            int s = queue[read++];
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                int t = edgeTarget[e];
+                int f = fail[s];
+                int next;
+                while ((next = step(f, edgeChar[e])) < 0 && f != 0) f = fail[f];
+                fail[t] = next >= 0 && next != t ? next : 0;
+                if (output[t] == null) {
+                    output[t] = output[fail[t]];
+                    outputLength[t] = outputLength[fail[t]];
+                }
+                queue[write++] = t;
+            }
+        }
+    }
+
+    private static int child(int[] pairs, char c) {
+        for (int i = 0; i < pairs.length; i += 2) if (pairs[i] == c) return pairs[i + 1];
+        return -1;
+    }
+
+    private int step(int state, char c) {
+        for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) if (edgeChar[e] == c) return edgeTarget[e];
+        return -1;
+    }
+
+    // Komendy w kolejności wystąpienia; zwraca ich liczbę (najwyżej out.length).
+    // Wielkość liter bez znaczenia. Trafienie liczy się, gdy przed i za słowem nie ma litery;
+    // inaczej automat idzie dalej ("dol" w "dolu" przechodzi w "dolu"). Po trafieniu startuje
+    // od nowa, więc jedno słowo daje jedną komendę.
+    public int findAll(CharSequence text, Input[] out) {
+        int found = 0, s = 0;
+        for (int i = 0, n = text.length(); i < n && found < out.length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(s, c)) < 0 && s != 0) s = fail[s];
+            s = next < 0 ? 0 : next;
+            if (output[s] != null && isWord(text, i + 1 - outputLength[s], i + 1)) {
+                out[found++] = output[s];
+                s = 0;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isWord(CharSequence text, int start, int end) {
+        return (start == 0 || !Character.isLetter(text.charAt(start - 1)))
+                && (end == text.length() || !Character.isLetter(text.charAt(end)));
+    }
+}
@@ -0,0 +1,33 @@
+package pl.polsl.snake.voice;
+
+// Źródło rozpoznanej mowy. Na urządzeniu to SpeechRecognizer (AndroidRecognizer),
+// w testach - atrapa podająca zaplanowane wyniki częściowe.
+public interface Recognizer {
+
+    // Kody błędów jak w android.speech.SpeechRecognizer
+    int ERROR_SPEECH_TIMEOUT = 6;
+    int ERROR_NO_MATCH = 7;
+    int ERROR_RECOGNIZER_BUSY = 8;
+
+    interface Listener {
+        void onReady();
+        void onSpeechStart(long nanos);
+        void onPartial(String text, long nanos);
+        void onFinal(String text, long nanos);
+        void onError(int error);
+    }
+
+    void setListener(Listener listener);
+
+    // Połączenie z usługą zawczasu (np. gdy gracz wybrał głos w menu), bez słuchania
+    default void prepare() {
+    }
+
+    // Kolejna wypowiedź w tej samej sesji - bez ponownego łączenia z usługą
+    void startListening();
+
+    void cancel();
+
+    // Zwalnia usługę; następne startListening() połączy się od nowa
+    void destroy();
+}
@@ -0,0 +1,64 @@
+package pl.polsl.snake.voice;
+
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.InputQueue;
+
+// Z kolejnych wyników częściowych jednej wypowiedzi przepuszcza do kolejki gry tylko
+// nowe komendy: "lewo", "lewo", "lewo pra", "lewo prawo" dają LEFT i RIGHT, nie cztery polecenia.
+// Znacznik czasu komendy to początek mowy (pierwsza komenda) albo poprzedni wynik
+// częściowy (kolejne), więc Steering mierzy opóźnienie od wypowiedzenia do skrętu.
+final class VoiceCommands {
+
+    private static final int MAX_COMMANDS = 32;
+
+    private final KeywordMatcher matcher;
+    private final InputQueue queue;
+    private final Input[] found = new Input[MAX_COMMANDS];
+    private int emitted;
+    private long speechStartNanos, lastPartialNanos;
+    private long commands, duplicates;
+
+    VoiceCommands(KeywordMatcher matcher, InputQueue queue) {
+        this.matcher = matcher;
+        this.queue = queue;
+    }
+
+    void onSpeechStart(long nanos) {
+        speechStartNanos = nanos;
+        lastPartialNanos = nanos;
+    }
+
+    void onPartial(CharSequence text, long nanos) {
+        emit(text, nanos);
+        lastPartialNanos = nanos;
+    }
+
+    void onFinal(CharSequence text, long nanos) {
+        emit(text, nanos);
+        endUtterance();
+    }
+
+    void endUtterance() {
+        emitted = 0;
+        speechStartNanos = 0;
+        lastPartialNanos = 0;
+    }
+
+    private void emit(CharSequence text, long nanos) {
+        int n = matcher.findAll(text, found);
+        if (n <= emitted) {
+            duplicates++;
+            return;
+        }
+        for (int i = emitted; i < n; i++) {
+            // Bez zgłoszonego początku mowy liczymy od chwili otrzymania wyniku
+            long onset = i == 0 ? speechStartNanos : lastPartialNanos;
+            queue.offer(found[i], onset != 0 ? onset : nanos);
+            commands++;
+        }
+        emitted = n;
+    }
+
+    long getCommands() { return commands; }
+    long getDuplicates() { return duplicates; }
+}
@@ -0,0 +1,136 @@
+package pl.polsl.snake.voice;
+
+import pl.polsl.snake.core.InputQueue;
+
+// Sesja rozpoznawania mowy utrzymywana przez całą grę. Po wyniku albo ciszy zaczynamy
+// następną wypowiedź na tym samym rozpoznawaczu (bez niszczenia i ponownego łączenia).
+// Prawdziwe błędy wznawiamy z rosnącym opóźnieniem, a po kilku z rzędu łączymy się od nowa.
+// Wszystkie metody na jednym wątku (na urządzeniu - główny wątek, jak wywołania zwrotne mowy).
+public final class VoiceController implements Recognizer.Listener {
+
+    // Opóźnione wznowienie; na urządzeniu Handler.postDelayed
+    public interface Scheduler {
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    public static final String STATUS_IDLE = "Czekam..";
+    public static final String STATUS_STARTING = "STARTUJĘ..";
+    public static final String STATUS_LISTENING = "SŁUCHAM!";
+    public static final String STATUS_HEARING = "SŁYSZĘ...";
+    public static final String STATUS_RETRYING = "PONAWIAM..";
+
+    static final long BASE_BACKOFF_MS = 100;
+    static final long MAX_BACKOFF_MS = 5_000;
+    // Po tylu błędach z rzędu zrywamy połączenie z usługą i zakładamy nowe
+    static final int RESET_AFTER_FAILURES = 3;
+
+    private final Recognizer recognizer;
+    private final Scheduler scheduler;
+    private final VoiceCommands commands;
+
+    private boolean active;
+    // Zaplanowane wznowienie jest ważne tylko, jeśli od tego czasu nie było stop()/start()
+    private int session;
+    private int failures;
+    private volatile String status = STATUS_IDLE;
+    private long restarts, resets, errors;
+
+    public VoiceController(Recognizer recognizer, Scheduler scheduler, KeywordMatcher matcher, InputQueue queue) {
+        this.recognizer = recognizer;
+        this.scheduler = scheduler;
+        this.commands = new VoiceCommands(matcher, queue);
+        recognizer.setListener(this);
+    }
+
+    public void start() {
+        if (active) return;
+        active = true;
+        session++;
+        failures = 0;
+        status = STATUS_STARTING;
+        recognizer.startListening();
+    }
+
+    // W menu, gdy wybrany jest głos: pierwsza komenda w grze nie czeka na połączenie z usługą
+    public void prewarm() {
+        if (!active) recognizer.prepare();
+    }
+
+    public void stop() {
+        if (!active) return;
+        active = false;
+        session++;
+        commands.endUtterance();
+        recognizer.cancel();
+        status = STATUS_IDLE;
+    }
+
+    // Przy pauzie aplikacji: usługa mowy nie powinna trzymać mikrofonu w tle
+    public void release() {
+        stop();
+        recognizer.destroy();
+    }
+
+    @Override
+    public void onReady() {
+        status = STATUS_LISTENING;
+    }
+
+    @Override
+    public void onSpeechStart(long nanos) {
+        status = STATUS_HEARING;
+        commands.onSpeechStart(nanos);
+    }
+
+    @Override
+    public void onPartial(String text, long nanos) {
+        if (!active) return;
+        failures = 0;
+        commands.onPartial(text, nanos);
+    }
+
+    @Override
+    public void onFinal(String text, long nanos) {
+        if (!active) return;
+        failures = 0;
+        commands.onFinal(text, nanos);
+        listenAgain();
+    }
+
+    @Override
+    public void onError(int error) {
+        commands.endUtterance();
+        if (!active) return;
+        // Cisza albo niezrozumiała wypowiedź to zwykły koniec wypowiedzi, nie awaria
+        if (error == Recognizer.ERROR_NO_MATCH || error == Recognizer.ERROR_SPEECH_TIMEOUT) {
+            listenAgain();
+            return;
+        }
+        errors++;
+        failures++;
+        status = STATUS_RETRYING;
+        if (error == Recognizer.ERROR_RECOGNIZER_BUSY) recognizer.cancel();
+        if (failures >= RESET_AFTER_FAILURES) {
+            recognizer.destroy();
+            resets++;
+        }
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(failures - 1, 16));
+        int scheduledSession = session;
+        scheduler.schedule(() -> {
+            if (active && session == scheduledSession) listenAgain();
+        }, delay);
+    }
+
+    private void listenAgain() {
+        restarts++;
+        recognizer.startListening();
+    }
+
+    public String getStatus() { return status; }
+    public boolean isActive() { return active; }
+    public long getCommands() { return commands.getCommands(); }
+    public long getDuplicates() { return commands.getDuplicates(); }
+    public long getRestarts() { return restarts; }
+    public long getResets() { return resets; }
+    public long getErrors() { return errors; }
+}
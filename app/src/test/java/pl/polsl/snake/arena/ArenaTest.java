@@ -0,0 +1,139 @@
+package pl.polsl.snake.arena;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import pl.polsl.snake.core.Heading;
+
+public class ArenaTest {
+
+    private final ArenaConfig config = new ArenaConfig(120, 120, 300, 400, 4, 20);
+
+    @Test
+    public void resultDoesNotDependOnThreadCount() {
+        Arena single = new Arena(config, 5, 1);
+        Arena parallel = new Arena(config, 5, 4);
+        try {
+            assertEquals(single.checksum(), parallel.checksum());
+            for (int t = 0; t < 500; t++) {
+                single.step();
+                parallel.step();
+                assertEquals("tick " + single.getTick(), single.checksum(), parallel.checksum());
+            }
+            assertEquals(single.getBodyDeaths(), parallel.getBodyDeaths());
+            assertEquals(single.getHeadOnDeaths(), parallel.getHeadOnDeaths());
+            assertEquals(single.getApplesEaten(), parallel.getApplesEaten());
+            // Arena żyje: węże jedzą, giną i wracają
+            assertTrue(single.getApplesEaten() > 0);
+            assertTrue(single.getBodyDeaths() + single.getHeadOnDeaths() + single.getWallDeaths() > 0);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void ownerGridMatchesBodies() {
+        Arena arena = new Arena(config, 9, 1);
+        for (int t = 0; t < 300; t++) {
+            arena.step();
+            int[] seen = new int[config.width * config.height];
+            int alive = 0;
+            for (int i = 0; i < arena.getSnakeCount(); i++) {
+                ArenaSnake s = arena.getSnake(i);
+                if (!s.isAlive()) {
+                    assertEquals(0, s.getLength());
+                    continue;
+                }
+                alive++;
+                for (int k = 0; k < s.getLength(); k++) {
+                    int cell = s.getBody().get(k);
+                    assertEquals("pole zajęte dwa razy", 0, seen[cell]);
+                    seen[cell] = i + 1;
+                }
+            }
+            assertEquals(alive, arena.getAlive());
+            for (int cell = 0; cell < seen.length; cell++) {
+                assertEquals(seen[cell] - 1, arena.ownerAt(cell % config.width, cell / config.width));
+                if (seen[cell] != 0) assertFalse(arena.isApple(cell % config.width, cell / config.width));
+            }
+        }
+    }
+
+    @Test
+    public void headsOnSameCellBothDie() {
+        Arena arena = new Arena(new ArenaConfig(20, 20, 3, 0, 2, 1000), 1, 1);
+        ArenaSnake a = arena.getSnake(0), b = arena.getSnake(1), c = arena.getSnake(2);
+        // a jedzie w prawo do (5,5), b w lewo też do (5,5); c daleko, prosto w dół
+        arena.place(a, Heading.RIGHT, cell(3, 5), cell(4, 5));
+        arena.place(b, Heading.LEFT, cell(7, 5), cell(6, 5));
+        arena.place(c, Heading.DOWN, cell(15, 1), cell(15, 2));
+        propose(a, Heading.RIGHT, cell(5, 5));
+        propose(b, Heading.LEFT, cell(5, 5));
+        propose(c, Heading.DOWN, cell(15, 3));
+        arena.resolve();
+
+        assertFalse(a.isAlive());
+        assertFalse(b.isAlive());
+        assertTrue(c.isAlive());
+        assertEquals(2, arena.getHeadOnDeaths());
+        assertEquals(-1, arena.ownerAt(4, 5));
+        // Z ciał zostają jabłka
+        assertTrue(arena.isApple(4, 5));
+        assertTrue(arena.isApple(6, 5));
+    }
+
+    @Test
+    public void movingIntoVacatedTailIsSafeButIntoBodyIsNot() {
+        Arena arena = new Arena(new ArenaConfig(20, 20, 2, 0, 2, 1000), 1, 1);
+        ArenaSnake a = arena.getSnake(0), b = arena.getSnake(1);
+        // b stoi pionowo, ogon w (5,4); a wjeżdża w ten ogon, który w tym ticku się zwalnia
+        arena.place(b, Heading.UP, cell(5, 4), cell(5, 3));
+        arena.place(a, Heading.UP, cell(4, 5), cell(4, 4));
+        propose(a, Heading.RIGHT, cell(5, 4));
+        propose(b, Heading.UP, cell(5, 2));
+        arena.resolve();
+        assertTrue(a.isAlive());
+        assertEquals(0, arena.ownerAt(5, 4));
+
+        // b zjada jabłko, więc jego ogon (5,3) zostaje na miejscu, a a w niego wjeżdża
+        arena.apples.add(cell(5, 1));
+        propose(a, Heading.UP, cell(5, 3));
+        propose(b, Heading.UP, cell(5, 1));
+        arena.resolve();
+        assertFalse(a.isAlive());
+        assertTrue(b.isAlive());
+        assertEquals(1, arena.getBodyDeaths());
+        assertEquals(3, b.getLength());
+        assertEquals(1, b.getScore());
+    }
+
+    @Test
+    public void wallKillsAndSnakeRespawns() {
+        Arena arena = new Arena(new ArenaConfig(20, 20, 1, 0, 2, 3), 1, 1);
+        ArenaSnake a = arena.getSnake(0);
+        arena.place(a, Heading.LEFT, cell(1, 5), cell(0, 5));
+        propose(a, Heading.LEFT, -1);
+        arena.resolve();
+        assertFalse(a.isAlive());
+        assertEquals(1, arena.getWallDeaths());
+        for (int t = 0; t < 3; t++) arena.step();
+        assertTrue(a.isAlive());
+        assertEquals(2, a.getLength());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooLongStart() {
+        new ArenaConfig(10, 10, 1, 0, 8, 0);
+    }
+
+    private static void propose(ArenaSnake s, Heading h, int cell) {
+        s.nextHeading = h;
+        s.nextCell = cell;
+    }
+
+    private static int cell(int x, int y) {
+        return y * 20 + x;
+    }
+}
@@ -0,0 +1,64 @@
+package pl.polsl.snake.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import pl.polsl.snake.core.DeathCause;
+
+public class BatchRunnerTest {
+
+    private final BatchConfig config = new BatchConfig(40, 80, 1f, 3, 10, 20_000);
+    private final BatchRunner single = new BatchRunner(1);
+    private final BatchRunner parallel = new BatchRunner(4);
+
+    @After
+    public void tearDown() {
+        single.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    public void resultDoesNotDependOnThreadCount() {
+        BatchStats a = single.run(config, GreedyPolicy::new, 7, 200);
+        BatchStats b = parallel.run(config, GreedyPolicy::new, 7, 200);
+        assertEquals(200, b.getGames());
+        assertEquals(a.getTicks(), b.getTicks());
+        assertEquals(a.getTotalScore(), b.getTotalScore());
+        assertEquals(a.getBestScore(), b.getBestScore());
+        for (DeathCause cause : DeathCause.values()) assertEquals(a.getDeaths(cause), b.getDeaths(cause));
+    }
+
+    @Test
+    public void randomPolicyIsRepeatableForSameSeeds() {
+        BatchStats a = parallel.run(config, () -> new RandomPolicy(8), 3, 100);
+        BatchStats b = parallel.run(config, () -> new RandomPolicy(8), 3, 100);
+        assertEquals(a.getTicks(), b.getTicks());
+        assertEquals(a.getTotalScore(), b.getTotalScore());
+    }
+
+    @Test
+    public void greedyBotOutscoresRandomTurns() {
+        BatchStats greedy = parallel.run(config, GreedyPolicy::new, 1, 100);
+        BatchStats random = parallel.run(config, () -> new RandomPolicy(8), 1, 100);
+        assertTrue(greedy.getMeanScore() > random.getMeanScore() * 5);
+    }
+
+    @Test
+    public void straightRunHitsWallOrTimesOut() {
+        // Głowa startuje w x = 20 i jedzie w prawo: 20 ticków do ściany
+        BatchStats wall = parallel.run(config, () -> ScriptedPolicy.parse("."), 0, 50);
+        assertEquals(50, wall.getDeaths(DeathCause.WALL));
+        assertEquals(50 * 20, wall.getTicks());
+
+        BatchConfig capped = new BatchConfig(40, 80, 1f, 3, 10, 10);
+        BatchStats timeout = parallel.run(capped, () -> ScriptedPolicy.parse("."), 0, 50);
+        assertEquals(50, timeout.getTimeouts());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownScriptCommand() {
+        ScriptedPolicy.parse("RX");
+    }
+}
@@ -0,0 +1,87 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AutopilotTest {
+
+    @Test
+    public void neverDiesOnSmallBoard() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Simulation sim = new Simulation(16, 16, seed);
+            Autopilot autopilot = new Autopilot();
+            for (int i = 0; i < 20_000; i++) {
+                sim.step(autopilot.next(sim));
+                sim.getChanges().clear();
+            }
+            assertFalse("ziarno " + seed + ": " + sim.getDeathCause(), sim.isDead());
+            assertTrue(sim.getScore() > 50);
+        }
+    }
+
+    @Test
+    public void avoidsTailThatStaysWhenAppleIsEatenFromNeighbourCell() {
+        // bobScale 3: jabłko znika, gdy głowa jest obok niego, i wtedy ogon zostaje na miejscu
+        int growingTicks = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            Simulation sim = new Simulation(16, 16, seed);
+            sim.setBobScale(3f);
+            sim.reset(seed);
+            Autopilot autopilot = new Autopilot();
+            for (int i = 0; i < 20_000 && !sim.isDead(); i++) {
+                int tail = sim.getBody().tailCell();
+                boolean growing = sim.getLength() > 1 && sim.willGrow();
+                Input input = autopilot.next(sim);
+                Heading h = input.resolve(sim.getHeading());
+                if (h == null) h = sim.getHeading();
+                int nx = sim.getHeadX() + h.dx, ny = sim.getHeadY() + h.dy;
+                if (growing) {
+                    growingTicks++;
+                    assertFalse("ziarno " + seed + ", tick " + i + ": wjazd w ogon przy wolnym polu obok",
+                            ny * 16 + nx == tail && hasFreeNeighbour(sim));
+                }
+                sim.step(input);
+                sim.getChanges().clear();
+            }
+        }
+        assertTrue(growingTicks > 500);
+    }
+
+    private static boolean hasFreeNeighbour(Simulation sim) {
+        for (int d = 0; d < 4; d++) {
+            Heading h = Heading.of(d);
+            if (h == sim.getHeading().opposite()) continue;
+            int x = sim.getHeadX() + h.dx, y = sim.getHeadY() + h.dy;
+            if (x >= 0 && y >= 0 && x < sim.getWidth() && y < sim.getHeight() && !sim.isOccupied(x, y)) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void reusesPathWhileAppleStays() {
+        Simulation sim = new Simulation(200, 200, 3);
+        Autopilot autopilot = new Autopilot();
+        int steps = 0;
+        while (sim.getHeadX() != sim.getBobX() || sim.getHeadY() != sim.getBobY()) {
+            sim.step(autopilot.next(sim));
+            steps++;
+        }
+        // Jedno przeszukanie na całą drogę do jabłka, potem już tylko kolejne kroki
+        assertEquals(1, autopilot.getSearches());
+        assertEquals(steps - 1, autopilot.getReusedSteps());
+        assertEquals(0, autopilot.getFallbacks());
+    }
+
+    @Test
+    public void lonelyHeadNeverPlansReversal() {
+        // Wąż z jednego pola jedzie w prawo; zawrócenie w lewo Input.resolve by odrzucił
+        for (long seed = 1; seed <= 50; seed++) {
+            Simulation sim = new Simulation(12, 12, seed);
+            assertNotEquals(Input.LEFT, new Autopilot().next(sim));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class FreeCellsTest {
+
+    @Test
+    public void matchesHashSetUnderRandomUpdates() {
+        FreeCells free = new FreeCells(64);
+        Set<Integer> expected = new HashSet<>();
+        Rng rng = new Rng(5);
+        for (int i = 0; i < 20_000; i++) {
+            int cell = rng.nextInt(64);
+            if (rng.nextInt(2) == 0) {
+                free.add(cell);
+                expected.add(cell);
+            } else {
+                free.remove(cell);
+                expected.remove(cell);
+            }
+            assertEquals(expected.size(), free.size());
+            assertEquals(expected.contains(cell), free.contains(cell));
+            if (!expected.isEmpty()) assertTrue(expected.contains(free.pick(rng)));
+        }
+    }
+
+    @Test
+    public void pickIsUniform() {
+        FreeCells free = new FreeCells(10);
+        for (int c = 0; c < 10; c++) free.add(c);
+        free.remove(3);
+        int[] hits = new int[10];
+        Rng rng = new Rng(1);
+        for (int i = 0; i < 90_000; i++) hits[free.pick(rng)]++;
+        assertEquals(0, hits[3]);
+        for (int c = 0; c < 10; c++) {
+            if (c != 3) assertTrue("pole " + c + ": " + hits[c], Math.abs(hits[c] - 10_000) < 600);
+        }
+    }
+
+    @Test
+    public void emptySetPicksNothing() {
+        FreeCells free = new FreeCells(4);
+        free.add(2);
+        free.clear();
+        assertEquals(-1, free.pick(new Rng(0)));
+        assertFalse(free.contains(2));
+    }
+
+    @Test
+    public void appleNeverSpawnsUnderSnake() {
+        Rng inputs = new Rng(3);
+        for (int game = 0; game < 500; game++) {
+            Simulation sim = new Simulation(12, 12, game);
+            sim.setAppleMargin(1);
+            sim.setBobScale(100f);
+            sim.reset(game);
+            while (!sim.isDead()) {
+                sim.step(Input.of(inputs.nextInt(7)));
+                if (sim.isDead() || sim.getBobX() < 0) break;
+                assertFalse(sim.isOccupied(sim.getBobX(), sim.getBobY()));
+                assertTrue(sim.getBobX() >= 1 && sim.getBobX() <= 10);
+                assertTrue(sim.getBobY() >= 1 && sim.getBobY() <= 10);
+            }
+        }
+    }
+}
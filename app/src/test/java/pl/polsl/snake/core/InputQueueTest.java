@@ -0,0 +1,81 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class InputQueueTest {
+
+    @Test
+    public void deliversInOrderAndRejectsWhenFull() {
+        InputQueue queue = new InputQueue(4);
+        assertTrue(queue.offer(Input.UP, 1));
+        assertTrue(queue.offer(Input.LEFT, 2));
+        assertTrue(queue.offer(Input.DOWN, 3));
+        assertTrue(queue.offer(Input.RIGHT, 4));
+        assertFalse(queue.offer(Input.UP, 5));
+        assertEquals(1, queue.getDropped());
+
+        assertEquals(Input.UP, queue.poll());
+        assertEquals(1, queue.getLastTimestamp());
+        assertEquals(Input.LEFT, queue.poll());
+        assertTrue(queue.offer(Input.TURN_LEFT, 6));
+        assertEquals(Input.DOWN, queue.poll());
+        assertEquals(Input.RIGHT, queue.poll());
+        assertEquals(Input.TURN_LEFT, queue.poll());
+        assertEquals(6, queue.getLastTimestamp());
+        assertNull(queue.poll());
+    }
+
+    // Producenci kodują w znaczniku czasu swój numer i numer kolejny polecenia.
+    // Nic nie może zginąć ani się zdublować, a kolejność od jednego producenta musi zostać zachowana.
+    @Test
+    public void survivesManyConcurrentProducers() throws InterruptedException {
+        final int producers = 6, perProducer = 200_000;
+        InputQueue queue = new InputQueue(64);
+        AtomicLong offered = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            final long id = p;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long seq = 0; seq < perProducer; seq++) {
+                    if (queue.offer(Input.of((int) (seq % 7)), (id << 32) | seq)) offered.incrementAndGet();
+                }
+                done.countDown();
+            });
+            t.start();
+        }
+
+        long[] lastSeq = new long[producers];
+        java.util.Arrays.fill(lastSeq, -1);
+        long received = 0;
+        start.countDown();
+        while (done.getCount() > 0 || received < offered.get()) {
+            Input input = queue.poll();
+            if (input == null) continue;
+            long stamp = queue.getLastTimestamp();
+            int id = (int) (stamp >>> 32);
+            long seq = stamp & 0xFFFFFFFFL;
+            assertTrue("kolejność producenta " + id, seq > lastSeq[id]);
+            assertEquals(Input.of((int) (seq % 7)), input);
+            lastSeq[id] = seq;
+            received++;
+        }
+
+        assertNull(queue.poll());
+        assertEquals(offered.get(), received);
+        assertEquals((long) producers * perProducer, received + queue.getDropped());
+    }
+}
@@ -0,0 +1,46 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import org.junit.Test;
+
+// Mapa zajętości musi dawać ten sam wynik co liniowe przeszukanie całego ciała
+public class SelfCollisionTest {
+
+    private static final int W = 20, H = 15;
+
+    @Test
+    public void bitmapMatchesLinearScanOnRandomGames() {
+        Rng inputs = new Rng(99);
+        int selfDeaths = 0;
+        for (int game = 0; game < 2_000; game++) {
+            Simulation sim = new Simulation(W, H, game);
+            sim.setBobScale(game % 2 == 0 ? 100f : 3f); // co druga gra: jabłko w każdym ticku
+            ArrayDeque<Integer> reference = new ArrayDeque<>();
+            reference.addFirst(sim.getHeadY() * W + sim.getHeadX());
+
+            while (!sim.isDead()) {
+                int x = sim.getHeadX(), y = sim.getHeadY();
+                int events = sim.step(Input.of(inputs.nextInt(7)));
+                DeathCause expected = linearScan(reference, x + sim.getHeading().dx, y + sim.getHeading().dy,
+                        (events & Simulation.EVENT_ATE) != 0);
+                assertEquals(expected, sim.getDeathCause());
+            }
+            if (sim.getDeathCause() == DeathCause.SELF) selfDeaths++;
+        }
+        assertTrue("za mało zderzeń z ogonem: " + selfDeaths, selfDeaths > 100);
+    }
+
+    private static DeathCause linearScan(ArrayDeque<Integer> body, int x, int y, boolean grow) {
+        if (x < 0 || x >= W || y < 0 || y >= H) return DeathCause.WALL;
+        if (!grow) body.removeLast();
+        int head = y * W + x;
+        for (int cell : body) {
+            if (cell == head) return DeathCause.SELF;
+        }
+        body.addFirst(head);
+        return DeathCause.NONE;
+    }
+}
@@ -0,0 +1,205 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class SimulationTest {
+
+    @Test
+    public void movesOneCellPerTickInHeadingDirection() {
+        Simulation sim = new Simulation(40, 60, 1);
+        int x = sim.getHeadX(), y = sim.getHeadY();
+        sim.step(Input.NONE);
+        assertEquals(x + 1, sim.getHeadX());
+        sim.step(Input.DOWN);
+        assertEquals(y + 1, sim.getHeadY());
+        assertEquals(Heading.DOWN, sim.getHeading());
+        assertEquals(2, sim.getTick());
+    }
+
+    @Test
+    public void rejectsReversalAndRedundantTurn() {
+        Simulation sim = new Simulation(40, 60, 1);
+        assertEquals(0, sim.step(Input.LEFT) & Simulation.EVENT_TURNED);
+        assertEquals(0, sim.step(Input.RIGHT) & Simulation.EVENT_TURNED);
+        assertEquals(Heading.RIGHT, sim.getHeading());
+        assertTrue((sim.step(Input.TURN_LEFT) & Simulation.EVENT_TURNED) != 0);
+        assertEquals(Heading.UP, sim.getHeading());
+    }
+
+    @Test
+    public void diesOnWall() {
+        Simulation sim = new Simulation(40, 60, 1);
+        int events = 0;
+        for (int i = 0; i < 40 && !sim.isDead(); i++) events = sim.step(Input.NONE);
+        assertTrue((events & Simulation.EVENT_DIED) != 0);
+        assertEquals(DeathCause.WALL, sim.getDeathCause());
+        assertEquals(0, sim.step(Input.NONE));
+    }
+
+    @Test
+    public void sameSeedAndInputsGiveSameGame() {
+        Simulation a = new Simulation(40, 60, 42), b = new Simulation(40, 60, 42);
+        Rng inputs = new Rng(7);
+        for (int i = 0; i < 10_000; i++) {
+            Input input = Input.of(inputs.nextInt(7));
+            assertEquals(a.step(input), b.step(input));
+            if (a.isDead()) {
+                a.reset(i);
+                b.reset(i);
+            }
+        }
+        assertEquals(a.getScore(), b.getScore());
+        assertEquals(a.getHeadX(), b.getHeadX());
+        assertEquals(a.getBobX(), b.getBobX());
+    }
+
+    @Test
+    public void eatingGrowsSnakeAndRespawnsApple() {
+        Simulation sim = new Simulation(40, 60, 3);
+        sim.setBobScale(100f); // jabłko w zasięgu z każdego pola
+        int events = sim.step(Input.NONE);
+        assertTrue((events & Simulation.EVENT_ATE) != 0);
+        assertEquals(1, sim.getScore());
+        assertEquals(2, sim.getLength());
+        assertFalse(sim.isDead());
+    }
+
+    @Test
+    public void applesStayInsideMargin() {
+        Simulation sim = new Simulation(40, 60, 5);
+        for (int seed = 0; seed < 1_000; seed++) {
+            sim.reset(seed);
+            assertTrue(sim.getBobX() >= 3 && sim.getBobX() < 37);
+            assertTrue(sim.getBobY() >= 3 && sim.getBobY() < 57);
+        }
+    }
+
+    @Test
+    public void reportsChangedCellsForIncrementalRendering() {
+        Simulation sim = new Simulation(40, 60, 1);
+        CellChanges changes = sim.getChanges();
+        assertTrue(changes.isOverflow()); // po resecie rysujemy całość
+        changes.clear();
+
+        int tail = sim.getBody().tailCell();
+        sim.step(Input.NONE);
+        assertEquals(2, changes.size());
+        assertEquals(tail, changes.get(0));
+        assertEquals(sim.getBody().headCell(), changes.get(1));
+
+        changes.clear();
+        sim.reset(2);
+        assertTrue(changes.isOverflow());
+    }
+
+    @Test
+    public void largeWorldStateGrowsWithSnakeNotArea() {
+        Simulation sim = new Simulation(2000, 2000, 9);
+        assertTrue(sim.isSparse());
+        assertEquals(1, sim.getLength());
+        int empty = sim.stateSize();
+        sim.setBobScale(Float.MAX_VALUE);
+        for (int i = 0; i < 500; i++) sim.step(Input.NONE);
+        assertFalse(sim.isDead());
+        assertEquals(501, sim.getLength());
+        assertEquals(empty + 4 * 500, sim.stateSize());
+        assertTrue(sim.getBody().capacity() < 1024);
+    }
+
+    @Test
+    public void largeWorldApplesLandOnFreeCellsInsideMargin() {
+        Simulation sim = new Simulation(600, 500, 4);
+        sim.setAppleMargin(5);
+        sim.setBobScale(3f);
+        sim.reset(4);
+        Autopilot autopilot = new Autopilot();
+        while (sim.getScore() < 20) {
+            sim.step(autopilot.next(sim));
+            assertFalse(sim.isDead());
+            assertTrue(sim.getBobX() >= 5 && sim.getBobX() < 595 && sim.getBobY() >= 5 && sim.getBobY() < 495);
+            assertFalse(sim.isOccupied(sim.getBobX(), sim.getBobY()));
+        }
+    }
+
+    @Test
+    public void largeWorldStateRoundTrips() {
+        Simulation a = new Simulation(2000, 2000, 3), b = new Simulation(2000, 2000, 77);
+        a.setBobScale(4f);
+        Rng inputs = new Rng(1);
+        for (int i = 0; i < 3_000 && !a.isDead(); i++) a.step(Input.of(inputs.nextInt(7)));
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(a.stateSize());
+        a.writeState(buffer);
+        buffer.flip();
+        b.readState(buffer);
+        for (int i = 0; i < 3_000; i++) {
+            Input input = Input.of(inputs.nextInt(7));
+            assertEquals(a.step(input), b.step(input));
+            assertEquals(a.getBobX(), b.getBobX());
+            assertEquals(a.getBobY(), b.getBobY());
+        }
+    }
+
+    @Test
+    public void corruptEnumOrdinalsAreRejectedAsBadState() {
+        Simulation a = new Simulation(30, 20, 3);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(a.stateSize());
+        a.writeState(buffer);
+        // Kierunek i przyczyna śmierci w nagłówku stanu (układ z writeState)
+        int headingAt = 4 * 3 + 8 + 4 * 2 + 4 * 4 + 4 * 2 + 1, causeAt = headingAt + 1 + 4 * 3 + 8;
+        for (int at : new int[] {headingAt, causeAt}) {
+            java.nio.ByteBuffer corrupt = java.nio.ByteBuffer.wrap(buffer.array().clone());
+            corrupt.put(at, (byte) 9);
+            try {
+                new Simulation(30, 20, 1).readState(corrupt);
+                fail("stan z bajtem " + at + " = 9 przyjęty");
+            } catch (IllegalArgumentException expected) {
+                // jak inne niezgodności stanu
+            }
+        }
+    }
+
+    @Test
+    public void corruptBodyLengthIsRejectedAsBadState() {
+        Simulation a = new Simulation(10, 10, 3);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(a.stateSize());
+        a.writeState(buffer);
+        // Długość ciała tuż przed polami ciała; ciało o jedno pole dłuższe niż plansza,
+        // z kompletem bajtów, żeby odczyt nie skończył się wcześniej na końcu bufora
+        int header = a.maxStateSize() - 4 * 100, lengthAt = header - 4 * 2;
+        for (int length : new int[] {101, -1}) {
+            java.nio.ByteBuffer corrupt = java.nio.ByteBuffer.allocate(header + 4 * 101);
+            corrupt.put(buffer.array(), 0, lengthAt).putInt(length);
+            for (int i = 0; i < 101; i++) corrupt.putInt(i % 100);
+            corrupt.flip();
+            try {
+                new Simulation(10, 10, 1).readState(corrupt);
+                fail("stan z ciałem długości " + length + " przyjęty");
+            } catch (IllegalArgumentException expected) {
+                // GameSnapshot.read zamienia to na false
+            }
+        }
+    }
+
+    @Test
+    public void willGrowPredictsLengthChange() {
+        Simulation sim = new Simulation(20, 20, 6);
+        sim.setBobScale(3f);
+        sim.reset(6);
+        Autopilot autopilot = new Autopilot();
+        int grown = 0;
+        for (int i = 0; i < 2_000 && !sim.isDead(); i++) {
+            boolean predicted = sim.willGrow();
+            int before = sim.getLength();
+            sim.step(autopilot.next(sim));
+            if (sim.getDeathCause() == DeathCause.WALL) break;
+            assertEquals("tick " + i, predicted, sim.getLength() > before);
+            if (predicted) grown++;
+        }
+        assertTrue(grown > 5);
+    }
+}
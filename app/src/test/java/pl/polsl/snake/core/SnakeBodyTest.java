@@ -0,0 +1,72 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+public class SnakeBodyTest {
+
+    @Test
+    public void matchesDequeAcrossWrapAround() {
+        SnakeBody body = new SnakeBody(7);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Rng rng = new Rng(11);
+        for (int i = 0; i < 10_000; i++) {
+            boolean push = expected.isEmpty() || (expected.size() < 7 && rng.nextInt(2) == 0);
+            if (push) {
+                body.pushHead(i);
+                expected.addFirst(i);
+            } else {
+                assertEquals((int) expected.removeLast(), body.popTail());
+            }
+            assertEquals(expected.size(), body.size());
+            Iterator<Integer> it = expected.iterator();
+            for (int s = 0; s < body.size(); s++) assertEquals((int) it.next(), body.get(s));
+        }
+    }
+
+    @Test
+    public void forEachVisitsHeadToTail() {
+        SnakeBody body = new SnakeBody(5);
+        for (int i = 0; i < 4; i++) body.pushHead(i);
+        body.popTail();
+        body.popTail();
+        body.pushHead(4);
+        body.pushHead(5);
+        List<Integer> seen = new ArrayList<>();
+        body.forEach(seen::add);
+        assertEquals(List.of(5, 4, 3, 2), seen);
+        assertEquals(5, body.headCell());
+        assertEquals(2, body.tailCell());
+    }
+
+    @Test
+    public void snakeGrowsPastTwoHundredSegments() {
+        Simulation sim = new Simulation(600, 10, 1);
+        sim.setBobScale(10_000f); // jabłko zjadane w każdym ticku
+        for (int i = 0; i < 280; i++) sim.step(Input.NONE);
+        assertEquals(281, sim.getLength());
+        assertTrue(!sim.isDead());
+        assertEquals(sim.getHeadX() - 280, sim.segmentX(280));
+    }
+
+    @Test
+    public void growsUpToMaxCapacityKeepingOrder() {
+        SnakeBody body = new SnakeBody(100, 4);
+        // Zawinięcie przed powiększeniem: głowa w środku tablicy
+        for (int i = 0; i < 3; i++) body.pushHead(i);
+        body.popTail();
+        body.popTail();
+        for (int i = 3; i <= 100; i++) body.pushHead(i);
+        assertEquals(99, body.size());
+        for (int s = 0; s < body.size(); s++) assertEquals(100 - s, body.get(s));
+        assertTrue(body.capacity() <= 100);
+        body.pushHead(101);
+        assertTrue(body.isFull());
+    }
+}
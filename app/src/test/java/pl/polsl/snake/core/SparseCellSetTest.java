@@ -0,0 +1,37 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class SparseCellSetTest {
+
+    @Test
+    public void matchesHashSetUnderRandomOperations() {
+        SparseCellSet set = new SparseCellSet();
+        Set<Integer> expected = new HashSet<>();
+        Rng rng = new Rng(5);
+        for (int i = 0; i < 200_000; i++) {
+            // Sąsiednie numery pól jak w ciele węża, żeby łańcuchy się zderzały
+            int cell = 4_000_000 - 1 - rng.nextInt(3_000);
+            switch (rng.nextInt(3)) {
+                case 0: set.set(cell); expected.add(cell); break;
+                case 1: set.clear(cell); expected.remove(cell); break;
+                default: assertEquals(expected.contains(cell), set.get(cell));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (int cell = 4_000_000 - 3_000; cell < 4_000_000; cell++) assertEquals(expected.contains(cell), set.get(cell));
+    }
+
+    @Test
+    public void memoryFollowsOccupiedCells() {
+        SparseCellSet set = new SparseCellSet();
+        for (int i = 0; i < 1000; i++) set.set(i * 2000);
+        for (int i = 0; i < 1000; i++) set.clear(i * 2000);
+        assertEquals(0, set.size());
+        assertEquals(2048, set.capacity());
+    }
+}
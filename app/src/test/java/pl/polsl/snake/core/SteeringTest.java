@@ -0,0 +1,59 @@
+package pl.polsl.snake.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SteeringTest {
+
+    private final InputQueue queue = new InputQueue(16);
+    private final Steering steering = new Steering(queue);
+
+    @Test
+    public void twoQuickTurnsAreSpreadOverTwoTicks() {
+        // Dwa skręty w prawo w jednym ticku: wcześniej RIGHT -> DOWN -> LEFT, czyli zawrócenie w ciało
+        queue.offer(Input.TURN_RIGHT, 0);
+        queue.offer(Input.TURN_RIGHT, 0);
+        assertEquals(Input.DOWN, steering.next(Heading.RIGHT, 0));
+        assertEquals(Input.LEFT, steering.next(Heading.DOWN, 0));
+        assertEquals(Input.NONE, steering.next(Heading.LEFT, 0));
+    }
+
+    @Test
+    public void validatesAgainstCommittedHeading() {
+        queue.offer(Input.LEFT, 0); // zawrócenie - odrzucone
+        queue.offer(Input.UP, 0);
+        queue.offer(Input.LEFT, 0); // po UP już poprawne, czeka na następny tick
+        assertEquals(Input.UP, steering.next(Heading.RIGHT, 0));
+        assertEquals(Input.LEFT, steering.next(Heading.UP, 0));
+        assertEquals(1, steering.getRejected());
+    }
+
+    @Test
+    public void buffersOnlyOneExtraTurn() {
+        queue.offer(Input.UP, 0);
+        queue.offer(Input.LEFT, 0);
+        queue.offer(Input.DOWN, 0);
+        assertEquals(Input.UP, steering.next(Heading.RIGHT, 0));
+        assertEquals(1, steering.getOverflowed());
+        assertEquals(Input.LEFT, steering.next(Heading.UP, 0));
+        assertEquals(Input.NONE, steering.next(Heading.LEFT, 0));
+    }
+
+    @Test
+    public void reportsLatencyFromCommandTimestamp() {
+        queue.offer(Input.UP, 1_000);
+        steering.next(Heading.RIGHT, 5_000);
+        assertEquals(4_000, steering.getLastLatencyNanos());
+    }
+
+    @Test
+    public void clearDropsPendingTurns() {
+        queue.offer(Input.UP, 0);
+        queue.offer(Input.LEFT, 0);
+        steering.next(Heading.RIGHT, 0);
+        queue.offer(Input.DOWN, 0);
+        steering.clear();
+        assertEquals(Input.NONE, steering.next(Heading.RIGHT, 0));
+    }
+}
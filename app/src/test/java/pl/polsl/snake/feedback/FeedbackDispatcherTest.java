@@ -0,0 +1,96 @@
+package pl.polsl.snake.feedback;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import pl.polsl.snake.core.Heading;
+
+public class FeedbackDispatcherTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final List<Feedback> vibrations = new ArrayList<>();
+    private final List<Feedback> tones = new ArrayList<>();
+    private final FeedbackDispatcher dispatcher = new FeedbackDispatcher(new FeedbackSink() {
+        @Override public void vibrate(Feedback feedback) { vibrations.add(feedback); }
+        @Override public void tone(Feedback feedback) { tones.add(feedback); }
+    });
+
+    @Test
+    public void playsOnlyHighestPriorityFromBatch() {
+        dispatcher.post(Feedback.WALL_NEAR);
+        dispatcher.post(Feedback.turn(Heading.LEFT));
+        dispatcher.post(Feedback.EAT);
+        dispatcher.drain(0);
+
+        assertEquals(List.of(Feedback.EAT), vibrations);
+        assertEquals(1, dispatcher.getPlayed());
+        assertEquals(2, dispatcher.getDropped());
+    }
+
+    @Test
+    public void mergesRepeatedPostsBeforeDrain() {
+        for (int i = 0; i < 5; i++) dispatcher.post(Feedback.APPLE_NEAR);
+        dispatcher.drain(0);
+
+        assertEquals(1, vibrations.size());
+        assertEquals(5, dispatcher.getPosted());
+        assertEquals(4, dispatcher.getMerged());
+    }
+
+    @Test
+    public void rateLimitsProximityWarningFiredEveryTick() {
+        // Przy ścianie przy 30 tickach/s ostrzeżenie przychodzi co 33 ms przez 3 sekundy
+        for (long t = 0; t < 3_000 * MS; t += 33 * MS) {
+            dispatcher.post(Feedback.WALL_NEAR);
+            dispatcher.drain(t);
+        }
+        assertEquals(10, vibrations.size());
+        assertEquals(91, dispatcher.getPosted());
+        assertEquals(81, dispatcher.getDropped());
+    }
+
+    @Test
+    public void deathVibrationSilencesWeakerEventsUntilItEnds() {
+        dispatcher.post(Feedback.DEATH);
+        dispatcher.drain(0);
+        dispatcher.post(Feedback.turn(Heading.UP));
+        dispatcher.drain(100 * MS);
+        dispatcher.post(Feedback.turn(Heading.UP));
+        dispatcher.drain(700 * MS);
+
+        assertEquals(List.of(Feedback.DEATH, Feedback.TURN_UP), vibrations);
+        assertEquals(1, dispatcher.getDropped());
+    }
+
+    @Test
+    public void respectsDisabledOutputs() {
+        dispatcher.setEnabled(false, true);
+        dispatcher.post(Feedback.EAT);
+        dispatcher.drain(0);
+        assertEquals(0, vibrations.size());
+        assertEquals(List.of(Feedback.EAT), tones);
+
+        dispatcher.setEnabled(false, false);
+        dispatcher.post(Feedback.DEATH);
+        assertEquals(1, dispatcher.getPosted());
+    }
+
+    @Test
+    public void workerThreadPlaysPostedEvents() throws InterruptedException {
+        List<Feedback> played = java.util.Collections.synchronizedList(new ArrayList<>());
+        FeedbackDispatcher threaded = new FeedbackDispatcher(new FeedbackSink() {
+            @Override public void vibrate(Feedback feedback) { played.add(feedback); }
+            @Override public void tone(Feedback feedback) { }
+        });
+        threaded.start();
+        threaded.post(Feedback.EAT);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (played.isEmpty() && System.nanoTime() < deadline) Thread.sleep(1);
+        threaded.stop();
+        assertEquals(List.of(Feedback.EAT), played);
+    }
+}
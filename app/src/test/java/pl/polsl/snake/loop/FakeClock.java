@@ -0,0 +1,27 @@
+package pl.polsl.snake.loop;
+
+// Sztuczny zegar: czekanie w Pacerze przesuwa czas i liczy się jako bezczynność
+final class FakeClock implements Clock, Pacer {
+
+    long now = 1_000_000_000L;
+    long idle;
+    int waits;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public void awaitUntil(long deadlineNanos) {
+        waits++;
+        if (deadlineNanos > now) {
+            idle += deadlineNanos - now;
+            now = deadlineNanos;
+        }
+    }
+
+    void advanceMillis(long millis) {
+        now += millis * 1_000_000L;
+    }
+}
@@ -0,0 +1,211 @@
+package pl.polsl.snake.loop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class FixedStepLoopTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final FakeClock clock = new FakeClock();
+    private final List<Long> tickTimes = new ArrayList<>();
+    private long workPerTickMillis;
+    private long stallAtTick = -1, stallMillis;
+    private int renders;
+
+    private final FixedStepLoop.Callback callback = new FixedStepLoop.Callback() {
+        @Override
+        public void tick() {
+            tickTimes.add(clock.now);
+            if (tickTimes.size() == stallAtTick) clock.advanceMillis(stallMillis);
+            clock.advanceMillis(workPerTickMillis);
+        }
+
+        @Override
+        public void render() {
+            renders++;
+        }
+    };
+
+    private FixedStepLoop loop(LoopMode mode, int ticksPerSecond) {
+        FixedStepLoop loop = new FixedStepLoop(mode, clock, clock, callback);
+        loop.setTicksPerSecond(ticksPerSecond);
+        return loop;
+    }
+
+    private void runFor(FixedStepLoop loop, long millis) throws InterruptedException {
+        long end = clock.now + millis * MS;
+        while (clock.now < end) loop.frame();
+    }
+
+    @Test
+    public void ticksAtFixedCadence() throws InterruptedException {
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        runFor(loop, 10_000);
+
+        // Pierwszy tick od razu, potem co 100 ms aż do końca włącznie
+        assertEquals(101, loop.getTicks());
+        for (int i = 1; i < tickTimes.size(); i++) {
+            assertEquals(100 * MS, tickTimes.get(i) - tickTimes.get(i - 1));
+        }
+        assertEquals(0, loop.getLateTicks());
+        assertEquals(0, loop.getSkippedTicks());
+    }
+
+    @Test
+    public void sleepsBetweenTicksInsteadOfSpinning() throws InterruptedException {
+        workPerTickMillis = 5;
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        runFor(loop, 10_000);
+
+        // Jedno wybudzenie na tick - nie ma aktywnego czekania
+        assertTrue(loop.getWakeups() <= loop.getTicks());
+        assertEquals(loop.getTicks(), loop.getFrames());
+        double idleShare = (double) clock.idle / (10_000 * MS);
+        assertTrue("bezczynność: " + idleShare, idleShare >= 0.94);
+    }
+
+    @Test
+    public void tickCadenceFollowsSpeedChange() throws InterruptedException {
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        runFor(loop, 1_000);
+        loop.setTicksPerSecond(30);
+        long before = loop.getTicks();
+        runFor(loop, 1_000);
+        long ticks = loop.getTicks() - before;
+        assertTrue("ticki: " + ticks, ticks >= 29 && ticks <= 31);
+    }
+
+    @Test
+    public void lateFrameCatchesUpWithinLimit() throws InterruptedException {
+        stallAtTick = 5;
+        stallMillis = 250;
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        runFor(loop, 2_000);
+
+        // Po 250 ms przestoju dwa ticki wypadają w jednej klatce
+        assertEquals(1, loop.getLateTicks());
+        assertEquals(0, loop.getSkippedTicks());
+        assertEquals(21, loop.getTicks());
+        assertTrue(loop.getFrames() < loop.getTicks());
+    }
+
+    @Test
+    public void reportsLatenessOfFrameAfterStall() throws InterruptedException {
+        stallAtTick = 5;
+        stallMillis = 250;
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        while (tickTimes.size() < 5) loop.frame();
+        assertEquals(0, loop.getLastLatenessNanos());
+
+        // Tick 6 miał ruszyć 100 ms po piątym, a przestój skończył się po 250 ms
+        loop.frame();
+        assertEquals(2, loop.getLastTicksRun());
+        assertEquals(150 * MS, loop.getLastLatenessNanos());
+    }
+
+    @Test
+    public void longStallSkipsTicksBeyondCatchUpLimit() throws InterruptedException {
+        stallAtTick = 5;
+        stallMillis = 1_000;
+        FixedStepLoop loop = loop(LoopMode.SLEEP, 10);
+        loop.setMaxCatchUp(3);
+        runFor(loop, 3_000);
+
+        // 10 zaległych ticków: 3 nadrobione, 7 opuszczonych
+        assertEquals(2, loop.getLateTicks());
+        assertEquals(7, loop.getSkippedTicks());
+        assertEquals(31, loop.getTicks() + loop.getSkippedTicks());
+    }
+
+    @Test
+    public void headlessRunsUnthrottled() throws InterruptedException {
+        FixedStepLoop loop = loop(LoopMode.HEADLESS, 10);
+        long start = clock.now;
+        for (int i = 0; i < 1_000; i++) loop.frame();
+
+        assertEquals(1_000, loop.getTicks());
+        assertEquals(1_000, renders);
+        assertEquals(0, clock.waits);
+        assertEquals(start, clock.now);
+    }
+
+    // Pacer jak VsyncPacer: wraca na "vsync" w okolicy terminu, także do pół klatki przed nim
+    private final class JitterPacer implements Pacer {
+        final long frameNanos = 16_666_667L;
+        final long[] offsets;
+        int waits, next;
+
+        JitterPacer(long... offsets) {
+            this.offsets = offsets;
+        }
+
+        @Override
+        public void awaitUntil(long deadlineNanos) {
+            waits++;
+            long wake = deadlineNanos + offsets[next++ % offsets.length];
+            if (wake > clock.now) clock.now = wake;
+        }
+
+        @Override
+        public long earlyWakeNanos() {
+            return frameNanos / 2;
+        }
+    }
+
+    private long emptyFrames(FixedStepLoop loop, long millis) throws InterruptedException {
+        long empty = 0, end = clock.now + millis * MS;
+        while (clock.now < end) {
+            loop.frame();
+            if (loop.getLastTicksRun() == 0) empty++;
+        }
+        return empty;
+    }
+
+    @Test
+    public void earlyWakeWithinToleranceRunsTheTick() throws InterruptedException {
+        JitterPacer pacer = new JitterPacer(-8 * MS, -3 * MS, -8 * MS);
+        FixedStepLoop loop = new FixedStepLoop(LoopMode.VSYNC, clock, pacer, callback);
+        loop.setTicksPerSecond(10);
+
+        // Każde wybudzenie to tick - żadnych pustych klatek ani ponownego czekania tuż przed terminem
+        assertEquals(0, emptyFrames(loop, 10_000));
+        assertEquals(loop.getTicks() - 1, pacer.waits);
+        // Wcześniejsza pobudka przesuwa kolejny termin, więc tempo się nie zmienia
+        assertTrue("ticki: " + loop.getTicks(), loop.getTicks() >= 100 && loop.getTicks() <= 102);
+        // Pojedynczy odstęp różni się od kroku najwyżej o tolerancję pacera
+        for (int i = 1; i < tickTimes.size(); i++) {
+            long gap = tickTimes.get(i) - tickTimes.get(i - 1);
+            assertTrue("odstęp " + gap, Math.abs(gap - 100 * MS) <= pacer.earlyWakeNanos());
+        }
+    }
+
+    @Test
+    public void jitterAroundDeadlineKeepsRateWithoutSpinning() throws InterruptedException {
+        JitterPacer pacer = new JitterPacer(-7 * MS, 5 * MS, -2 * MS, 8 * MS, 0, -8 * MS, 3 * MS);
+        FixedStepLoop loop = new FixedStepLoop(LoopMode.VSYNC, clock, pacer, callback);
+        loop.setTicksPerSecond(30);
+
+        assertEquals(0, emptyFrames(loop, 10_000));
+        assertTrue("ticki: " + loop.getTicks(), loop.getTicks() >= 299 && loop.getTicks() <= 302);
+        assertEquals(0, loop.getSkippedTicks());
+    }
+
+    @Test
+    public void earlyWakeBeyondToleranceWaitsAgain() throws InterruptedException {
+        // Pacer bez deklarowanej tolerancji: za wczesna pobudka to pusta klatka, ale bez zgubionych ticków
+        Pacer early = deadline -> {
+            clock.waits++;
+            clock.now = Math.max(clock.now, deadline - (clock.waits % 2 == 1 ? 20 * MS : 0));
+        };
+        FixedStepLoop loop = new FixedStepLoop(LoopMode.SLEEP, clock, early, callback);
+        loop.setTicksPerSecond(10);
+        runFor(loop, 10_000);
+        assertEquals(101, loop.getTicks());
+        for (int i = 1; i < tickTimes.size(); i++) assertEquals(100 * MS, tickTimes.get(i) - tickTimes.get(i - 1));
+    }
+}
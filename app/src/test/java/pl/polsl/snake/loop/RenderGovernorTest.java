@@ -0,0 +1,105 @@
+package pl.polsl.snake.loop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RenderGovernorTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final FakeClock clock = new FakeClock();
+    private final RenderGovernor governor = new RenderGovernor(clock);
+    private boolean boardVisible = true, changed = true;
+
+    private final FixedStepLoop.Callback callback = new FixedStepLoop.Callback() {
+        @Override
+        public void tick() {
+            governor.onTick();
+        }
+
+        @Override
+        public void render() {
+            if (!governor.shouldRender(boardVisible)) return;
+            governor.rendered(changed);
+        }
+    };
+
+    private final FixedStepLoop loop = new FixedStepLoop(LoopMode.SLEEP, clock, clock, callback);
+
+    private FixedStepLoop run(int ticksPerSecond, long millis) throws InterruptedException {
+        loop.setTicksPerSecond(ticksPerSecond);
+        long end = clock.now + millis * MS;
+        while (clock.now < end) loop.frame();
+        return loop;
+    }
+
+    @Test
+    public void withoutLimitsEveryTickIsShown() throws InterruptedException {
+        FixedStepLoop loop = run(10, 10_000);
+        assertEquals(101, governor.getTicks());
+        assertEquals(loop.getTicks(), governor.getTicks());
+        assertEquals(101, governor.getFrames());
+        assertEquals(1.0, governor.getFramesPerTick(), 0);
+        assertEquals(0, governor.getFrameCap());
+    }
+
+    @Test
+    public void unchangedFramesAreNotCountedAsShown() throws InterruptedException {
+        run(10, 1_000);
+        changed = false;
+        run(10, 1_000);
+        assertEquals(11, governor.getFrames());
+        assertEquals(10, governor.getUnchanged());
+        assertEquals(21, governor.getTicks());
+        // Pierwsza zmiana po ciszy idzie na ekran od razu
+        changed = true;
+        run(10, 100);
+        assertEquals(12, governor.getFrames());
+    }
+
+    @Test
+    public void hudOnlyModeRefreshesTwiceASecondWhileTicksStayExact() throws InterruptedException {
+        boardVisible = false;
+        FixedStepLoop loop = run(20, 10_000);
+        assertEquals(201, loop.getTicks());
+        assertEquals(201, governor.getTicks());
+        // Pierwsza klatka od razu, potem co 500 ms
+        assertEquals(21, governor.getFrames());
+        assertEquals(180, governor.getCapped());
+    }
+
+    @Test
+    public void thermalCapLimitsFramesNotTicks() throws InterruptedException {
+        governor.setThermalStatus(RenderGovernor.THERMAL_SEVERE);
+        assertEquals(RenderGovernor.THERMAL_SEVERE_FPS, governor.getFrameCap());
+        FixedStepLoop loop = run(30, 10_000);
+        assertEquals(loop.getTicks(), governor.getTicks());
+        assertEquals(0, loop.getSkippedTicks());
+        // Co drugi tick przy 30 tickach na sekundę
+        assertTrue(governor.getFrames() <= 10 * RenderGovernor.THERMAL_SEVERE_FPS + 1);
+        assertTrue(governor.getFrames() >= 10 * RenderGovernor.THERMAL_SEVERE_FPS - 1);
+    }
+
+    @Test
+    public void capFollowsSignals() {
+        governor.setPowerSave(true);
+        assertEquals(RenderGovernor.POWER_SAVE_FPS, governor.getFrameCap());
+        governor.setThermalStatus(RenderGovernor.THERMAL_LIGHT);
+        assertEquals(RenderGovernor.POWER_SAVE_FPS, governor.getFrameCap());
+        governor.setThermalStatus(RenderGovernor.THERMAL_SEVERE);
+        assertEquals(RenderGovernor.THERMAL_SEVERE_FPS, governor.getFrameCap());
+        governor.setThermalStatus(RenderGovernor.THERMAL_NONE);
+        governor.setPowerSave(false);
+        assertEquals(0, governor.getFrameCap());
+    }
+
+    @Test
+    public void slowTicksAreNotCappedBelowTickRate() throws InterruptedException {
+        // 10 ticków na sekundę przy limicie 30 fps - limit nic nie zabiera
+        governor.setPowerSave(true);
+        run(10, 5_000);
+        assertEquals(governor.getTicks(), governor.getFrames());
+    }
+}
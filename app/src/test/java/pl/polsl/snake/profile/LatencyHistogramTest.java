@@ -0,0 +1,47 @@
+package pl.polsl.snake.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import pl.polsl.snake.render.TextBuffer;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithinSixPercent() {
+        for (long v = 0; v < 1L << 41; v = v * 3 / 2 + 1) {
+            int i = LatencyHistogram.index(v);
+            long upper = LatencyHistogram.upperBound(i);
+            assertTrue(v + " -> " + upper, upper >= v && upper - v <= Math.max(1, v / 16));
+            if (i > 0) assertTrue(LatencyHistogram.upperBound(i - 1) < v);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesOfUniformSamples() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) h.record(i * 1_000L); // 1 us .. 10 ms
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000L, h.getMax());
+        assertEquals(5_000_000, h.percentile(0.50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, h.percentile(0.99), 9_900_000 / 16.0);
+        assertEquals(10_000_000L, h.percentile(1.0));
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.percentile(0.99));
+    }
+
+    @Test
+    public void overlayLineIsInMicroseconds() {
+        FrameProfiler profiler = new FrameProfiler();
+        for (int i = 0; i < 99; i++) profiler.record(FrameProfiler.Phase.TICK, 100_000);
+        profiler.record(FrameProfiler.Phase.TICK, 3_000_000);
+        TextBuffer line = profiler.appendLine(new TextBuffer(64), FrameProfiler.Phase.TICK);
+        // Percentyl to górna granica kubełka: 100 us leży w kubełku 98,3..102,4 us
+        assertEquals("tick 50%=102 99%=102 max=3000 us", line.toString());
+        assertTrue(profiler.summary().startsWith("phase"));
+    }
+}
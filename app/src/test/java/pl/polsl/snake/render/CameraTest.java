@@ -0,0 +1,45 @@
+package pl.polsl.snake.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CameraTest {
+
+    @Test
+    public void staysStillWhileHeadIsInsideMiddleFrame() {
+        Camera camera = new Camera();
+        camera.setView(30, 60);
+        camera.center(1000, 1000, 2000, 2000);
+        assertEquals(985, camera.getX());
+        assertEquals(970, camera.getY());
+        // Ramka to środkowa trzecia część: x od 995 do 1004
+        for (int x = 1000; x <= 1004; x++) assertFalse(camera.follow(x, 1000, 2000, 2000));
+        assertTrue(camera.follow(1005, 1000, 2000, 2000));
+        assertEquals(986, camera.getX());
+    }
+
+    @Test
+    public void neverShowsBeyondWorldEdge() {
+        Camera camera = new Camera();
+        camera.setView(30, 60);
+        camera.center(2, 1998, 2000, 2000);
+        assertEquals(0, camera.getX());
+        assertEquals(2000 - 60, camera.getY());
+        camera.follow(0, 1999, 2000, 2000);
+        assertEquals(0, camera.getX());
+        assertEquals(2000 - 60, camera.getY());
+    }
+
+    @Test
+    public void centersWorldSmallerThanView() {
+        Camera camera = new Camera();
+        camera.setView(30, 60);
+        camera.center(5, 5, 10, 10);
+        assertEquals(-10, camera.getX());
+        assertEquals(-25, camera.getY());
+        assertFalse(camera.follow(9, 0, 10, 10));
+    }
+}
@@ -0,0 +1,51 @@
+package pl.polsl.snake.render;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MenuLayoutTest {
+
+    @Test
+    public void hitsTilesDrawnAtLayoutPositions() {
+        MenuLayout m = new MenuLayout();
+        m.update(1080, 2200);
+        float left = 100, right = 900;
+        float mid = m.tileHeight / 2f;
+
+        assertEquals(MenuLayout.MODE_TOUCH, m.hit(left, m.controlRowY + mid));
+        assertEquals(MenuLayout.MODE_ACCELEROMETER, m.hit(right, m.controlRowY + mid));
+        assertEquals(MenuLayout.MODE_VOICE, m.hit(left, m.voiceRowY + mid));
+        assertEquals(MenuLayout.MODE_AUTOPILOT, m.hit(right, m.voiceRowY + mid));
+        assertEquals(MenuLayout.TOGGLE_VISUAL, m.hit(left, m.feedbackRowY + mid));
+        assertEquals(MenuLayout.TOGGLE_SOUND, m.hit(right, m.feedbackRowY + mid));
+        assertEquals(MenuLayout.TOGGLE_VIBRATION, m.hit(left, m.vibrationRowY + mid));
+        assertEquals(MenuLayout.TOGGLE_LARGE_WORLD, m.hit(right, m.vibrationRowY + mid));
+        assertEquals(MenuLayout.SPEED_DOWN, m.hit(left, m.speedRowY + mid));
+        assertEquals(MenuLayout.SCALE_UP, m.hit(right, m.scaleRowY + mid));
+        assertEquals(MenuLayout.START, m.hit(left, 2100));
+        assertEquals(MenuLayout.NONE, m.hit(left, m.controlHeaderY));
+    }
+
+    @Test
+    public void voiceAndVibrationRowsKeepGapBelowTile() {
+        MenuLayout m = new MenuLayout();
+        m.update(1080, 2200);
+        float gap = m.tileHeight + MenuLayout.PADDING / 2f;
+        assertEquals(MenuLayout.MODE_VOICE, m.hit(100, m.voiceRowY + gap));
+        assertEquals(MenuLayout.TOGGLE_VIBRATION, m.hit(100, m.vibrationRowY + gap));
+        assertEquals(MenuLayout.NONE, m.hit(100, m.controlRowY + gap));
+        assertEquals(MenuLayout.NONE, m.hit(100, m.speedRowY + gap));
+    }
+
+    @Test
+    public void recomputesOnlyWhenSizeChanges() {
+        MenuLayout m = new MenuLayout();
+        m.update(1080, 2200);
+        int startTop = m.startTop;
+        m.update(1080, 2200);
+        assertEquals(startTop, m.startTop);
+        m.update(720, 1500);
+        assertEquals(1500 - 180, m.startTop);
+    }
+}
@@ -0,0 +1,123 @@
+package pl.polsl.snake.render;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+import pl.polsl.snake.core.SnakeBody;
+
+public class SegmentBatchTest {
+
+    private static final int W = 10, BLOCK = 8;
+
+    private final SegmentBatch batch = new SegmentBatch();
+
+    // Od ogona do głowy, jak rośnie wąż
+    private static SnakeBody body(int... xy) {
+        SnakeBody body = new SnakeBody(W * W);
+        for (int i = 0; i < xy.length; i += 2) body.pushHead(xy[i + 1] * W + xy[i]);
+        return body;
+    }
+
+    @Test
+    public void straightSnakeIsOneRect() {
+        batch.clear().addBody(body(2, 3, 3, 3, 4, 3, 5, 3, 6, 3), W, 0, 0, BLOCK);
+        assertEquals(1, batch.getPrimitives());
+        assertEquals(5, batch.getCells());
+        // Linia przez środek wiersza 3, od lewej krawędzi pola 2 do prawej krawędzi pola 6
+        float[] l = batch.getLines();
+        assertEquals(2 * BLOCK, l[0], 0f);
+        assertEquals(3 * BLOCK + BLOCK / 2f, l[1], 0f);
+        assertEquals(7 * BLOCK, l[2], 0f);
+        assertEquals(3 * BLOCK + BLOCK / 2f, l[3], 0f);
+    }
+
+    @Test
+    public void turnsSplitIntoRunsWithoutOverlap() {
+        // Ogon (1,1) w prawo do (4,1), w dół do (4,4), w lewo do (2,4)
+        SnakeBody b = body(1, 1, 2, 1, 3, 1, 4, 1, 4, 2, 4, 3, 4, 4, 3, 4, 2, 4);
+        batch.clear().addBody(b, W, 0, 0, BLOCK);
+        assertEquals(3, batch.getPrimitives());
+        assertCovers(b);
+    }
+
+    @Test
+    public void staircaseFallsBackToOneRectPerCellPair() {
+        SnakeBody b = body(0, 0, 1, 0, 1, 1, 2, 1, 2, 2, 3, 2, 3, 3);
+        batch.clear().addBody(b, W, 0, 0, BLOCK);
+        assertEquals(4, batch.getPrimitives());
+        assertCovers(b);
+    }
+
+    @Test
+    public void rowEndsDoNotJoinAcrossWrap() {
+        // (9,0) i (0,1) to sąsiednie numery pól, ale nie sąsiednie pola
+        SnakeBody b = new SnakeBody(W * W);
+        b.pushHead(8);
+        b.pushHead(9);
+        b.pushHead(19);
+        batch.clear().addBody(b, W, 0, 0, BLOCK);
+        assertEquals(2, batch.getPrimitives());
+        assertCovers(b);
+    }
+
+    @Test
+    public void longGameBodyNeedsFarFewerRectsThanSegments() {
+        Simulation sim = new Simulation(40, 80, 3);
+        sim.setBobScale(Float.MAX_VALUE);
+        for (int i = 0; i < 300 && !sim.isDead(); i++) {
+            sim.step(i % 30 == 29 ? Input.TURN_RIGHT : Input.NONE);
+            sim.getChanges().clear();
+        }
+        batch.clear().addBody(sim.getBody(), sim.getWidth(), 0, 0, BLOCK);
+        assertEquals(sim.getLength(), batch.getCells());
+        assertEquals(true, batch.getPrimitives() * 10 < sim.getLength());
+    }
+
+    @Test
+    public void originShiftsCoordinatesInPixels() {
+        batch.clear().addBody(body(5, 5, 5, 6), W, 4, 5, BLOCK);
+        float[] l = batch.getLines();
+        assertEquals(4 + 5 * BLOCK + BLOCK / 2f, l[0], 0f);
+        assertEquals(5 + 5 * BLOCK, l[1], 0f);
+        assertEquals(5 + 7 * BLOCK, l[3], 0f);
+    }
+
+    @Test
+    public void originMatchesBoardRendererCellGeometry() {
+        // Plansza wyśrodkowana po obrocie: pasy 37 i 123 px. BoardRenderer maluje pole (x, y)
+        // w prostokącie od (originX + x * blockSize, originY + y * blockSize)
+        int ox = 37, oy = 123;
+        SnakeBody b = body(1, 1, 2, 1, 3, 1, 4, 1, 4, 2, 4, 3, 4, 4, 3, 4, 2, 4);
+        batch.clear().addBody(b, W, ox, oy, BLOCK);
+        assertCovers(b, ox, oy);
+    }
+
+    private void assertCovers(SnakeBody b) {
+        assertCovers(b, 0, 0);
+    }
+
+    // Linie zamienione z powrotem na pola: każde pole ciała dokładnie raz
+    private void assertCovers(SnakeBody b, int ox, int oy) {
+        int[] covered = new int[W * W];
+        float[] l = batch.getLines();
+        for (int i = 0; i < batch.size(); i += 4) {
+            boolean horizontal = l[i + 1] == l[i + 3];
+            float left = l[i] - ox, top = l[i + 1] - oy, right = l[i + 2] - ox, bottom = l[i + 3] - oy;
+            assertEquals(0f, (horizontal ? left : left - BLOCK / 2f) % BLOCK, 0f);
+            assertEquals(0f, (horizontal ? top - BLOCK / 2f : top) % BLOCK, 0f);
+            int x0 = (int) (horizontal ? left : left - BLOCK / 2f) / BLOCK;
+            int y0 = (int) (horizontal ? top - BLOCK / 2f : top) / BLOCK;
+            int x1 = horizontal ? (int) right / BLOCK - 1 : x0;
+            int y1 = horizontal ? y0 : (int) bottom / BLOCK - 1;
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) covered[y * W + x]++;
+            }
+        }
+        int total = 0;
+        for (int i = 0; i < b.size(); i++) assertEquals(1, covered[b.get(i)]);
+        for (int c : covered) total += c;
+        assertEquals(b.size(), total);
+    }
+}
@@ -0,0 +1,54 @@
+package pl.polsl.snake.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Klatka w stanie ustalonym (tick, geometria ciała, napisy HUD i menu, obsługa dotyku) nie może alokować
+public class SteadyStateAllocationTest {
+
+    private final Simulation sim = new Simulation(40, 80, 1);
+    private final TextBuffer text = new TextBuffer(128);
+    private final MenuLayout layout = new MenuLayout();
+    private final SegmentBatch batch = new SegmentBatch();
+    private final String voiceStatus = "SŁUCHAM!";
+    private int sink;
+
+    private void frame(int i) {
+        if (sim.isDead()) sim.reset(i);
+        sim.step((i & 7) == 0 ? Input.TURN_RIGHT : Input.NONE);
+        sim.getChanges().clear();
+        sink += batch.clear().addBody(sim.getBody(), sim.getWidth(), 0, 0, 24).size();
+
+        text.clear().append("Wynik: ").append(sim.getScore());
+        sink += text.length();
+        text.clear().append("Głos: ").append(voiceStatus);
+        sink += text.length();
+        text.clear().append("Szybkość: ").append(10 + (i & 7)).append(" | Skala: ").appendFixed1(0.5f + (i & 15) * 0.1f);
+        sink += text.length();
+        layout.update(1080, 2200);
+        sink += layout.hit(i % 1080, i % 2200);
+    }
+
+    @Test
+    public void steadyStateFramesAllocateNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        for (int i = 0; i < 200_000; i++) frame(i); // rozgrzewka JIT
+
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 100_000; i++) frame(i);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertEquals("bajty zaalokowane w 100 000 klatek", 0, allocated);
+    }
+}
@@ -0,0 +1,44 @@
+package pl.polsl.snake.render;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Locale;
+import org.junit.Test;
+
+public class TextBufferTest {
+
+    @Test
+    public void formatsIntegersLikeStringValueOf() {
+        TextBuffer text = new TextBuffer(32);
+        int[] values = {0, 7, 10, 99, 1234567, -5, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int v : values) assertEquals(String.valueOf(v), text.clear().append(v).toString());
+    }
+
+    @Test
+    public void formatsScaleLikeStringFormat() {
+        TextBuffer text = new TextBuffer(32, Locale.ROOT);
+        float scale = 0.5f;
+        for (int i = 0; i < 15; i++, scale += 0.1f) {
+            assertEquals(String.format(Locale.ROOT, "%.1f", scale), text.clear().appendFixed1(scale).toString());
+        }
+    }
+
+    @Test
+    public void usesLocaleDecimalSeparator() {
+        Locale polish = new Locale("pl", "PL");
+        TextBuffer text = new TextBuffer(32, polish);
+        assertEquals("1,0", text.appendFixed1(1.0f).toString());
+        float scale = 0.5f;
+        for (int i = 0; i < 15; i++, scale += 0.1f) {
+            assertEquals(String.format(polish, "%.1f", scale), text.clear().appendFixed1(scale).toString());
+        }
+    }
+
+    @Test
+    public void truncatesInsteadOfOverflowing() {
+        TextBuffer text = new TextBuffer(8);
+        text.append("Wynik: ").append(12345);
+        assertEquals("Wynik: ", text.toString());
+        assertEquals("Wynik: x", text.append("xyz").toString());
+    }
+}
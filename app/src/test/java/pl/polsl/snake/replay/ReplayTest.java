@@ -0,0 +1,205 @@
+package pl.polsl.snake.replay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import pl.polsl.snake.core.Autopilot;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Rng;
+import pl.polsl.snake.core.Simulation;
+
+public class ReplayTest {
+
+    private Path dir;
+    private final ReplayRecorder recorder = new ReplayRecorder(64);
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("replay");
+        recorder.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        recorder.stop();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    // Gra z losowymi skrętami; zwraca stan po każdym ticku (indeks = numer ticku)
+    private List<byte[]> recordGame(Path file, long seed, boolean withFooter) {
+        return recordGame(recorder, file, seed, withFooter, 30, 20);
+    }
+
+    private static List<byte[]> recordGame(ReplayRecorder recorder, Path file, long seed, boolean withFooter,
+                                           int width, int height) {
+        Simulation sim = new Simulation(width, height, seed);
+        sim.setBobScale(3f);
+        sim.reset(seed);
+        Rng inputs = new Rng(seed * 31);
+        List<byte[]> states = new ArrayList<>();
+        states.add(state(sim));
+        recorder.begin(file, sim);
+        while (!sim.isDead() && sim.getTick() < 2_000) {
+            int r = inputs.nextInt(10);
+            Input input = r < 7 ? Input.NONE : Input.of(r - 6);
+            // Omijamy ściany, żeby gra trwała kilka migawek
+            int nx = sim.getHeadX() + sim.getHeading().dx, ny = sim.getHeadY() + sim.getHeading().dy;
+            if (nx < 1 || ny < 1 || nx >= width - 1 || ny >= height - 1) input = Input.TURN_LEFT;
+            recorder.record(sim, input);
+            sim.step(input);
+            states.add(state(sim));
+        }
+        if (withFooter) recorder.end(sim);
+        recorder.stop();
+        return states;
+    }
+
+    private static byte[] state(Simulation sim) {
+        ByteBuffer buffer = ByteBuffer.allocate(sim.stateSize());
+        sim.writeState(buffer);
+        return buffer.array();
+    }
+
+    @Test
+    public void playbackMatchesRecordedGameBitForBit() throws IOException {
+        Path file = dir.resolve("a.snkr");
+        List<byte[]> states = recordGame(file, 5, true);
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            Simulation sim = reader.newSimulation();
+            int tick = 0;
+            assertArrayEquals(states.get(tick), state(sim));
+            while (reader.step(sim)) assertArrayEquals("tick " + ++tick, states.get(tick), state(sim));
+            assertEquals(states.size() - 1, tick);
+            assertTrue(reader.getSnapshotCount() > 3);
+        }
+    }
+
+    @Test
+    public void seeksToAnyTickFromNearestSnapshot() throws IOException {
+        Path file = dir.resolve("b.snkr");
+        List<byte[]> states = recordGame(file, 9, true);
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            Simulation sim = new Simulation(30, 20, 0);
+            int last = states.size() - 1;
+            for (int tick : new int[] {last, 0, 64, 65, last / 2, 1, last - 1}) {
+                reader.seek(sim, tick);
+                assertArrayEquals("tick " + tick, states.get(tick), state(sim));
+            }
+        }
+    }
+
+    @Test
+    public void readsFileWithoutFooterAfterCrash() throws IOException {
+        Path file = dir.resolve("c.snkr");
+        List<byte[]> states = recordGame(file, 11, false);
+        // Bez end() ostatni bufor nie trafił na dysk, a dopisany śmieć udaje urwany rekord
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[] {(byte) 0x87}));
+        }
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            Simulation sim = reader.newSimulation();
+            long end = reader.getEndTick();
+            assertTrue(end > 0);
+            reader.seek(sim, end);
+            assertArrayEquals(states.get((int) end), state(sim));
+        }
+    }
+
+    @Test
+    public void snapshotsLargerThanDefaultChunkPlayBack() throws IOException {
+        // 100x60 pól: migawka ~24 KB, więcej niż domyślny kawałek
+        assertTrue(new Simulation(100, 60, 1).stateSize() > 16 * 1024);
+        Path file = dir.resolve("e.snkr");
+        List<byte[]> states = recordGame(recorder, file, 13, true, 100, 60);
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            Simulation sim = reader.newSimulation();
+            int tick = 0;
+            while (reader.step(sim)) tick++;
+            assertEquals(states.size() - 1, tick);
+            assertArrayEquals(states.get(tick), state(sim));
+        }
+    }
+
+    @Test
+    public void abandonedRecordingClosesItsFile() throws IOException, InterruptedException {
+        Path fds = Paths.get("/proc/self/fd");
+        Assume.assumeTrue(Files.isDirectory(fds));
+        Path file = dir.resolve("f.snkr");
+        // Bez wątku zapisu kolejka się zapełnia i nagranie zostaje porzucone
+        ReplayRecorder stalled = new ReplayRecorder(1);
+        Simulation sim = new Simulation(30, 20, 4);
+        stalled.begin(file, sim);
+        Autopilot autopilot = new Autopilot();
+        for (int i = 0; i < 10_000 && stalled.getLostChunks() == 0 && !sim.isDead(); i++) {
+            Input input = autopilot.next(sim);
+            stalled.record(sim, input);
+            sim.step(input);
+        }
+        assertTrue(stalled.getLostChunks() > 0);
+        assertFalse(stalled.isRecording());
+        stalled.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (isOpen(fds, file)) {
+                assertTrue("plik porzuconego nagrania wciąż otwarty", System.nanoTime() < deadline);
+                Thread.sleep(5);
+            }
+        } finally {
+            stalled.stop();
+        }
+    }
+
+    private static boolean isOpen(Path fds, Path file) throws IOException {
+        try (Stream<Path> links = Files.list(fds)) {
+            for (Path fd : (Iterable<Path>) links::iterator) {
+                try {
+                    if (Files.readSymbolicLink(fd).equals(file)) return true;
+                } catch (IOException e) {
+                    // deskryptor zamknięty w międzyczasie
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void inputsTakeAboutOneByteEach() throws IOException {
+        Path file = dir.resolve("d.snkr");
+        Simulation sim = new Simulation(40, 40, 1);
+        ReplayRecorder sparse = new ReplayRecorder(1 << 30);
+        sparse.start();
+        sparse.begin(file, sim);
+        for (int i = 0; i < 15; i++) {
+            Input input = i % 2 == 0 ? Input.TURN_LEFT : Input.TURN_RIGHT;
+            sparse.record(sim, input);
+            sim.step(input);
+        }
+        sparse.end(sim);
+        sparse.stop();
+        int stateSize = new Simulation(40, 40, 1).stateSize();
+        long headerAndSnapshot = ReplayFormat.HEADER_BYTES + 1 + ReplayFormat.varLongSize(stateSize) + stateSize;
+        long footer = ReplayFormat.INDEX_ENTRY_BYTES + ReplayFormat.FOOTER_TAIL_BYTES;
+        // Skręt w kolejnym ticku to jeden bajt: varint((1 << 3) | rodzaj)
+        assertEquals(headerAndSnapshot + 15 + footer, Files.size(file));
+    }
+}
@@ -0,0 +1,188 @@
+package pl.polsl.snake.session;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+public class GameSnapshotTest {
+
+    private static Simulation playedGame() {
+        Simulation sim = new Simulation(40, 60, 17);
+        sim.setBobScale(30f);
+        sim.setAppleMargin(2);
+        sim.reset(17);
+        Input[] moves = {Input.NONE, Input.DOWN, Input.NONE, Input.LEFT, Input.NONE, Input.UP, Input.NONE, Input.RIGHT};
+        for (int i = 0; i < 120 && !sim.isDead(); i++) sim.step(moves[(i / 3) % moves.length]);
+        return sim;
+    }
+
+    private static GameSnapshot settings() {
+        GameSnapshot s = new GameSnapshot();
+        s.controlMode = 3;
+        s.gameState = 1;
+        s.vibrationEnabled = false;
+        s.soundEnabled = true;
+        s.gameVisible = true;
+        s.gameSpeed = 17;
+        s.appleMargin = 2;
+        s.bobScale = 1.3f;
+        return s;
+    }
+
+    private static ByteBuffer write(GameSnapshot snapshot, Simulation sim) {
+        ByteBuffer buffer = ByteBuffer.allocate(snapshot.size(sim));
+        snapshot.write(buffer, sim);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] state(Simulation sim) {
+        ByteBuffer buffer = ByteBuffer.allocate(sim.stateSize());
+        sim.writeState(buffer);
+        return buffer.array();
+    }
+
+    @Test
+    public void roundTripRestoresSettingsAndContinuesIdentically() {
+        Simulation original = playedGame();
+        assertTrue(original.getScore() > 0);
+        Simulation restored = new Simulation(40, 60, 99);
+        GameSnapshot loaded = new GameSnapshot();
+        assertTrue(loaded.read(write(settings(), original), restored));
+
+        assertEquals(3, loaded.controlMode);
+        assertEquals(1, loaded.gameState);
+        assertFalse(loaded.vibrationEnabled);
+        assertTrue(loaded.soundEnabled && loaded.gameVisible);
+        assertEquals(17, loaded.gameSpeed);
+        assertEquals(2, loaded.appleMargin);
+        assertEquals(1.3f, loaded.bobScale, 0f);
+        assertArrayEquals(state(original), state(restored));
+
+        // Dalsza gra (w tym losowanie jabłek) przebiega tak samo
+        for (int i = 0; i < 300; i++) {
+            Input input = i % 7 == 0 ? Input.TURN_LEFT : Input.NONE;
+            assertEquals(original.step(input), restored.step(input));
+        }
+        assertArrayEquals(state(original), state(restored));
+    }
+
+    @Test
+    public void rejectsOtherFormatVersion() {
+        ByteBuffer buffer = write(settings(), playedGame());
+        buffer.putInt(4, GameSnapshot.VERSION + 1);
+        GameSnapshot loaded = new GameSnapshot();
+        assertFalse(loaded.read(buffer, new Simulation(40, 60, 1)));
+        assertEquals(0, loaded.gameSpeed);
+    }
+
+    @Test
+    public void rejectsOtherBoardWithoutTouchingSimulation() {
+        Simulation other = new Simulation(30, 60, 1);
+        byte[] before = state(other);
+        assertFalse(new GameSnapshot().read(write(settings(), playedGame()), other));
+        assertArrayEquals(before, state(other));
+    }
+
+    @Test
+    public void restoresIntoDifferentScreenOnSavedBoard() {
+        // Zapis w pionie (40x60), odczyt po obrocie, gdy z ekranu wychodzi plansza 40x22
+        Simulation original = playedGame();
+        ByteBuffer buffer = write(settings(), original);
+        Simulation[] built = new Simulation[1];
+        GameSnapshot loaded = new GameSnapshot();
+        assertTrue(loaded.read(buffer, (big, w, h) -> {
+            Simulation screen = new Simulation(40, 22, 3);
+            built[0] = w == screen.getWidth() && h == screen.getHeight() ? screen : new Simulation(w, h, 3);
+            return built[0];
+        }));
+        Simulation restored = built[0];
+        assertEquals(40, restored.getWidth());
+        assertEquals(60, restored.getHeight());
+        assertArrayEquals(state(original), state(restored));
+        for (int i = 0; i < 200; i++) {
+            Input input = i % 5 == 0 ? Input.TURN_RIGHT : Input.NONE;
+            assertEquals(original.step(input), restored.step(input));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedData() {
+        ByteBuffer buffer = write(settings(), playedGame());
+        buffer.limit(buffer.limit() - 5);
+        assertFalse(new GameSnapshot().read(buffer, new Simulation(40, 60, 1)));
+    }
+
+    @Test
+    public void sessionFileSurvivesRestartOfReader() throws IOException {
+        Path dir = Files.createTempDirectory("session");
+        Path path = dir.resolve("session.bin");
+        try {
+            Simulation sim = new Simulation(40, 60, 5);
+            assertFalse(new SessionFile(path).load(new GameSnapshot(), sim));
+
+            Simulation original = playedGame();
+            new SessionFile(path).save(settings(), original);
+            GameSnapshot loaded = new GameSnapshot();
+            assertTrue(new SessionFile(path).load(loaded, sim));
+            assertEquals(17, loaded.gameSpeed);
+            assertArrayEquals(state(original), state(sim));
+            assertFalse(Files.exists(dir.resolve("session.bin.tmp")));
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void backgroundSaveIsReadByNextEngine() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("session");
+        Path path = dir.resolve("session.bin");
+        try {
+            // Stary silnik w onPause tylko oddaje migawkę, nowy po obrocie od razu ją czyta
+            SessionFile saving = SessionFile.shared(path);
+            Simulation original = playedGame();
+            saving.saveInBackground(settings(), original);
+            Simulation sim = new Simulation(40, 60, 5);
+            GameSnapshot loaded = new GameSnapshot();
+            SessionFile reading = SessionFile.shared(dir.resolve(".").resolve("session.bin"));
+            assertSame(saving, reading);
+            assertTrue(reading.load(loaded, sim));
+            assertEquals(17, loaded.gameSpeed);
+            assertArrayEquals(state(original), state(sim));
+            reading.awaitWritten();
+            assertEquals(1, reading.getWrites());
+            assertEquals(0, reading.getFailures());
+            assertFalse(Files.exists(dir.resolve("session.bin.tmp")));
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void largeWorldPicksSimulationOfMatchingSize() {
+        Simulation world = new Simulation(2000, 2000, 8);
+        for (int i = 0; i < 50; i++) world.step(Input.NONE);
+        GameSnapshot saved = settings();
+        saved.largeWorld = true;
+        ByteBuffer buffer = write(saved, world);
+
+        Simulation small = new Simulation(40, 60, 1), large = new Simulation(2000, 2000, 2);
+        GameSnapshot loaded = new GameSnapshot();
+        assertTrue(loaded.read(buffer, (big, w, h) -> big ? large : small));
+        assertTrue(loaded.largeWorld);
+        assertArrayEquals(state(world), state(large));
+        assertEquals(1, small.getTick() + 1);
+    }
+}
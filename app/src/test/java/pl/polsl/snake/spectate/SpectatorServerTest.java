@@ -0,0 +1,258 @@
+package pl.polsl.snake.spectate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.polsl.snake.core.Autopilot;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+public class SpectatorServerTest {
+
+    // Widz w JVM: czyta w swoim wątku i odbudowuje stan
+    private static final class Viewer implements AutoCloseable {
+        final SocketChannel channel;
+        final SpectatorView view = new SpectatorView();
+        final Thread reader;
+        volatile IOException error;
+
+        Viewer(int port) throws IOException {
+            channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            reader = new Thread(() -> {
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                try {
+                    while (channel.read(buffer) >= 0) {
+                        buffer.flip();
+                        synchronized (view) {
+                            view.consume(buffer);
+                        }
+                        buffer.compact();
+                    }
+                } catch (IOException e) {
+                    if (channel.isOpen()) error = e;
+                }
+            }, "viewer");
+            reader.start();
+        }
+
+        boolean matches(Simulation sim) {
+            synchronized (view) {
+                if (!view.isSynced() || view.getTick() != sim.getTick() || view.getScore() != sim.getScore()
+                        || view.getBobX() != sim.getBobX() || view.getBobY() != sim.getBobY()
+                        || view.isDead() != sim.isDead() || view.getLength() != sim.getLength()
+                        || view.getWidth() != sim.getWidth()) {
+                    return false;
+                }
+                for (int i = 0; i < sim.getLength(); i++) {
+                    if (view.getCell(i) != sim.getBody().get(i)) return false;
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+                reader.join(5_000);
+            } catch (IOException e) {
+                // wątek czytający i tak kończy się po zamknięciu
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private SpectatorServer server;
+    private int port;
+    private final Simulation sim = new Simulation(30, 40, 11);
+    private final Autopilot autopilot = new Autopilot();
+
+    @Before
+    public void setUp() throws InterruptedException {
+        server = new SpectatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                SpectatorServer.DEFAULT_CLIENT_BUFFER);
+        server.start();
+        port = server.awaitPort(5_000);
+        assertTrue(port > 0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("minął czas oczekiwania", System.nanoTime() < deadline);
+            Thread.sleep(2);
+        }
+    }
+
+    // Jak wątek gry: tick, publish, po śmierci nowa gra
+    private void play(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            if (sim.isDead()) {
+                sim.reset(i);
+                autopilot.invalidate();
+                server.invalidate();
+            }
+            sim.step(autopilot.next(sim));
+            server.publish(sim);
+        }
+    }
+
+    @Test
+    public void viewerRebuildsStateFromSnapshotAndDeltas() throws Exception {
+        play(50);
+        try (Viewer viewer = new Viewer(port)) {
+            await(() -> server.getClients() == 1);
+            play(2_000);
+            await(() -> viewer.matches(sim));
+            // Jedna migawka na dołączenie, reszta to delty (plus migawki po nowych grach)
+            assertTrue(viewer.view.getDeltas() > 1_500);
+            assertTrue(server.getBytesSent() < 2_000 * 16 + 4 * 1_000 * viewer.view.getSnapshots());
+        }
+    }
+
+    @Test
+    public void lateJoinerGetsOwnSnapshotWhileOthersKeepDeltas() throws Exception {
+        try (Viewer first = new Viewer(port)) {
+            await(() -> server.getClients() == 1);
+            play(300);
+            await(() -> first.matches(sim));
+            long firstSnapshots = first.view.getSnapshots();
+            try (Viewer second = new Viewer(port)) {
+                await(() -> server.getClients() == 2);
+                // Bez śmierci w tym odcinku pierwszy widz nie dostaje nowej migawki
+                sim.reset(5);
+                server.invalidate();
+                play(1);
+                await(() -> first.matches(sim) && second.matches(sim));
+                firstSnapshots = first.view.getSnapshots();
+                for (int i = 0; i < 20; i++) {
+                    sim.step(Input.NONE);
+                    server.publish(sim);
+                }
+                await(() -> first.matches(sim) && second.matches(sim));
+                assertEquals(firstSnapshots, first.view.getSnapshots());
+            }
+        }
+    }
+
+    @Test
+    public void snapshotOnViewerRequest() throws Exception {
+        try (Viewer viewer = new Viewer(port)) {
+            await(() -> server.getClients() == 1);
+            play(10);
+            await(() -> viewer.matches(sim));
+            long before = viewer.view.getSnapshots();
+            viewer.channel.write(ByteBuffer.wrap(new byte[]{SpectatorProtocol.REQUEST_SNAPSHOT}));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (viewer.view.getSnapshots() == before && System.nanoTime() < deadline) {
+                play(1);
+                Thread.sleep(1);
+            }
+            assertEquals(before + 1, viewer.view.getSnapshots());
+            await(() -> viewer.matches(sim));
+        }
+    }
+
+    @Test
+    public void viewersJoiningDuringPlayAllGetSnapshot() throws Exception {
+        Viewer[] viewers = new Viewer[8];
+        Thread joiner = new Thread(() -> {
+            try {
+                for (int i = 0; i < viewers.length; i++) {
+                    viewers[i] = new Viewer(port);
+                    Thread.sleep(i % 3);
+                }
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "joiner");
+        try {
+            joiner.start();
+            // Dołączenia wpadają między kolejne publish(); nikt nie może zostać bez migawki
+            while (joiner.isAlive() || server.getClients() < viewers.length) {
+                play(1);
+                Thread.sleep(1);
+            }
+            for (int i = 0; i < 10; i++) {
+                sim.step(Input.NONE);
+                server.publish(sim);
+                if (sim.isDead()) break;
+            }
+            for (Viewer v : viewers) await(() -> v.matches(sim));
+        } finally {
+            joiner.join(5_000);
+            for (Viewer v : viewers) {
+                if (v != null) v.close();
+            }
+        }
+    }
+
+    @Test
+    public void snapshotLargerThanClientBufferStillArrives() throws Exception {
+        server.stop();
+        server = new SpectatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.start();
+        port = server.awaitPort(5_000);
+        for (int i = 0; i < 20_000 && sim.getLength() < 400 && !sim.isDead(); i++) sim.step(autopilot.next(sim));
+        assertTrue(SpectatorProtocol.snapshotSize(sim) > 1024);
+        try (Viewer viewer = new Viewer(port)) {
+            await(() -> server.getClients() == 1);
+            server.invalidate();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!viewer.matches(sim) && System.nanoTime() < deadline) {
+                play(1);
+                Thread.sleep(1);
+            }
+            await(() -> viewer.matches(sim));
+            assertEquals(0, server.getDropped());
+            assertEquals(1, server.getClients());
+        }
+    }
+
+    @Test
+    public void slowViewerIsDroppedWithoutStallingPublish() throws Exception {
+        try (SocketChannel stalled = SocketChannel.open()) {
+            stalled.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            stalled.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            try (Viewer viewer = new Viewer(port)) {
+                await(() -> server.getClients() == 2);
+                // Długi wąż i same migawki, żeby szybko zapchać bufory widza, który nic nie czyta
+                for (int i = 0; i < 20_000 && sim.getLength() < 200 && !sim.isDead(); i++) sim.step(autopilot.next(sim));
+                long worst = 0;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (server.getDropped() == 0 && System.nanoTime() < deadline) {
+                    server.invalidate();
+                    long start = System.nanoTime();
+                    play(1);
+                    worst = Math.max(worst, System.nanoTime() - start);
+                    Thread.sleep(1);
+                }
+                assertEquals(1, server.getDropped());
+                assertEquals(1, server.getClients());
+                assertTrue("publish czekał " + worst / 1000 + " us", worst < TimeUnit.MILLISECONDS.toNanos(100));
+                play(100);
+                await(() -> viewer.matches(sim));
+                assertEquals(null, viewer.error);
+            }
+        }
+    }
+}
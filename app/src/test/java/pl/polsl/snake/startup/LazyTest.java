@@ -0,0 +1,96 @@
+package pl.polsl.snake.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class LazyTest {
+
+    private final AtomicInteger creations = new AtomicInteger();
+
+    @Test
+    public void nothingIsCreatedUntilFirstUse() {
+        Lazy<Object> lazy = new Lazy<>(() -> {
+            creations.incrementAndGet();
+            return new Object();
+        });
+        assertFalse(lazy.isCreated());
+        assertNull(lazy.peek());
+        assertEquals(0, lazy.getCreateNanos());
+        assertEquals(0, creations.get());
+
+        Object value = lazy.get();
+        assertSame(value, lazy.get());
+        assertSame(value, lazy.peek());
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    public void nullIsCachedLikeAnyValue() {
+        // Np. urządzenie bez akcelerometru - nie pytamy usługi przy każdym użyciu
+        Lazy<Object> lazy = new Lazy<>(() -> {
+            creations.incrementAndGet();
+            return null;
+        });
+        assertNull(lazy.get());
+        assertNull(lazy.get());
+        assertTrue(lazy.isCreated());
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    public void concurrentCallersShareOneCreation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Lazy<Object> lazy = new Lazy<>(() -> {
+            creations.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object();
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) results.add(pool.submit(lazy::get));
+            Thread.sleep(20);
+            release.countDown();
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> f : results) assertSame(first, f.get(5, TimeUnit.SECONDS));
+            assertEquals(1, creations.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void prewarmCreatesInBackgroundAndGetReusesIt() throws Exception {
+        Lazy<Thread> lazy = new Lazy<>(Thread::currentThread);
+        ExecutorService init = Executors.newSingleThreadExecutor();
+        try {
+            lazy.prewarm(init);
+            init.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertTrue(lazy.isCreated());
+            // Obiekt powstał na wątku inicjalizacji, nie na wywołującym get()
+            assertFalse(lazy.get() == Thread.currentThread());
+
+            // Po utworzeniu prewarm nic już nie zleca
+            lazy.prewarm(task -> { throw new AssertionError("zbędne zadanie"); });
+        } finally {
+            init.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package pl.polsl.snake.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StartupTraceTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void marksAreRelativeToStart() {
+        StartupTrace trace = new StartupTrace(100 * MS);
+        trace.mark("konstruktor", 103 * MS);
+        trace.mark("sesja", 108 * MS);
+        assertEquals(3 * MS, trace.getMarkNanos("konstruktor"));
+        assertEquals(8 * MS, trace.getMarkNanos("sesja"));
+        assertEquals(-1, trace.getMarkNanos("brak"));
+        assertEquals("konstruktor=3.0 ms sesja=8.0 ms", trace.summary());
+    }
+
+    @Test
+    public void onlyFirstFrameIsReported() {
+        StartupTrace trace = new StartupTrace(0);
+        assertFalse(trace.hasFirstFrame());
+        assertEquals(-1, trace.getTimeToFirstFrameNanos());
+        assertTrue(trace.firstFrame(41 * MS));
+        assertFalse(trace.firstFrame(57 * MS));
+        assertTrue(trace.hasFirstFrame());
+        assertEquals(41 * MS, trace.getTimeToFirstFrameNanos());
+        assertEquals(StartupTrace.FIRST_FRAME + "=41.0 ms", trace.summary());
+    }
+}
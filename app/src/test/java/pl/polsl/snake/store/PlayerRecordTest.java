@@ -0,0 +1,107 @@
+package pl.polsl.snake.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import pl.polsl.snake.core.DeathCause;
+
+public class PlayerRecordTest {
+
+    static PlayerRecord sample() {
+        PlayerRecord r = new PlayerRecord();
+        r.hasSettings = true;
+        r.controlMode = 2;
+        r.gameSpeed = 14;
+        r.appleMargin = 3;
+        r.bobScale = 1.2f;
+        r.vibrationEnabled = false;
+        r.soundEnabled = true;
+        r.gameVisible = true;
+        r.largeWorld = true;
+        r.lastScore = 7;
+        r.highScores.insert(7, 1000);
+        r.highScores.insert(12, 2000);
+        r.session.onGameStart();
+        r.session.onTick(100_000_000L);
+        r.session.onApple();
+        r.session.onDeath(DeathCause.WALL);
+        r.totals.add(r.session);
+        return r;
+    }
+
+    private static ByteBuffer write(PlayerRecord r) {
+        ByteBuffer buffer = ByteBuffer.allocate(PlayerRecord.SIZE);
+        r.write(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    public void roundTripKeepsEverything() {
+        ByteBuffer buffer = write(sample());
+        assertEquals(PlayerRecord.SIZE - 12 * (HighScores.CAPACITY - 2), buffer.remaining());
+        PlayerRecord r = new PlayerRecord();
+        assertTrue(r.read(buffer));
+        assertTrue(r.hasSettings);
+        assertEquals(2, r.controlMode);
+        assertEquals(14, r.gameSpeed);
+        assertEquals(1.2f, r.bobScale, 0);
+        assertFalse(r.vibrationEnabled);
+        assertTrue(r.largeWorld);
+        assertEquals(7, r.lastScore);
+        assertEquals(2, r.highScores.getCount());
+        assertEquals(12, r.highScores.getScore(0));
+        assertEquals(2000, r.highScores.getTimeMillis(0));
+        assertEquals(1, r.totals.getDeaths(DeathCause.WALL));
+        assertEquals(0, r.totals.getDeaths(DeathCause.SELF));
+        assertEquals(1, r.session.getTicks());
+    }
+
+    @Test
+    public void everyFlippedByteIsDetected() {
+        ByteBuffer clean = write(sample());
+        for (int i = 0; i < clean.limit(); i++) {
+            ByteBuffer damaged = ByteBuffer.allocate(clean.limit());
+            damaged.put(clean.duplicate()).flip();
+            damaged.put(i, (byte) (damaged.get(i) ^ 0x10));
+            assertFalse("bajt " + i, new PlayerRecord().read(damaged));
+        }
+    }
+
+    @Test
+    public void truncatedRecordIsRejected() {
+        ByteBuffer buffer = write(sample());
+        for (int cut = 0; cut < buffer.limit(); cut++) {
+            ByteBuffer part = buffer.duplicate();
+            part.limit(cut);
+            assertFalse(new PlayerRecord().read(part));
+        }
+    }
+
+    @Test
+    public void highScoresStaySortedAndBounded() {
+        HighScores hs = new HighScores();
+        for (int i = 0; i < 15; i++) hs.insert(i % 5 * 10, i);
+        assertEquals(HighScores.CAPACITY, hs.getCount());
+        for (int i = 1; i < hs.getCount(); i++) assertTrue(hs.getScore(i - 1) >= hs.getScore(i));
+        assertEquals(40, hs.getBest());
+        // Przy remisie wyżej zostaje starszy wynik
+        assertEquals(4, hs.getTimeMillis(0));
+        assertEquals(9, hs.getTimeMillis(1));
+        assertEquals(-1, hs.insert(0, 99));
+        assertEquals(0, hs.insert(50, 100));
+    }
+
+    @Test
+    public void applesPerMinuteCountsOnlyPlayTime() {
+        SessionStats stats = new SessionStats();
+        // 10 ticków na sekundę przez 30 s, 12 jabłek
+        for (int i = 0; i < 300; i++) stats.onTick(100_000_000L);
+        for (int i = 0; i < 12; i++) stats.onApple();
+        assertEquals(24.0, stats.getApplesPerMinute(), 1e-9);
+        assertEquals(0.0, new SessionStats().getApplesPerMinute(), 0);
+    }
+}
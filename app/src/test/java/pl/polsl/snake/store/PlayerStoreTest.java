@@ -0,0 +1,225 @@
+package pl.polsl.snake.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.polsl.snake.core.DeathCause;
+
+public class PlayerStoreTest {
+
+    // Długie okno: w testach zapis wymusza stop(), nie upływ czasu
+    private static final long LONG_DELAY_MS = 60_000;
+
+    private Path dir, file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("store");
+        file = dir.resolve("player.bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            for (int i = all.size() - 1; i >= 0; i--) Files.delete(all.get(i));
+        }
+    }
+
+    private PlayerStore started(long delayMillis) throws InterruptedException {
+        PlayerStore store = new PlayerStore(file, delayMillis);
+        CountDownLatch loaded = new CountDownLatch(1);
+        store.setOnLoaded(loaded::countDown);
+        store.start();
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        return store;
+    }
+
+    private static void stop(PlayerStore store) throws InterruptedException {
+        store.stop();
+        assertTrue(store.awaitStopped(5_000));
+    }
+
+    private static SessionStats ticks(int n) {
+        SessionStats stats = new SessionStats();
+        for (int i = 0; i < n; i++) stats.onTick(50_000_000L);
+        return stats;
+    }
+
+    @Test
+    public void rapidUpdatesCoalesceIntoOneWrite() throws Exception {
+        PlayerStore store = started(LONG_DELAY_MS);
+        PlayerRecord settings = PlayerRecordTest.sample();
+        for (int i = 0; i < 1000; i++) {
+            settings.gameSpeed = i % 30 + 1;
+            store.updateSettings(settings);
+            store.addStats(ticks(1));
+        }
+        store.recordScore(42, 1);
+        // Te same ustawienia drugi raz to nie zmiana
+        store.updateSettings(settings);
+        assertEquals(0, store.getWrites());
+        stop(store);
+        assertEquals(2001, store.getUpdates());
+        assertEquals(1, store.getWrites());
+
+        PlayerStore reopened = started(LONG_DELAY_MS);
+        PlayerRecord r = new PlayerRecord();
+        reopened.read(r);
+        assertEquals(999 % 30 + 1, r.gameSpeed);
+        assertEquals(42, r.highScores.getBest());
+        assertEquals(1000, r.previousSession.getTicks());
+        assertEquals(0, r.session.getTicks());
+        assertEquals(1000, r.totals.getTicks());
+        stop(reopened);
+        assertEquals(0, reopened.getWrites());
+    }
+
+    @Test
+    public void writesAfterFlushWindowWithoutStop() throws Exception {
+        PlayerStore store = started(20);
+        store.recordScore(5, 1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.getWrites() == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1, store.getWrites());
+        assertTrue(Files.exists(file));
+        stop(store);
+    }
+
+    @Test
+    public void interruptedWriteLeavesPreviousRecord() throws Exception {
+        PlayerStore store = started(LONG_DELAY_MS);
+        store.recordScore(10, 1);
+        stop(store);
+        byte[] before = Files.readAllBytes(file);
+
+        // "Awaria" w trakcie zapisu: pliku tymczasowego nie da się utworzyć
+        Path temp = dir.resolve("player.bin.tmp");
+        Files.createDirectory(temp);
+        store.start();
+        store.recordScore(20, 2);
+        stop(store);
+        assertEquals(1, store.getWrites());
+        assertEquals(1, store.getFailures());
+        assertArrayEquals(before, Files.readAllBytes(file));
+        assertEquals(20, store.getBestScore());
+
+        // Zmiana czeka w pamięci i trafia na dysk przy następnym starcie
+        Files.delete(temp);
+        store.start();
+        stop(store);
+        assertEquals(2, store.getWrites());
+        PlayerStore reopened = started(LONG_DELAY_MS);
+        assertEquals(20, reopened.getBestScore());
+        stop(reopened);
+    }
+
+    @Test
+    public void leftoverTempFileFromCrashIsIgnored() throws Exception {
+        PlayerStore store = started(LONG_DELAY_MS);
+        store.recordScore(10, 1);
+        stop(store);
+        // Proces zginął w połowie zapisu: ucięty plik tymczasowy obok całego rekordu
+        Files.write(dir.resolve("player.bin.tmp"), new byte[]{0x53, 0x4E, 0x4B});
+
+        PlayerStore reopened = started(LONG_DELAY_MS);
+        assertEquals(10, reopened.getBestScore());
+        assertEquals(0, reopened.getFailures());
+        reopened.recordScore(11, 2);
+        stop(reopened);
+        assertEquals(1, reopened.getWrites());
+        assertFalse(Files.exists(dir.resolve("player.bin.tmp")));
+    }
+
+    @Test
+    public void damagedFileStartsEmpty() throws Exception {
+        PlayerStore store = started(LONG_DELAY_MS);
+        store.recordScore(10, 1);
+        stop(store);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        PlayerStore reopened = started(LONG_DELAY_MS);
+        assertEquals(1, reopened.getFailures());
+        assertEquals(0, reopened.getBestScore());
+        assertFalse(reopened.readSettings(new PlayerRecord()));
+        stop(reopened);
+    }
+
+    @Test
+    public void sharedStoreOutlivesRecreatedOwner() throws Exception {
+        // Jak silnik po obrocie: stary zatrzymuje magazyn z zaległym zapisem, nowy od razu go bierze
+        PlayerStore first = PlayerStore.shared(file, LONG_DELAY_MS);
+        CountDownLatch loaded = new CountDownLatch(1);
+        first.setOnLoaded(loaded::countDown);
+        first.start();
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        first.recordScore(40, 1);
+        first.addStats(ticks(10));
+        first.stop();
+
+        PlayerStore second = PlayerStore.shared(dir.resolve(".").resolve("player.bin"), LONG_DELAY_MS);
+        assertSame(first, second);
+        CountDownLatch again = new CountDownLatch(1);
+        second.setOnLoaded(again::countDown);
+        assertEquals(0, again.getCount());
+        second.start();
+        second.addStats(ticks(5));
+        stop(second);
+
+        PlayerRecord r = new PlayerRecord();
+        second.read(r);
+        assertEquals(15, r.session.getTicks());
+        PlayerStore reopened = started(LONG_DELAY_MS);
+        reopened.read(r);
+        assertEquals(40, r.highScores.getBest());
+        assertEquals(15, r.totals.getTicks());
+        assertEquals(15, r.previousSession.getTicks());
+        stop(reopened);
+    }
+
+    @Test
+    public void changesBeforeLoadWinOverFile() throws Exception {
+        PlayerStore store = started(LONG_DELAY_MS);
+        PlayerRecord settings = PlayerRecordTest.sample();
+        store.updateSettings(settings);
+        store.recordScore(30, 1);
+        SessionStats died = new SessionStats();
+        died.onDeath(DeathCause.SELF);
+        store.addStats(died);
+        stop(store);
+
+        PlayerStore next = new PlayerStore(file, LONG_DELAY_MS);
+        settings.gameSpeed = 3;
+        next.updateSettings(settings);
+        next.recordScore(25, 2);
+        next.addStats(died);
+        next.start();
+        stop(next);
+        PlayerRecord r = new PlayerRecord();
+        next.read(r);
+        assertEquals(3, r.gameSpeed);
+        assertEquals(25, r.lastScore);
+        assertEquals(2, r.highScores.getCount());
+        assertEquals(30, r.highScores.getBest());
+        assertEquals(2, r.totals.getDeaths(DeathCause.SELF));
+        assertEquals(1, r.session.getDeaths(DeathCause.SELF));
+        assertEquals(1, r.previousSession.getDeaths(DeathCause.SELF));
+    }
+}
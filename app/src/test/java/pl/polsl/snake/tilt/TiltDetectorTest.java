@@ -0,0 +1,148 @@
+package pl.polsl.snake.tilt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+
+public class TiltDetectorTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final TiltDetector detector = new TiltDetector();
+    private long t;
+
+    private void hold(float x, float y, long millis) {
+        for (long end = t + millis * MS; t < end; t += 20 * MS) detector.onSample(x, y, t);
+    }
+
+    @Test
+    public void oneTurnPerGestureWithHysteresis() {
+        hold(0, 0, 400);
+        assertEquals(Input.NONE, detector.sample());
+        hold(5, 0, 300);
+        assertEquals(Input.LEFT, detector.sample());
+        assertEquals(Input.NONE, detector.sample());
+        // Między progiem zwolnienia a wejścia gest trwa - ponowne przekroczenie to nie nowy skręt
+        hold(2, 0, 300);
+        assertEquals(Input.NONE, detector.sample());
+        hold(5, 0, 300);
+        assertEquals(Input.NONE, detector.sample());
+        hold(0, 0, 300);
+        assertEquals(Input.NONE, detector.sample());
+        hold(5, 0, 300);
+        assertEquals(Input.LEFT, detector.sample());
+        assertEquals(2, detector.getTurns());
+    }
+
+    @Test
+    public void mapsAxesLikeOldThreshold() {
+        hold(0, 0, 400);
+        hold(-5, 0, 300);
+        assertEquals(Input.RIGHT, detector.sample());
+        hold(0, -5, 300);
+        assertEquals(Input.UP, detector.sample());
+        hold(0, 5, 500);
+        assertEquals(Input.DOWN, detector.sample());
+    }
+
+    @Test
+    public void diagonalIsDeadZone() {
+        hold(0, 0, 400);
+        hold(4, 4, 500);
+        assertEquals(Input.NONE, detector.sample());
+    }
+
+    @Test
+    public void restingAngleIsNeutral() {
+        // Telefon trzymany pod kątem: stałe y = 4.5 przy starym progu to ciągły skręt w dół
+        hold(0.2f, 4.5f, 2_000);
+        assertEquals(Input.NONE, detector.sample());
+        hold(0.2f, 4.5f + 4, 300);
+        assertEquals(Input.DOWN, detector.sample());
+    }
+
+    @Test
+    public void shortSpikeIsFiltered() {
+        hold(0, 0, 400);
+        hold(6, 0, 20);
+        hold(0, 0, 20);
+        assertEquals(Input.NONE, detector.sample());
+    }
+
+    @Test
+    public void batchedSamplesUseTheirOwnTimestamps() {
+        TiltDetector batched = new TiltDetector();
+        // Pięć próbek z 100 ms dostarczonych naraz filtruje się tak samo jak na bieżąco
+        for (int i = 0; i < 5; i++) {
+            batched.onSample(0, 0, i * 20 * MS);
+            detector.onSample(0, 0, i * 20 * MS);
+        }
+        for (int i = 5; i < 10; i++) {
+            batched.onSample(5, 0, i * 20 * MS);
+            detector.onSample(5, 0, i * 20 * MS);
+            assertEquals(detector.getTiltX(), batched.getTiltX(), 0f);
+        }
+    }
+
+    @Test
+    public void syntheticTraceHasNoFalseTurns() {
+        TiltTrace trace = TiltTrace.synthetic(7, 100, 20 * MS);
+        TiltTrace.Result result = trace.replay(new TiltDetector(), 100 * MS, 0);
+        assertEquals(100, result.gestures);
+        assertEquals(0, result.missed);
+        assertEquals(0, result.falseTurns);
+        assertTrue(result.toString(), result.latency.percentile(0.95) <= 300 * MS);
+
+        // Stary próg 3.0 na tym samym śladzie: tysiące poleceń niezgodnych z zamiarem gracza
+        assertTrue(rawThresholdWrongCommands(trace) > 1_000);
+    }
+
+    @Test
+    public void batchingCostsAtMostOneWindowOfLatency() {
+        TiltTrace trace = TiltTrace.synthetic(1, 50, 20 * MS);
+        TiltTrace.Result live = trace.replay(new TiltDetector(), 100 * MS, 0);
+        // Okno paczki krótsze niż tick i z nim nie zrównane
+        long batch = TiltDetector.reportLatencyMicros(15) * 1000L;
+        TiltTrace.Result batched = trace.replay(new TiltDetector(), 100 * MS, batch);
+        assertEquals(0, batched.falseTurns);
+        assertEquals(0, batched.missed);
+        assertTrue(batched.latency.getMean() >= live.latency.getMean());
+        assertTrue(batched.latency.getMean() - live.latency.getMean() <= batch);
+    }
+
+    @Test
+    public void traceRoundTripsThroughCsv() throws IOException {
+        TiltTrace trace = TiltTrace.synthetic(5, 3, 20 * MS);
+        StringWriter out = new StringWriter();
+        trace.write(out);
+        TiltTrace copy = TiltTrace.read(new BufferedReader(new StringReader(out.toString())));
+        assertEquals(trace.size(), copy.size());
+        for (int i = 0; i < trace.size(); i += 17) {
+            assertEquals(trace.getNanos(i), copy.getNanos(i), 1_000);
+            assertEquals(trace.getX(i), copy.getX(i), 0.001f);
+            assertEquals(trace.getIntended(i), copy.getIntended(i));
+        }
+    }
+
+    // Polecenia dawnego onSensorChanged (surowe wartości, próg 3.0, każda próbka) inne niż zamiar
+    private static int rawThresholdWrongCommands(TiltTrace trace) {
+        int wrong = 0;
+        for (int i = 0; i < trace.size(); i++) {
+            float x = trace.getX(i), y = trace.getY(i);
+            Input dir = Input.NONE;
+            if (Math.abs(x) > Math.abs(y)) {
+                if (x > 3) dir = Input.LEFT; else if (x < -3) dir = Input.RIGHT;
+            } else {
+                if (y > 3) dir = Input.DOWN; else if (y < -3) dir = Input.UP;
+            }
+            if (dir != Input.NONE && dir != trace.getIntended(i)) wrong++;
+        }
+        return wrong;
+    }
+}
@@ -0,0 +1,70 @@
+package pl.polsl.snake.voice;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+
+public class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = KeywordMatcher.createDefault();
+    private final Input[] out = new Input[8];
+
+    @Test
+    public void findsCommandsAndSynonymsInOrder() {
+        assertEquals(4, matcher.findAll("w prawo, potem DO GÓRY i w lewo na dół", out));
+        assertEquals(Input.RIGHT, out[0]);
+        assertEquals(Input.UP, out[1]);
+        assertEquals(Input.LEFT, out[2]);
+        assertEquals(Input.DOWN, out[3]);
+    }
+
+    @Test
+    public void acceptsTextWithoutPolishCharacters() {
+        assertEquals(2, matcher.findAll("gora dol", out));
+        assertEquals(Input.UP, out[0]);
+        assertEquals(Input.DOWN, out[1]);
+    }
+
+    @Test
+    public void ignoresTextWithoutCommands() {
+        assertEquals(0, matcher.findAll("", out));
+        assertEquals(0, matcher.findAll("le pra gó", out));
+    }
+
+    @Test
+    public void ignoresCommandsInsideLongerWords() {
+        assertEquals(0, matcher.findAll("grupa", out));
+        assertEquals(0, matcher.findAll("kupić", out));
+        assertEquals(0, matcher.findAll("dolny", out));
+        assertEquals(0, matcher.findAll("to inna sprawa", out));
+        assertEquals(0, matcher.findAll("lewatywa upał", out));
+    }
+
+    @Test
+    public void acceptsWholeWordsNextToPunctuation() {
+        assertEquals(3, matcher.findAll("(up) dolu, sprawa; prawa!", out));
+        assertEquals(Input.UP, out[0]);
+        assertEquals(Input.DOWN, out[1]);
+        assertEquals(Input.RIGHT, out[2]);
+    }
+
+    @Test
+    public void followsFailureLinksBetweenOverlappingWords() {
+        Map<String, Input> words = new LinkedHashMap<>();
+        words.put("x abcd", Input.UP);
+        words.put("abce", Input.DOWN);
+        KeywordMatcher m = new KeywordMatcher(words);
+        // "x abc" nie kończy się "d" - automat przechodzi do "abc" i znajduje "abce"
+        assertEquals(1, m.findAll("x abce", out));
+        assertEquals(Input.DOWN, out[0]);
+    }
+
+    @Test
+    public void stopsAtOutputCapacity() {
+        Input[] two = new Input[2];
+        assertEquals(2, matcher.findAll("lewo lewo lewo", two));
+    }
+}
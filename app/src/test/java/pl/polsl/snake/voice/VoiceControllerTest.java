@@ -0,0 +1,113 @@
+package pl.polsl.snake.voice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.InputQueue;
+
+public class VoiceControllerTest {
+
+    // Atrapa rozpoznawacza: liczy wywołania, wyniki podaje test
+    private static final class FakeRecognizer implements Recognizer {
+        Listener listener;
+        int starts, cancels, destroys, prepares;
+
+        @Override public void setListener(Listener listener) { this.listener = listener; }
+        @Override public void prepare() { prepares++; }
+        @Override public void startListening() { starts++; }
+        @Override public void cancel() { cancels++; }
+        @Override public void destroy() { destroys++; }
+
+        void say(long startNanos, String... partials) {
+            listener.onReady();
+            listener.onSpeechStart(startNanos);
+            for (int i = 0; i < partials.length; i++) listener.onPartial(partials[i], startNanos + (i + 1) * 100);
+            listener.onFinal(partials[partials.length - 1], startNanos + (partials.length + 1) * 100);
+        }
+    }
+
+    private final FakeRecognizer recognizer = new FakeRecognizer();
+    private final List<Long> delays = new ArrayList<>();
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final InputQueue queue = new InputQueue(16);
+    private final VoiceController voice = new VoiceController(recognizer, (task, delay) -> {
+        delays.add(delay);
+        scheduled.add(task);
+    }, KeywordMatcher.createDefault(), queue);
+
+    @Test
+    public void growingPartialResultsGiveEachCommandOnce() {
+        voice.start();
+        recognizer.say(1_000, "le", "lewo", "lewo", "Lewo pra", "lewo prawo", "lewo prawo w górę");
+        assertEquals(Input.LEFT, queue.poll());
+        assertEquals(1_000, queue.getLastTimestamp());
+        assertEquals(Input.RIGHT, queue.poll());
+        assertEquals(1_400, queue.getLastTimestamp()); // wynik częściowy przed tym, w którym padło "prawo"
+        assertEquals(Input.UP, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(3, voice.getCommands());
+    }
+
+    @Test
+    public void nextUtteranceReusesSessionWithoutRebinding() {
+        voice.start();
+        recognizer.say(0, "dół");
+        recognizer.say(5_000, "dol");
+        assertEquals(Input.DOWN, queue.poll());
+        assertEquals(Input.DOWN, queue.poll());
+        assertEquals(3, recognizer.starts);
+        assertEquals(0, recognizer.destroys);
+    }
+
+    @Test
+    public void silenceRestartsImmediately() {
+        voice.start();
+        recognizer.listener.onError(Recognizer.ERROR_SPEECH_TIMEOUT);
+        recognizer.listener.onError(Recognizer.ERROR_NO_MATCH);
+        assertEquals(3, recognizer.starts);
+        assertEquals(0, delays.size());
+        assertEquals(0, voice.getErrors());
+    }
+
+    @Test
+    public void realErrorsBackOffAndRebindAfterSeveralFailures() {
+        voice.start();
+        for (int i = 0; i < 4; i++) {
+            recognizer.listener.onError(Recognizer.ERROR_RECOGNIZER_BUSY);
+            scheduled.get(i).run();
+        }
+        assertEquals(List.of(100L, 200L, 400L, 800L), delays);
+        assertEquals(2, recognizer.destroys);
+        assertEquals(5, recognizer.starts);
+
+        // Udana wypowiedź zeruje licznik błędów
+        recognizer.say(0, "prawo");
+        recognizer.listener.onError(5);
+        assertEquals(100L, (long) delays.get(4));
+    }
+
+    @Test
+    public void stopCancelsPendingRestart() {
+        voice.start();
+        recognizer.listener.onError(5);
+        voice.stop();
+        scheduled.get(0).run();
+        assertEquals(1, recognizer.starts);
+        recognizer.listener.onPartial("lewo", 0);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void prewarmOnlyPreparesWhileIdle() {
+        voice.prewarm();
+        assertEquals(1, recognizer.prepares);
+        assertEquals(0, recognizer.starts);
+        voice.start();
+        voice.prewarm();
+        assertEquals(1, recognizer.prepares);
+    }
+}
@@ -0,0 +1,74 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Rdzeń gry, symulator seryjny, arena, detektor przechylenia, ścieżka zimnego startu (sesja, menu,
+// słowa kluczowe) i klient podglądu nie zależą od Androida, więc kompilujemy je tu wprost ze źródeł aplikacji
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include("pl/polsl/snake/core/**")
+            include("pl/polsl/snake/batch/**")
+            include("pl/polsl/snake/arena/**")
+            include("pl/polsl/snake/tilt/**")
+            include("pl/polsl/snake/profile/LatencyHistogram.java")
+            include("pl/polsl/snake/session/**")
+            include("pl/polsl/snake/startup/**")
+            include("pl/polsl/snake/voice/KeywordMatcher.java")
+            include("pl/polsl/snake/render/MenuLayout.java")
+            include("pl/polsl/snake/render/TextBuffer.java")
+            include("pl/polsl/snake/spectate/**")
+        }
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// Wyniki w JSON (build/results/jmh/results.json) - do porównywania między buildami.
+// Wybrane benchmarki: ./gradlew :benchmarks:jmh -Pjmh.includes=Simulation
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    (findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+// Seria gier bez ekranu: ./gradlew :benchmarks:batch -Pbatch.args="--games=10000 --grid=40x80,20x40"
+tasks.register<JavaExec>("batch") {
+    group = "application"
+    description = "Rozgrywa serię gier na wszystkich rdzeniach i wypisuje statystyki"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pl.polsl.snake.batch.BatchMain")
+    (findProperty("batch.args") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
+
+// Ślad akcelerometru przez detektor przechylenia: ./gradlew :benchmarks:tiltTrace -Ptilt.args="--trace=ślad.csv --batch-ms=0,50"
+tasks.register<JavaExec>("tiltTrace") {
+    group = "application"
+    description = "Liczy fałszywe skręty i opóźnienie gestów przechylenia na nagranym śladzie"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pl.polsl.snake.tilt.TiltTrace")
+    (findProperty("tilt.args") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
+
+// Podgląd gry z telefonu: adb forward tcp:7531 tcp:7531, potem
+// ./gradlew :benchmarks:spectate -Pspectate.args="--record=gra.snkv"
+tasks.register<JavaExec>("spectate") {
+    group = "application"
+    description = "Odbudowuje stan gry ze strumienia podglądu i opcjonalnie go nagrywa"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pl.polsl.snake.spectate.SpectatorClient")
+    (findProperty("spectate.args") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
@@ -0,0 +1,50 @@
+package pl.polsl.snake.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pl.polsl.snake.arena.Arena;
+import pl.polsl.snake.arena.ArenaConfig;
+
+// Ticki areny na sekundę w zależności od liczby wątków fazy propozycji - skalowanie z rdzeniami.
+// Wynik przebiegu jest ten sam dla każdej liczby wątków, zmienia się tylko czas.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArenaBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"100", "500", "2000"})
+    public int snakes;
+
+    private Arena arena;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int side = snakes <= 100 ? 200 : snakes <= 500 ? 400 : 800;
+        arena = new Arena(new ArenaConfig(side, side, snakes, snakes * 2, 4, 20), 42, threads);
+        // Rozgrzana arena: węże urosły, część zginęła i wróciła
+        for (int i = 0; i < 200; i++) arena.step();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        arena.shutdown();
+    }
+
+    @Benchmark
+    public long tick() {
+        arena.step();
+        return arena.getTick();
+    }
+}
@@ -0,0 +1,56 @@
+package pl.polsl.snake.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.polsl.snake.core.Autopilot;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Decyzje autopilota na sekundę w zależności od rozmiaru planszy
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AutopilotBenchmark {
+
+    @Param({"40x80", "200x200", "1000x1000"})
+    public String grid;
+
+    private Simulation sim;
+    private Autopilot autopilot;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        int x = grid.indexOf('x');
+        sim = new Simulation(Integer.parseInt(grid.substring(0, x)), Integer.parseInt(grid.substring(x + 1)), 1);
+        autopilot = new Autopilot();
+    }
+
+    // Gra z autopilotem: większość ticków idzie zapamiętaną drogą, BFS tylko po zjedzeniu jabłka
+    @Benchmark
+    public int play() {
+        Input input = autopilot.next(sim);
+        int events = sim.step(input);
+        sim.getChanges().clear();
+        if (sim.isDead()) sim.reset(++seed);
+        return events;
+    }
+
+    // Najgorszy przypadek: każda decyzja to pełne przeszukanie od nowa
+    @Benchmark
+    public Input searchEveryTick() {
+        autopilot.invalidate();
+        Input input = autopilot.next(sim);
+        sim.step(input);
+        sim.getChanges().clear();
+        if (sim.isDead()) sim.reset(++seed);
+        return input;
+    }
+}
@@ -0,0 +1,29 @@
+package pl.polsl.snake.bench;
+
+import pl.polsl.snake.core.Heading;
+
+// Cykl Hamiltona po planszy o parzystej wysokości: wężyk po kolumnach 1..W-1,
+// powrót kolumną 0. Wąż jadący po nim nigdy nie ginie, więc mierzymy sam tick.
+final class BoardCycle {
+
+    private final Heading[] next;
+
+    BoardCycle(int width, int height) {
+        if (height % 2 != 0 || width < 2) throw new IllegalArgumentException("Potrzebna parzysta wysokość");
+        next = new Heading[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Heading h;
+                if (x == 0) h = y == 0 ? Heading.RIGHT : Heading.UP;
+                else if (y % 2 == 0) h = x < width - 1 ? Heading.RIGHT : Heading.DOWN;
+                else if (x > 1) h = Heading.LEFT;
+                else h = y == height - 1 ? Heading.LEFT : Heading.DOWN;
+                next[y * width + x] = h;
+            }
+        }
+    }
+
+    Heading at(int cell) {
+        return next[cell];
+    }
+}
@@ -0,0 +1,54 @@
+package pl.polsl.snake.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.polsl.snake.core.FreeCells;
+import pl.polsl.snake.core.Rng;
+
+// Odpowiednik spawnBob + ruchu: losowanie wolnego pola, zajęcie go i zwolnienie innego
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FreeCellsBenchmark {
+
+    @Param({"3200", "40000", "1000000"})
+    public int cells;
+
+    // Jaka część planszy jest wolna
+    @Param({"0.9", "0.01"})
+    public double freeShare;
+
+    private FreeCells free;
+    private final Rng rng = new Rng(1);
+    private int[] taken;
+    private int takenCount;
+
+    @Setup
+    public void setUp() {
+        free = new FreeCells(cells);
+        taken = new int[cells];
+        for (int c = 0; c < cells; c++) {
+            if (rng.nextInt(1_000_000) < freeShare * 1_000_000) free.add(c);
+            else taken[takenCount++] = c;
+        }
+    }
+
+    @Benchmark
+    public int spawnAndMove() {
+        int apple = free.pick(rng);
+        // Głowa wjeżdża na wylosowane pole, ogon zwalnia najstarsze zajęte
+        free.remove(apple);
+        int slot = rng.nextInt(takenCount);
+        int tail = taken[slot];
+        taken[slot] = apple;
+        free.add(tail);
+        return apple;
+    }
+}
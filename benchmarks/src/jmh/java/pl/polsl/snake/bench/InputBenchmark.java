@@ -0,0 +1,75 @@
+package pl.polsl.snake.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import pl.polsl.snake.core.Heading;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.InputQueue;
+import pl.polsl.snake.core.Steering;
+
+// Przepustowość obsługi poleceń skrętu
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InputBenchmark {
+
+    private static final Input[] INPUTS = Input.values();
+    // Licznik zawija się, zanim przekroczy int - dziesięciosekundowe iteracje robią ponad 2^31 operacji
+    private static final int COUNTER_MASK = (1 << 20) - 1;
+
+    @State(Scope.Thread)
+    public static class Single {
+        final InputQueue queue = new InputQueue(16);
+        final Steering steering = new Steering(queue);
+        Heading heading = Heading.RIGHT;
+        int i;
+    }
+
+    // Sama walidacja polecenia względem bieżącego kierunku
+    @Benchmark
+    public Heading resolve(Single s) {
+        Input input = INPUTS[s.i % INPUTS.length];
+        s.i = (s.i + 1) & COUNTER_MASK;
+        Heading next = input.resolve(s.heading);
+        if (next != null) s.heading = next;
+        return s.heading;
+    }
+
+    // Tick z dwoma poleceniami w kolejce: odbiór, walidacja, buforowanie drugiego skrętu
+    @Benchmark
+    public Input steeringTick(Single s) {
+        s.queue.offer(INPUTS[1 + s.i % 6], 0);
+        s.queue.offer(INPUTS[1 + (s.i + 3) % 6], 0);
+        s.i = (s.i + 1) & COUNTER_MASK;
+        Input input = s.steering.next(s.heading, 0);
+        Heading next = input.resolve(s.heading);
+        if (next != null) s.heading = next;
+        return input;
+    }
+
+    @State(Scope.Group)
+    public static class Shared {
+        final InputQueue queue = new InputQueue(64);
+    }
+
+    // Trzech producentów (dotyk, czujnik, mowa) i wątek gry jako konsument
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public boolean offer(Shared s) {
+        return s.queue.offer(Input.TURN_LEFT, 0);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public Input poll(Shared s) {
+        return s.queue.poll();
+    }
+}
@@ -0,0 +1,59 @@
+package pl.polsl.snake.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+
+// Ticki na sekundę: ruch, kolizje, zjadanie i losowanie jabłek dla różnych plansz i długości węża
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SimulationBenchmark {
+
+    // Szerokość x wysokość; wysokość i jej połowa parzyste (start węża leży na cyklu jadąc w prawo).
+    // Powyżej Simulation.DENSE_CELL_LIMIT pól mierzymy wariant wielkiego świata.
+    @Param({"40x80", "200x200", "1000x1000", "2000x2000"})
+    public String grid;
+
+    // Długość węża: liczba pól albo "half" - połowa planszy. Każda wartość mieści się na każdej
+    // planszy, więc żadna kombinacja nie powtarza innej.
+    @Param({"16", "1024", "half"})
+    public String length;
+
+    private Simulation sim;
+    private BoardCycle cycle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int x = grid.indexOf('x');
+        int width = Integer.parseInt(grid.substring(0, x));
+        int height = Integer.parseInt(grid.substring(x + 1));
+        sim = new Simulation(width, height, 42);
+        cycle = new BoardCycle(width, height);
+
+        // Wąż rośnie o jedno pole na tick, dopóki jabłko jest "wszędzie"
+        int half = width * height / 2;
+        int target = length.equals("half") ? half : Integer.parseInt(length);
+        if (target > half) throw new IllegalArgumentException("Długość " + target + " nie mieści się na planszy " + grid);
+        sim.setBobScale(Float.MAX_VALUE);
+        while (sim.getLength() < target) tick();
+        // Dalej zjada tylko jabłko, na które faktycznie wjedzie
+        sim.setBobScale(0f);
+    }
+
+    @Benchmark
+    public int tick() {
+        int events = sim.step(Input.of(cycle.at(sim.getBody().headCell())));
+        sim.getChanges().clear();
+        return events;
+    }
+}
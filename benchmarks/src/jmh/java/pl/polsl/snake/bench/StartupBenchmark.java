@@ -0,0 +1,80 @@
+package pl.polsl.snake.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.polsl.snake.core.Input;
+import pl.polsl.snake.core.Simulation;
+import pl.polsl.snake.render.MenuLayout;
+import pl.polsl.snake.render.TextBuffer;
+import pl.polsl.snake.session.GameSnapshot;
+import pl.polsl.snake.session.SessionFile;
+import pl.polsl.snake.startup.StartupTrace;
+import pl.polsl.snake.voice.KeywordMatcher;
+
+// Zimny start po stronie JVM: to, co silnik robi przed pierwszą klatką menu (konstruktor,
+// odczyt sesji, układ menu i tekst statystyk). Każdy pomiar w świeżej JVM - liczy się też
+// ładowanie klas, jak przy pierwszym uruchomieniu aplikacji. Czas do pierwszej klatki na
+// urządzeniu daje log SNAKE_STARTUP i reportFullyDrawn().
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    private static final int WIDTH = 40, HEIGHT = 80;
+    private static final int SCREEN_X = 1080, SCREEN_Y = 2160;
+
+    private Path dir;
+    private SessionFile session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("snake-startup");
+        session = new SessionFile(dir.resolve("session.bin"));
+        // Zapisana gra w toku, jak po obrocie ekranu albo śmierci procesu
+        Simulation saved = new Simulation(WIDTH, HEIGHT, 7);
+        for (int i = 0; i < 20 && !saved.isDead(); i++) saved.step(Input.NONE);
+        session.save(new GameSnapshot(), saved);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        session.delete();
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long firstMenuFrame() throws IOException {
+        StartupTrace trace = new StartupTrace(System.nanoTime());
+        Simulation sim = new Simulation(WIDTH, HEIGHT, System.nanoTime());
+        KeywordMatcher matcher = KeywordMatcher.createDefault();
+        trace.mark("konstruktor", System.nanoTime());
+
+        GameSnapshot snapshot = new GameSnapshot();
+        session.load(snapshot, sim);
+        trace.mark("sesja", System.nanoTime());
+
+        MenuLayout menu = new MenuLayout();
+        menu.update(SCREEN_X, SCREEN_Y);
+        TextBuffer text = new TextBuffer(128);
+        text.append("Wynik: ").append(sim.getScore()).append(" | prędkość: ").append(snapshot.gameSpeed);
+        trace.firstFrame(System.nanoTime());
+        return trace.getTimeToFirstFrameNanos() + text.length() + menu.getWidth() + matcher.hashCode();
+    }
+}
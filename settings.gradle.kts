@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Snake"
 include(":app")
+include(":benchmarks")